@@ -0,0 +1,150 @@
+package com.busbooking.benchmark;
+
+import com.busbooking.service.TripSeatService;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * So cấu hình driver MySQL mặc định với cấu hình của profile prod (data-source-properties đọc thẳng từ
+ * application-prod.properties) trên hai đường dùng nhiều câu SQL:
+ * - generateSeats: INSERT batch ghế của một chuyến như TripSeatService.createSeatsForTrip (rollback sau mỗi lần)
+ * - exportTickets: đọc danh sách vé kèm hành khách và số ghế của một chuyến
+ *
+ * Cần MySQL với dữ liệu từ SyntheticDataGenerator:
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="JdbcTuningBenchmark -jvmArgsAppend -Djmh.jdbc.url=jdbc:mysql://..."
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JdbcTuningBenchmark {
+
+    private static final String DEFAULT_JDBC_URL = "jdbc:mysql://localhost:3306/bus_booking_loadtest"
+            + "?useSSL=false&serverTimezone=Asia/Ho_Chi_Minh&allowPublicKeyRetrieval=true";
+    private static final String DATA_SOURCE_PREFIX = "spring.datasource.hikari.data-source-properties.";
+    private static final String INSERT_SEAT_SQL = TripSeatService.INSERT_SQL;
+    private static final String EXPORT_TICKETS_SQL = "SELECT t.id, t.status, t.price, t.booked_at, u.full_name, u.phone, "
+            + "s.seat_number FROM tickets t JOIN users u ON u.id = t.user_id JOIN seats s ON s.id = t.seat_id "
+            + "WHERE t.trip_id = ? ORDER BY t.id";
+
+    @Param({"default", "prod"})
+    private String driverSettings;
+
+    @Param({"40"})
+    private int seatsPerTrip;
+
+    private HikariDataSource dataSource;
+    private Connection connection;
+    private int[] tripIds;
+    private final Random random = new Random(42L);
+
+    @Setup
+    public void setUp() throws SQLException, IOException {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(System.getProperty("jmh.jdbc.url", DEFAULT_JDBC_URL));
+        config.setUsername(System.getProperty("jmh.jdbc.user", "root"));
+        config.setPassword(System.getProperty("jmh.jdbc.password", ""));
+        config.setMaximumPoolSize(1);
+        if ("prod".equals(driverSettings)) {
+            Properties prod = new Properties();
+            try (InputStream in = getClass().getResourceAsStream("/application-prod.properties")) {
+                prod.load(in);
+            }
+            for (String name : prod.stringPropertyNames()) {
+                if (name.startsWith(DATA_SOURCE_PREFIX)) {
+                    config.addDataSourceProperty(name.substring(DATA_SOURCE_PREFIX.length()), prod.getProperty(name));
+                }
+            }
+        }
+        dataSource = new HikariDataSource(config);
+        connection = dataSource.getConnection();
+        connection.setAutoCommit(false);
+
+        List<Integer> ids = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT DISTINCT trip_id FROM tickets ORDER BY trip_id LIMIT 1000");
+             ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                ids.add(rs.getInt(1));
+            }
+        }
+        if (ids.isEmpty()) {
+            throw new IllegalStateException("Không có vé trong database; chạy SyntheticDataGenerator trước");
+        }
+        tripIds = ids.stream().mapToInt(Integer::intValue).toArray();
+        connection.commit();
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.rollback();
+        connection.close();
+        dataSource.close();
+    }
+
+    @Benchmark
+    public int[] generateSeats() throws SQLException {
+        int tripId = tripIds[random.nextInt(tripIds.length)];
+        Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now());
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_SEAT_SQL)) {
+            for (int i = 1; i <= seatsPerTrip; i++) {
+                statement.setInt(1, tripId);
+                statement.setString(2, "B" + i);
+                statement.setString(3, "standard");
+                statement.setString(4, "available");
+                statement.setTimestamp(5, createdAt);
+                statement.addBatch();
+            }
+            return statement.executeBatch();
+        } finally {
+            connection.rollback();
+        }
+    }
+
+    @Benchmark
+    public void exportTickets(Blackhole blackhole) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(EXPORT_TICKETS_SQL)) {
+            statement.setInt(1, tripIds[random.nextInt(tripIds.length)]);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    blackhole.consume(rs.getInt(1));
+                    blackhole.consume(rs.getString(2));
+                    blackhole.consume(rs.getBigDecimal(3));
+                    blackhole.consume(rs.getTimestamp(4));
+                    blackhole.consume(rs.getString(5));
+                    blackhole.consume(rs.getString(6));
+                    blackhole.consume(rs.getString(7));
+                }
+            }
+        }
+    }
+}
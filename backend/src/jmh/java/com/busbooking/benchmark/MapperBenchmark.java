@@ -0,0 +1,79 @@
+package com.busbooking.benchmark;
+
+import com.busbooking.dto.response.TicketResponse;
+import com.busbooking.dto.response.TripResponse;
+import com.busbooking.mapper.TicketMapper;
+import com.busbooking.mapper.TripMapper;
+import com.busbooking.model.Ticket;
+import com.busbooking.model.Trip;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chuyển entity sang response: một vé (kèm/không kèm khuyến mãi) và cả danh sách chuyến.
+ * Mapper chỉ dùng repository ở toEntity nên khởi tạo trực tiếp, không cần Spring context.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+
+    @Param({"1000"})
+    private int tripCount;
+
+    private TicketMapper ticketMapper;
+    private TripMapper tripMapper;
+    private List<Trip> trips;
+    private Ticket ticket;
+    private Ticket ticketWithPromotion;
+
+    @Setup
+    public void setUp() {
+        ticketMapper = new TicketMapper();
+        tripMapper = new TripMapper();
+        trips = SyntheticData.trips(tripCount, 50, 42L);
+        ticket = SyntheticData.ticket(trips.get(0), false);
+        ticketWithPromotion = SyntheticData.ticket(trips.get(0), true);
+    }
+
+    @Benchmark
+    public TicketResponse ticketToResponse() {
+        return ticketMapper.toResponse(ticket);
+    }
+
+    @Benchmark
+    public TicketResponse ticketWithPromotionToResponse() {
+        return ticketMapper.toResponse(ticketWithPromotion);
+    }
+
+    @Benchmark
+    public TripResponse tripToResponse() {
+        return tripMapper.toResponse(trips.get(0));
+    }
+
+    /**
+     * Tương ứng GET /trips: map toàn bộ danh sách, đơn vị là một lần gọi cho tripCount chuyến
+     */
+    @Benchmark
+    public void tripListToResponse(Blackhole blackhole) {
+        for (Trip trip : trips) {
+            blackhole.consume(tripMapper.toResponse(trip));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.busbooking.benchmark;
+
+import com.busbooking.dto.response.ScheduleGroupResponse;
+import com.busbooking.model.Trip;
+import com.busbooking.repository.TripRepository;
+import com.busbooking.service.TripService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * TripService.getScheduleRoutes: nhóm các chuyến scheduled theo điểm đi rồi theo tuyến.
+ * Repository trả danh sách dựng sẵn nên chỉ đo phần xử lý trong bộ nhớ, không tính DB.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScheduleBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int tripCount;
+
+    @Param({"60"})
+    private int routeCount;
+
+    private TripService tripService;
+
+    @Setup
+    public void setUp() {
+        List<Trip> trips = SyntheticData.trips(tripCount, routeCount, 42L);
+        TripRepository tripRepository = mock(TripRepository.class);
+        List<Trip> scheduled = trips.stream()
+                .filter(trip -> Trip.Status.scheduled.equals(trip.getStatus()))
+                .toList();
+        when(tripRepository.findByStatus(Trip.Status.scheduled)).thenReturn(scheduled);
+        tripService = new TripService(tripRepository, null, null, null, null, null);
+    }
+
+    @Benchmark
+    public List<ScheduleGroupResponse> getScheduleRoutes() {
+        return tripService.getScheduleRoutes();
+    }
+}
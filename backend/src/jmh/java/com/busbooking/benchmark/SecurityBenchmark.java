@@ -0,0 +1,76 @@
+package com.busbooking.benchmark;
+
+import com.busbooking.security.JwtTokenProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Đường nóng của bảo mật: kiểm tra JWT ở mỗi request (JwtAuthenticationFilter gọi validateToken
+ * rồi getUsernameFromToken) và so khớp BCrypt khi đăng nhập.
+ * Cấu hình giống SecurityConfig: BCryptPasswordEncoder mặc định (strength 10), secret mặc định của app.jwt.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SecurityBenchmark {
+
+    private static final String JWT_SECRET = "dGhpc0lzQVZlcnlTZWNyZXRLZXlGb3JKV1RUb2tlbkdlbmVyYXRpb25JbkJ1c0Jvb2tpbmdTeXN0ZW0=";
+    private static final String PASSWORD = "Customer@123";
+
+    private JwtTokenProvider jwtTokenProvider;
+    private PasswordEncoder passwordEncoder;
+    private String token;
+    private String passwordHash;
+
+    @Setup
+    public void setUp() {
+        jwtTokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtSecret", JWT_SECRET);
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtExpirationMs", 86_400_000L);
+        token = jwtTokenProvider.generateTokenFromUsername("customer01");
+
+        passwordEncoder = new BCryptPasswordEncoder();
+        passwordHash = passwordEncoder.encode(PASSWORD);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtTokenProvider.validateToken(token);
+    }
+
+    @Benchmark
+    public String getUsernameFromToken() {
+        return jwtTokenProvider.getUsernameFromToken(token);
+    }
+
+    /**
+     * Toàn bộ công việc JWT của một request đã xác thực
+     */
+    @Benchmark
+    public String authenticateRequest() {
+        return jwtTokenProvider.validateToken(token) ? jwtTokenProvider.getUsernameFromToken(token) : null;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public boolean bcryptLoginVerification() {
+        return passwordEncoder.matches(PASSWORD, passwordHash);
+    }
+}
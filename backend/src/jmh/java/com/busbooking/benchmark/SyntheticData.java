@@ -0,0 +1,99 @@
+package com.busbooking.benchmark;
+
+import com.busbooking.model.Driver;
+import com.busbooking.model.Promotion;
+import com.busbooking.model.Route;
+import com.busbooking.model.Seat;
+import com.busbooking.model.Ticket;
+import com.busbooking.model.Trip;
+import com.busbooking.model.User;
+import com.busbooking.model.Vehicle;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Dữ liệu giả lập cho benchmark, sinh theo seed cố định để các lần chạy so sánh được với nhau
+ */
+final class SyntheticData {
+
+    private static final String[] CITIES = {
+            "Hà Nội", "Hồ Chí Minh", "Đà Nẵng", "Hải Phòng", "Cần Thơ", "Nha Trang",
+            "Đà Lạt", "Huế", "Vinh", "Quy Nhơn", "Buôn Ma Thuột", "Vũng Tàu"
+    };
+
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2025, 1, 1, 6, 0);
+
+    private SyntheticData() {
+    }
+
+    static List<Route> routes(int count) {
+        List<Route> routes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String from = CITIES[i % CITIES.length];
+            String to = CITIES[(i / CITIES.length + i + 1) % CITIES.length];
+            routes.add(new Route(i + 1, from, to, BigDecimal.valueOf(100 + (i * 37L) % 1500),
+                    BigDecimal.valueOf(150_000 + (i % 20) * 25_000L), 120 + (i * 13) % 900, BASE_TIME));
+        }
+        return routes;
+    }
+
+    static List<Vehicle> vehicles(int count) {
+        Vehicle.VehicleType[] types = Vehicle.VehicleType.values();
+        List<Vehicle> vehicles = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Vehicle.VehicleType type = types[i % types.length];
+            vehicles.add(new Vehicle(i + 1, "51B-" + (10_000 + i), "Model " + type, type == Vehicle.VehicleType.sleeper ? 40 : 29,
+                    "2-2", type, true, BASE_TIME));
+        }
+        return vehicles;
+    }
+
+    static List<Driver> drivers(int count) {
+        List<Driver> drivers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            drivers.add(new Driver(i + 1, "Tài xế " + i, "B2-" + (100_000 + i), "09" + (10_000_000 + i),
+                    1 + i % 25, null, true, BASE_TIME));
+        }
+        return drivers;
+    }
+
+    /**
+     * Chuyến xe trên các tuyến cho trước; khoảng 70% ở trạng thái scheduled
+     */
+    static List<Trip> trips(int count, int routeCount, long seed) {
+        Random random = new Random(seed);
+        List<Route> routes = routes(routeCount);
+        List<Vehicle> vehicles = vehicles(Math.max(1, routeCount / 2));
+        List<Driver> drivers = drivers(Math.max(1, routeCount / 2));
+        Trip.Status[] statuses = Trip.Status.values();
+
+        List<Trip> trips = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Route route = routes.get(random.nextInt(routes.size()));
+            LocalDateTime departure = BASE_TIME.plusHours(random.nextInt(24 * 90));
+            Trip.Status status = random.nextInt(10) < 7 ? Trip.Status.scheduled : statuses[1 + random.nextInt(statuses.length - 1)];
+            trips.add(new Trip(i + 1, route,
+                    vehicles.get(random.nextInt(vehicles.size())),
+                    drivers.get(random.nextInt(drivers.size())),
+                    departure, departure.plusMinutes(route.getEstimatedDuration()), status, BASE_TIME, 0L));
+        }
+        return trips;
+    }
+
+    static Ticket ticket(Trip trip, boolean withPromotion) {
+        User user = new User(1, "customer01", "$2a$10$hash", "customer01@example.com", User.Role.customer,
+                "Nguyễn Văn A", "0901234567", true, BASE_TIME);
+        Seat seat = new Seat(1, trip.getVehicle(), "A01", Seat.SeatType.standard, Seat.Status.booked);
+        Promotion promotion = withPromotion
+                ? new Promotion(1, "TET2025", BigDecimal.TEN, BigDecimal.ZERO, LocalDate.of(2025, 1, 1),
+                        LocalDate.of(2025, 2, 28), 1000, 10, BASE_TIME, 0L)
+                : null;
+        return new Ticket(1, user, trip, seat, promotion, trip.getRoute().getBasePrice(),
+                Ticket.BookingMethod.online, Ticket.Status.booked, BASE_TIME, null);
+    }
+}
@@ -0,0 +1,54 @@
+package com.busbooking.loadtest;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tham số dòng lệnh dạng --key=value (hoặc --flag) cho các công cụ load test
+ */
+final class CliOptions {
+
+    private final Map<String, String> values = new HashMap<>();
+
+    private CliOptions() {
+    }
+
+    static CliOptions parse(String[] args) {
+        CliOptions options = new CliOptions();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Tham số không hợp lệ: " + arg + " (dùng --key=value)");
+            }
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                options.values.put(arg.substring(2), "true");
+            } else {
+                options.values.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+        return options;
+    }
+
+    String get(String key, String defaultValue) {
+        return values.getOrDefault(key, defaultValue);
+    }
+
+    int getInt(String key, int defaultValue) {
+        String value = values.get(key);
+        return value != null ? Integer.parseInt(value) : defaultValue;
+    }
+
+    long getLong(String key, long defaultValue) {
+        String value = values.get(key);
+        return value != null ? Long.parseLong(value) : defaultValue;
+    }
+
+    double getDouble(String key, double defaultValue) {
+        String value = values.get(key);
+        return value != null ? Double.parseDouble(value) : defaultValue;
+    }
+
+    boolean flag(String key) {
+        return Boolean.parseBoolean(values.get(key));
+    }
+}
@@ -0,0 +1,80 @@
+package com.busbooking.loadtest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ghi độ trễ (nano giây) theo endpoint; chỉ ghi sau khi hết thời gian khởi động (warm-up).
+ * Phân vị tính bằng nearest-rank trên toàn bộ mẫu đã sắp xếp.
+ */
+final class LatencyRecorder {
+
+    private static final double[] PERCENTILES = {50, 90, 95, 99, 99.9};
+
+    private final Map<String, Samples> samplesByEndpoint = new ConcurrentHashMap<>();
+    private volatile long measureFromNanos;
+    private volatile long measureToNanos = Long.MAX_VALUE;
+
+    void measureBetween(long fromNanos, long toNanos) {
+        this.measureFromNanos = fromNanos;
+        this.measureToNanos = toNanos;
+    }
+
+    void record(String endpoint, long startNanos, long endNanos, boolean success) {
+        if (startNanos < measureFromNanos || endNanos > measureToNanos) {
+            return;
+        }
+        samplesByEndpoint.computeIfAbsent(endpoint, key -> new Samples()).add(endNanos - startNanos, success);
+    }
+
+    /**
+     * Kết quả theo endpoint (giữ thứ tự tên), thời lượng đo tính bằng giây
+     */
+    List<EndpointReport> report(double durationSeconds) {
+        List<EndpointReport> reports = new ArrayList<>();
+        samplesByEndpoint.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> reports.add(entry.getValue().report(entry.getKey(), durationSeconds)));
+        return reports;
+    }
+
+    record EndpointReport(String endpoint, long requests, long errors, double throughputPerSecond,
+                          Map<String, Double> percentilesMs, double maxMs) {
+    }
+
+    private static final class Samples {
+        private long[] latencies = new long[4096];
+        private int size;
+        private long errors;
+
+        private synchronized void add(long latencyNanos, boolean success) {
+            if (size == latencies.length) {
+                latencies = Arrays.copyOf(latencies, size * 2);
+            }
+            latencies[size++] = latencyNanos;
+            if (!success) {
+                errors++;
+            }
+        }
+
+        private synchronized EndpointReport report(String endpoint, double durationSeconds) {
+            long[] sorted = Arrays.copyOf(latencies, size);
+            Arrays.sort(sorted);
+            Map<String, Double> percentiles = new LinkedHashMap<>();
+            for (double p : PERCENTILES) {
+                percentiles.put("p" + (p == Math.rint(p) ? String.valueOf((int) p) : String.valueOf(p)),
+                        size == 0 ? 0 : toMillis(sorted[Math.max(0, (int) Math.ceil(p / 100 * size) - 1)]));
+            }
+            return new EndpointReport(endpoint, size, errors, size / durationSeconds, percentiles,
+                    size == 0 ? 0 : toMillis(sorted[size - 1]));
+        }
+
+        private static double toMillis(long nanos) {
+            return nanos / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package com.busbooking.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kịch bản tải HTTP: mỗi người dùng ảo đăng nhập rồi lặp browse → search → sơ đồ ghế → (một phần) đặt vé
+ * cho tới hết thời gian chạy; in phân vị độ trễ và throughput theo từng endpoint.
+ *
+ * Dùng với dữ liệu từ SyntheticDataGenerator (tài khoản lt_user_N) và backend chạy profile loadtest.
+ * Chạy: mvn -Pbenchmark test-compile exec:exec@load-test -Dloadtest.args="--concurrency=64 --duration=120"
+ *
+ * Lỗi gồm mọi phản hồi 4xx/5xx, kể cả đặt trùng ghế do tranh chấp giữa các người dùng ảo.
+ */
+public final class LoadScenario {
+
+    private static final String LOGIN = "POST /auth/login";
+    private static final String BROWSE = "GET /trips/schedule-routes";
+    private static final String SEARCH = "GET /trips/search";
+    private static final String SEAT_MAP = "GET /trip-seats/trip/{id}";
+    private static final String BOOK_SEAT = "PATCH /trip-seats/{id}/book";
+    private static final String CREATE_TICKET = "POST /tickets";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final LatencyRecorder recorder = new LatencyRecorder();
+    private final HttpClient httpClient;
+    private final CliOptions options;
+    private final String baseUrl;
+    private final Map<String, Integer> seatIds = new HashMap<>();
+
+    private LoadScenario(CliOptions options) {
+        this.options = options;
+        this.baseUrl = options.get("base-url", "http://localhost:8080/api");
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new LoadScenario(CliOptions.parse(args)).run();
+    }
+
+    private void run() throws Exception {
+        int concurrency = options.getInt("concurrency", 32);
+        int warmupSeconds = options.getInt("warmup", 10);
+        int durationSeconds = options.getInt("duration", 60);
+        long seed = options.getLong("seed", 42L);
+
+        loadSeatIndex();
+
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long deadline = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+        recorder.measureBetween(measureFrom, deadline);
+
+        System.out.printf("Chạy %d người dùng ảo: khởi động %ds, đo %ds trên %s%n",
+                concurrency, warmupSeconds, durationSeconds, baseUrl);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                int userIndex = i;
+                executor.submit(() -> {
+                    new VirtualUser(userIndex, new Random(seed + userIndex)).run(deadline);
+                    return null;
+                });
+            }
+        }
+
+        List<LatencyRecorder.EndpointReport> reports = recorder.report(durationSeconds);
+        print(reports);
+        writeResult(reports, concurrency, durationSeconds);
+    }
+
+    /**
+     * POST /tickets cần id ghế của xe; tra một lần trước khi đo theo (xe, số ghế)
+     */
+    private void loadSeatIndex() throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(URI.create(baseUrl + "/seats"))
+                .header("Accept", "application/json").GET().build(), HttpResponse.BodyHandlers.ofString());
+        for (JsonNode seat : objectMapper.readTree(response.body()).path("data")) {
+            seatIds.put(seat.path("vehicleId").asInt() + ":" + seat.path("seatNumber").asText(), seat.path("id").asInt());
+        }
+        System.out.printf("Đã nạp %d ghế%n", seatIds.size());
+    }
+
+    private final class VirtualUser {
+        private final int index;
+        private final Random random;
+        private String token;
+        private int userId;
+
+        private VirtualUser(int index, Random random) {
+            this.index = index;
+            this.random = random;
+        }
+
+        private void run(long deadline) throws IOException, InterruptedException {
+            if (!login()) {
+                return;
+            }
+            int searchDays = options.getInt("search-days", 14);
+            double bookRatio = options.getDouble("book-ratio", 0.3);
+            long thinkMs = options.getLong("think-ms", 0);
+
+            while (System.nanoTime() < deadline) {
+                send(BROWSE, get("/trips/schedule-routes"));
+
+                LocalDate day = LocalDate.now().plusDays(random.nextInt(searchDays));
+                JsonNode trips = send(SEARCH, get("/trips/search?start=" + day.atStartOfDay()
+                        + "&end=" + day.atTime(23, 59, 59)));
+                JsonNode trip = pickTrip(trips);
+                if (trip != null) {
+                    int tripId = trip.path("id").asInt();
+                    JsonNode seats = send(SEAT_MAP, get("/trip-seats/trip/" + tripId));
+                    if (seats != null && random.nextDouble() < bookRatio) {
+                        book(trip, seats);
+                    }
+                }
+                if (thinkMs > 0) {
+                    Thread.sleep(thinkMs);
+                }
+            }
+        }
+
+        private boolean login() throws IOException, InterruptedException {
+            int userCount = options.getInt("user-count", options.getInt("concurrency", 32));
+            String username = SyntheticDataGenerator.USER_PREFIX + (index % userCount + 1);
+            Map<String, String> body = Map.of("username", username,
+                    "password", options.get("password", SyntheticDataGenerator.DEFAULT_PASSWORD));
+            JsonNode data = send(LOGIN, post("/auth/login", body));
+            if (data == null) {
+                System.err.println("Không đăng nhập được " + username);
+                return false;
+            }
+            token = data.path("token").asText();
+            userId = data.path("userId").asInt();
+            return true;
+        }
+
+        private JsonNode pickTrip(JsonNode trips) {
+            if (trips == null) {
+                return null;
+            }
+            List<JsonNode> candidates = new ArrayList<>();
+            for (JsonNode trip : trips) {
+                if ("scheduled".equals(trip.path("status").asText()) && trip.path("availableSeats").asLong() > 0) {
+                    candidates.add(trip);
+                }
+            }
+            return candidates.isEmpty() ? null : candidates.get(random.nextInt(candidates.size()));
+        }
+
+        private void book(JsonNode trip, JsonNode seats) throws IOException, InterruptedException {
+            List<JsonNode> available = new ArrayList<>();
+            for (JsonNode seat : seats) {
+                if ("available".equals(seat.path("status").asText())) {
+                    available.add(seat);
+                }
+            }
+            if (available.isEmpty()) {
+                return;
+            }
+            JsonNode seat = available.get(random.nextInt(available.size()));
+            if (send(BOOK_SEAT, patch("/trip-seats/" + seat.path("id").asInt() + "/book")) == null) {
+                return;
+            }
+            Integer seatId = seatIds.get(trip.path("vehicle").path("id").asInt() + ":" + seat.path("seatNumber").asText());
+            if (seatId == null) {
+                return;
+            }
+            Map<String, Object> ticket = new LinkedHashMap<>();
+            ticket.put("userId", userId);
+            ticket.put("tripId", trip.path("id").asInt());
+            ticket.put("seatId", seatId);
+            ticket.put("bookingMethod", "online");
+            ticket.put("status", "booked");
+            send(CREATE_TICKET, post("/tickets", ticket));
+        }
+
+        /**
+         * Gửi request, ghi độ trễ; trả về trường data của ApiResponse hoặc null nếu lỗi
+         */
+        private JsonNode send(String endpoint, HttpRequest request) throws InterruptedException {
+            long started = System.nanoTime();
+            try {
+                HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+                boolean success = response.statusCode() < 400;
+                recorder.record(endpoint, started, System.nanoTime(), success);
+                return success ? objectMapper.readTree(response.body()).path("data") : null;
+            } catch (IOException e) {
+                recorder.record(endpoint, started, System.nanoTime(), false);
+                return null;
+            }
+        }
+
+        private HttpRequest get(String path) {
+            return request(path).GET().build();
+        }
+
+        private HttpRequest patch(String path) {
+            return request(path).method("PATCH", HttpRequest.BodyPublishers.noBody()).build();
+        }
+
+        private HttpRequest post(String path, Object body) throws IOException {
+            return request(path)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                    .build();
+        }
+
+        private HttpRequest.Builder request(String path) {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Accept", "application/json");
+            if (token != null) {
+                builder.header("Authorization", "Bearer " + token);
+            }
+            return builder;
+        }
+    }
+
+    private void print(List<LatencyRecorder.EndpointReport> reports) {
+        System.out.printf("%n%-30s %9s %7s %9s %9s %9s %9s %9s %9s %9s%n",
+                "Endpoint", "Requests", "Errors", "Req/s", "p50 ms", "p90 ms", "p95 ms", "p99 ms", "p99.9 ms", "Max ms");
+        for (LatencyRecorder.EndpointReport report : reports) {
+            Map<String, Double> p = report.percentilesMs();
+            System.out.printf("%-30s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    report.endpoint(), report.requests(), report.errors(), report.throughputPerSecond(),
+                    p.get("p50"), p.get("p90"), p.get("p95"), p.get("p99"), p.get("p99.9"), report.maxMs());
+        }
+    }
+
+    private void writeResult(List<LatencyRecorder.EndpointReport> reports, int concurrency, int durationSeconds)
+            throws IOException {
+        File out = new File(options.get("out", "target/load-result.json"));
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("baseUrl", baseUrl);
+        result.put("concurrency", concurrency);
+        result.put("durationSeconds", durationSeconds);
+        result.put("seed", options.getLong("seed", 42L));
+        result.put("endpoints", reports);
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(out, result);
+        System.out.println("Kết quả: " + out.getPath());
+    }
+}
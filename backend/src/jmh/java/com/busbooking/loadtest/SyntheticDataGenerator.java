@@ -0,0 +1,383 @@
+package com.busbooking.loadtest;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Sinh dữ liệu quy mô lớn (tuyến, xe kèm ghế theo mẫu, tài xế, người dùng, chuyến + trip_seats, vé)
+ * vào một database MySQL cục bộ riêng cho load test. Cùng seed và tham số cho ra cùng dữ liệu.
+ *
+ * Phân bố:
+ * - Độ phổ biến của tuyến theo Zipf (vài tuyến chiếm phần lớn chuyến và vé)
+ * - Giờ khởi hành dồn vào khung sáng sớm và tối, loại xe theo tỉ lệ 55/25/20
+ * - Chuyến đã qua: completed, tỉ lệ lấp đầy cao; chuyến sắp tới: scheduled, càng gần giờ chạy càng đầy
+ * - Vé đặt trước giờ chạy theo phân phối mũ, một phần nhỏ bị hủy (ghế trả lại)
+ *
+ * Chạy: mvn -Pbenchmark test-compile exec:exec@generate-data -Dloadtest.args="--trips=20000 --users=5000"
+ */
+public final class SyntheticDataGenerator {
+
+    static final String DEFAULT_JDBC_URL = "jdbc:mysql://localhost:3306/bus_booking_loadtest"
+            + "?useSSL=false&serverTimezone=Asia/Ho_Chi_Minh&allowPublicKeyRetrieval=true";
+    static final String USER_PREFIX = "lt_user_";
+    static final String DEFAULT_PASSWORD = "loadtest123";
+
+    private static final String[] CITIES = {
+            "Hà Nội", "Hồ Chí Minh", "Đà Nẵng", "Hải Phòng", "Cần Thơ", "Nha Trang", "Đà Lạt", "Huế",
+            "Vinh", "Quy Nhơn", "Buôn Ma Thuột", "Vũng Tàu", "Phan Thiết", "Pleiku", "Thanh Hóa",
+            "Nam Định", "Lào Cai", "Hạ Long", "Rạch Giá", "Cà Mau", "Long Xuyên", "Quảng Ngãi"
+    };
+
+    private static final double[] VEHICLE_TYPE_WEIGHTS = {0.55, 0.25, 0.20};
+    private static final int BATCH_SIZE = 1000;
+
+    private final Connection connection;
+    private final Random random;
+    private final CliOptions options;
+    private final LocalDateTime now = LocalDateTime.now().withNano(0);
+
+    // Dữ liệu đã sinh, giữ lại để tham chiếu khi sinh chuyến và vé
+    private int[] routeIds;
+    private long[] routeBasePrices;
+    private int[] routeDurations;
+    private double[] routeCumulativeWeights;
+    private double[] routePopularity;
+    private int[] vehicleIds;
+    private int[] vehicleTypes;
+    private int[] vehicleFirstSeatIds;
+    private int[] driverIds;
+    private int firstUserId;
+    private int userCount;
+
+    private SyntheticDataGenerator(Connection connection, CliOptions options) {
+        this.connection = connection;
+        this.options = options;
+        this.random = new Random(options.getLong("seed", 42L));
+    }
+
+    public static void main(String[] args) throws Exception {
+        CliOptions options = CliOptions.parse(args);
+        String url = options.get("jdbc-url", DEFAULT_JDBC_URL);
+        if (!url.contains("rewriteBatchedStatements")) {
+            url += (url.contains("?") ? "&" : "?") + "rewriteBatchedStatements=true";
+        }
+        try (Connection connection = DriverManager.getConnection(url,
+                options.get("db-user", "root"), options.get("db-password", ""))) {
+            if ("bus_booking".equals(connection.getCatalog()) && !options.flag("force")) {
+                throw new IllegalStateException("Từ chối ghi dữ liệu giả lập vào database chính bus_booking "
+                        + "(dùng database riêng hoặc thêm --force)");
+            }
+            // Các bảng được ghi theo lô song song nên tắt kiểm tra khóa ngoại trong phiên (dữ liệu sinh ra đã nhất quán)
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET FOREIGN_KEY_CHECKS = 0");
+            }
+            connection.setAutoCommit(false);
+            new SyntheticDataGenerator(connection, options).generate();
+        }
+    }
+
+    private void generate() throws SQLException {
+        long started = System.nanoTime();
+        generateRoutes(options.getInt("routes", 200));
+        generateVehicles(options.getInt("vehicles", 300));
+        generateDrivers(options.getInt("drivers", 300));
+        generateUsers(options.getInt("users", 5000));
+        long[] counts = generateTrips(options.getInt("trips", 20000),
+                options.getInt("history-days", 60), options.getInt("future-days", 30));
+        System.out.printf("Đã sinh %d tuyến, %d xe, %d tài xế, %d người dùng, %d chuyến, %d trip_seats, %d vé trong %d ms%n",
+                routeIds.length, vehicleIds.length, driverIds.length, userCount, counts[0], counts[1], counts[2],
+                (System.nanoTime() - started) / 1_000_000);
+        System.out.printf("Đăng nhập load test: %s1..%s%d / %s%n", USER_PREFIX, USER_PREFIX, userCount,
+                options.get("password", DEFAULT_PASSWORD));
+    }
+
+    private void generateRoutes(int count) throws SQLException {
+        int firstId = nextId("routes");
+        double zipf = options.getDouble("route-zipf", 1.0);
+        routeIds = new int[count];
+        routeBasePrices = new long[count];
+        routeDurations = new int[count];
+        routeCumulativeWeights = new double[count];
+        routePopularity = new double[count];
+
+        double total = 0;
+        try (Batch batch = new Batch("INSERT INTO routes (id, from_location, to_location, distance_km, base_price, "
+                + "estimated_duration, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < count; i++) {
+                int from = random.nextInt(CITIES.length);
+                int to = (from + 1 + random.nextInt(CITIES.length - 1)) % CITIES.length;
+                int distance = 50 + random.nextInt(1650);
+                int duration = distance * 60 / 55;
+                long basePrice = Math.max(80_000, Math.round(distance * 1_200 / 10_000.0) * 10_000);
+
+                routeIds[i] = firstId + i;
+                routeBasePrices[i] = basePrice;
+                routeDurations[i] = duration;
+                double weight = 1.0 / Math.pow(i + 1, zipf);
+                total += weight;
+                routeCumulativeWeights[i] = total;
+                routePopularity[i] = Math.pow(weight, 0.3);
+                batch.add(routeIds[i], CITIES[from], CITIES[to], BigDecimal.valueOf(distance),
+                        BigDecimal.valueOf(basePrice), duration, Timestamp.valueOf(now.minusYears(1)));
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            routeCumulativeWeights[i] /= total;
+        }
+    }
+
+    /**
+     * Xe theo ba mẫu ghế: standard 10x4 ghế thường, vip 8x3 ghế vip, sleeper 2 tầng 10x3 giường
+     */
+    private void generateVehicles(int count) throws SQLException {
+        int firstId = nextId("vehicles");
+        int seatId = nextId("seats");
+        vehicleIds = new int[count];
+        vehicleTypes = new int[count];
+        vehicleFirstSeatIds = new int[count];
+
+        try (Batch vehicles = new Batch("INSERT INTO vehicles (id, license_plate, model, total_seats, seats_layout, "
+                + "vehicle_type, is_active, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)");
+             Batch seats = new Batch("INSERT INTO seats (id, vehicle_id, seat_number, seat_type, status) "
+                     + "VALUES (?, ?, ?, ?, 'available')")) {
+            for (int i = 0; i < count; i++) {
+                int type = weighted(VEHICLE_TYPE_WEIGHTS);
+                SeatTemplate template = SeatTemplate.of(type);
+                vehicleIds[i] = firstId + i;
+                vehicleTypes[i] = type;
+                vehicleFirstSeatIds[i] = seatId;
+                vehicles.add(vehicleIds[i], String.format("LT-%06d", vehicleIds[i]), template.model(),
+                        template.totalSeats(), template.layoutJson(), template.vehicleType(), true,
+                        Timestamp.valueOf(now.minusYears(1)));
+                for (int s = 0; s < template.totalSeats(); s++) {
+                    seats.add(seatId++, vehicleIds[i], template.seatNumber(s), template.seatType());
+                }
+            }
+        }
+    }
+
+    private void generateDrivers(int count) throws SQLException {
+        int firstId = nextId("drivers");
+        driverIds = new int[count];
+        try (Batch batch = new Batch("INSERT INTO drivers (id, full_name, license_number, phone, experience_years, "
+                + "is_active, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < count; i++) {
+                driverIds[i] = firstId + i;
+                batch.add(driverIds[i], "Tài xế " + driverIds[i], String.format("LT%08d", driverIds[i]),
+                        String.format("09%08d", driverIds[i]), 1 + random.nextInt(30), true,
+                        Timestamp.valueOf(now.minusYears(1)));
+            }
+        }
+    }
+
+    /**
+     * Khách hàng lt_user_1..N dùng chung một mật khẩu (băm BCrypt một lần) để load test đăng nhập được
+     */
+    private void generateUsers(int count) throws SQLException {
+        firstUserId = nextId("users");
+        userCount = count;
+        String hash = new BCryptPasswordEncoder().encode(options.get("password", DEFAULT_PASSWORD));
+        try (Batch batch = new Batch("INSERT INTO users (id, username, password, email, role, full_name, phone, "
+                + "is_active, created_at) VALUES (?, ?, ?, ?, 'customer', ?, ?, ?, ?)")) {
+            for (int i = 1; i <= count; i++) {
+                batch.add(firstUserId + i - 1, USER_PREFIX + i, hash, USER_PREFIX + i + "@loadtest.local",
+                        "Khách hàng " + i, String.format("08%08d", i), true,
+                        Timestamp.valueOf(now.minusDays(random.nextInt(365))));
+            }
+        }
+    }
+
+    /**
+     * Chuyến trong khoảng [hôm nay - historyDays, hôm nay + futureDays], kèm trip_seats và vé.
+     * Trả về {số chuyến, số trip_seats, số vé}.
+     */
+    private long[] generateTrips(int count, int historyDays, int futureDays) throws SQLException {
+        int tripId = nextId("trips");
+        int tripSeatId = nextId("trip_seats");
+        int ticketId = nextId("tickets");
+        LocalDate firstDay = now.toLocalDate().minusDays(historyDays);
+        int days = historyDays + futureDays + 1;
+        long tripSeatCount = 0;
+        long ticketCount = 0;
+
+        try (Batch trips = new Batch("INSERT INTO trips (id, route_id, vehicle_id, driver_id, departure_time, "
+                + "arrival_time, status, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)");
+             Batch tripSeats = new Batch("INSERT INTO trip_seats (id, trip_id, seat_number, seat_type, status) "
+                     + "VALUES (?, ?, ?, ?, ?)");
+             Batch tickets = new Batch("INSERT INTO tickets (id, user_id, trip_id, seat_id, trip_seat_id, price, "
+                     + "booking_method, status, booked_at, cancelled_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            for (int t = 0; t < count; t++, tripId++) {
+                int route = sampleRoute();
+                int vehicle = random.nextInt(vehicleIds.length);
+                SeatTemplate template = SeatTemplate.of(vehicleTypes[vehicle]);
+                LocalDateTime departure = firstDay.plusDays(random.nextInt(days)).atTime(departureHour(), random.nextInt(4) * 15);
+                boolean departed = departure.isBefore(now);
+                String status = random.nextInt(100) < (departed ? 3 : 2) ? "cancelled" : departed ? "completed" : "scheduled";
+
+                trips.add(tripId, routeIds[route], vehicleIds[vehicle], driverIds[random.nextInt(driverIds.length)],
+                        Timestamp.valueOf(departure), Timestamp.valueOf(departure.plusMinutes(routeDurations[route])),
+                        status, Timestamp.valueOf(departure.minusDays(30)));
+
+                double load = "cancelled".equals(status) ? 0 : targetLoad(route, departure, departed, futureDays);
+                long price = routeBasePrices[route] * template.priceFactorPercent() / 100;
+                for (int s = 0; s < template.totalSeats(); s++, tripSeatId++) {
+                    boolean booked = random.nextDouble() < load;
+                    tripSeats.add(tripSeatId, tripId, template.seatNumber(s), template.seatType(),
+                            booked ? "booked" : "available");
+                    tripSeatCount++;
+                    // Vé hủy nằm trên ghế đã trả lại, vé còn hiệu lực nằm trên ghế đã đặt
+                    boolean cancelledTicket = !booked && load > 0 && random.nextDouble() < 0.05;
+                    if (booked || cancelledTicket) {
+                        LocalDateTime bookedAt = departure.minusMinutes(30 + (long) (-Math.log(1 - random.nextDouble()) * 3 * 24 * 60));
+                        String ticketStatus = cancelledTicket ? "cancelled"
+                                : departed || random.nextInt(10) < 3 ? "confirmed" : "booked";
+                        tickets.add(ticketId++, firstUserId + random.nextInt(userCount), tripId,
+                                vehicleFirstSeatIds[vehicle] + s, tripSeatId, BigDecimal.valueOf(price),
+                                random.nextInt(100) < 85 ? "online" : "offline", ticketStatus,
+                                Timestamp.valueOf(bookedAt.isAfter(now) ? now : bookedAt),
+                                cancelledTicket ? Timestamp.valueOf(bookedAt.plusHours(2).isAfter(now) ? now : bookedAt.plusHours(2)) : null);
+                        ticketCount++;
+                    }
+                }
+            }
+        }
+        return new long[]{count, tripSeatCount, ticketCount};
+    }
+
+    /**
+     * Tỉ lệ lấp đầy mục tiêu: tuyến phổ biến đầy hơn; chuyến sắp tới càng xa giờ chạy càng vắng
+     */
+    private double targetLoad(int route, LocalDateTime departure, boolean departed, int futureDays) {
+        double load = 0.35 + 0.5 * routePopularity[route] + (random.nextDouble() - 0.5) * 0.2;
+        if (departed) {
+            load += 0.1;
+        } else {
+            double leadDays = Duration.between(now, departure).toHours() / 24.0;
+            load *= Math.max(0.1, 1 - leadDays / Math.max(1, futureDays));
+        }
+        return Math.min(0.98, Math.max(0, load));
+    }
+
+    /**
+     * Khoảng 60% chuyến chạy khung 5-9h hoặc 18-23h, còn lại rải đều trong ngày
+     */
+    private int departureHour() {
+        if (random.nextInt(100) < 60) {
+            return random.nextBoolean() ? 5 + random.nextInt(5) : 18 + random.nextInt(6);
+        }
+        return random.nextInt(24);
+    }
+
+    private int sampleRoute() {
+        int index = Arrays.binarySearch(routeCumulativeWeights, random.nextDouble());
+        return Math.min(routeCumulativeWeights.length - 1, index >= 0 ? index : -index - 1);
+    }
+
+    private int weighted(double[] weights) {
+        double value = random.nextDouble();
+        for (int i = 0; i < weights.length - 1; i++) {
+            value -= weights[i];
+            if (value < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    private int nextId(String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM " + table)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    /**
+     * Mẫu ghế theo loại xe (chỉ số tương ứng VEHICLE_TYPE_WEIGHTS)
+     */
+    private record SeatTemplate(String vehicleType, String model, int rows, int columns, int floors,
+                                String seatType, int priceFactorPercent) {
+
+        private static final SeatTemplate[] TEMPLATES = {
+                new SeatTemplate("standard", "Hyundai Universe", 10, 4, 1, "standard", 100),
+                new SeatTemplate("vip", "Hyundai Universe Noble", 8, 3, 1, "vip", 130),
+                new SeatTemplate("sleeper", "Thaco Mobihome", 10, 3, 2, "bed", 150)
+        };
+
+        private static SeatTemplate of(int vehicleType) {
+            return TEMPLATES[vehicleType];
+        }
+
+        private int totalSeats() {
+            return rows * columns * floors;
+        }
+
+        /**
+         * A1..J4 cho tầng 1; tầng 2 dùng tiền tố B (BA1..)
+         */
+        private String seatNumber(int index) {
+            int perFloor = rows * columns;
+            int floor = index / perFloor;
+            int inFloor = index % perFloor;
+            String number = (char) ('A' + inFloor / columns) + String.valueOf(inFloor % columns + 1);
+            return floor == 0 ? number : "B" + number;
+        }
+
+        private String layoutJson() {
+            return String.format("{\"rows\": %d, \"columns\": %d, \"type\": \"%s\", \"floors\": %d}",
+                    rows, columns, vehicleType, floors);
+        }
+    }
+
+    /**
+     * Gom INSERT theo lô BATCH_SIZE dòng, commit khi đóng
+     */
+    private final class Batch implements AutoCloseable {
+        private final PreparedStatement statement;
+        private int pending;
+
+        private Batch(String sql) throws SQLException {
+            this.statement = connection.prepareStatement(sql);
+        }
+
+        private void add(Object... values) throws SQLException {
+            for (int i = 0; i < values.length; i++) {
+                statement.setObject(i + 1, values[i]);
+            }
+            statement.addBatch();
+            if (++pending == BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        private void flush() throws SQLException {
+            if (pending > 0) {
+                statement.executeBatch();
+                pending = 0;
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try {
+                flush();
+                connection.commit();
+            } finally {
+                statement.close();
+            }
+        }
+    }
+}
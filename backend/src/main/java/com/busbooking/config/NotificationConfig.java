@@ -0,0 +1,30 @@
+package com.busbooking.config;
+
+import com.busbooking.model.Notification;
+import com.busbooking.service.StubNotificationProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Provider giả lập cho cả 3 kênh, bật bằng app.notification.stub-providers=true
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.notification.stub-providers", havingValue = "true")
+public class NotificationConfig {
+    
+    @Bean
+    public StubNotificationProvider emailNotificationProvider() {
+        return new StubNotificationProvider(Notification.Type.email);
+    }
+    
+    @Bean
+    public StubNotificationProvider smsNotificationProvider() {
+        return new StubNotificationProvider(Notification.Type.sms);
+    }
+    
+    @Bean
+    public StubNotificationProvider pushNotificationProvider() {
+        return new StubNotificationProvider(Notification.Type.push);
+    }
+}
@@ -0,0 +1,18 @@
+package com.busbooking.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Số câu SQL tối đa một request tới endpoint được phép chạy, tính cả câu tải người dùng của JwtAuthenticationFilter.
+ * Đặt trên method controller hoặc cả controller; endpoint không khai báo dùng app.sql-budget.default.
+ */
+@Documented
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+    int value();
+}
@@ -0,0 +1,58 @@
+package com.busbooking.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Chọn primary hoặc replica khi lấy kết nối vật lý (bọc trong LazyConnectionDataSourceProxy để lúc đó
+ * trạng thái transaction đã được thiết lập):
+ * - replica: transaction readOnly mở ở tầng service (@Transactional(readOnly = true) trong com.busbooking.service).
+ *   Transaction readOnly mặc định của Spring Data repository vẫn đi primary, vì code gọi repository ngoài transaction
+ *   (đăng nhập ngay sau đăng ký, kiểm tra trùng trước khi lưu) cần dữ liệu mới nhất.
+ * - primary: mọi trường hợp khác, và cả request đang được ghim vào primary (pinToPrimary) để đọc được dữ liệu vừa ghi.
+ * Ghi nhận request nào đã ghi vào primary để ReadYourWritesFilter ghim các request sau của cùng người dùng.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+    
+    public static final String PRIMARY = "primary";
+    public static final String REPLICA = "replica";
+    
+    private static final String SERVICE_PACKAGE = "com.busbooking.service.";
+    
+    // [0] = request bị ghim vào primary, [1] = request đã ghi vào primary
+    private static final ThreadLocal<boolean[]> REQUEST_STATE = ThreadLocal.withInitial(() -> new boolean[2]);
+    
+    @Override
+    protected Object determineCurrentLookupKey() {
+        boolean[] state = REQUEST_STATE.get();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                state[1] = true;
+            }
+            return PRIMARY;
+        }
+        String transactionName = TransactionSynchronizationManager.getCurrentTransactionName();
+        if (state[0] || transactionName == null || !transactionName.startsWith(SERVICE_PACKAGE)) {
+            return PRIMARY;
+        }
+        return REPLICA;
+    }
+    
+    /**
+     * Các transaction readOnly còn lại của request hiện tại cũng đọc từ primary
+     */
+    public static void pinToPrimary() {
+        REQUEST_STATE.get()[0] = true;
+    }
+    
+    /**
+     * Request hiện tại đã mở transaction ghi trên primary chưa
+     */
+    public static boolean wroteToPrimary() {
+        return REQUEST_STATE.get()[1];
+    }
+    
+    public static void clear() {
+        REQUEST_STATE.remove();
+    }
+}
@@ -0,0 +1,65 @@
+package com.busbooking.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Đọc được dữ liệu vừa ghi khi có replica: người dùng vừa ghi vào primary (đặt ghế, tạo vé, ...) được ghim
+ * vào primary trong windowMs (lớn hơn độ trễ replication), để sơ đồ ghế và danh sách vé ngay sau đó không bị cũ.
+ * Request ẩn danh chỉ được ghim trong chính request đó.
+ * Trạng thái giữ trong bộ nhớ của instance: khi chạy nhiều instance cần sticky session theo người dùng.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+    
+    private final long windowMs;
+    private final Map<String, Long> primaryUntil = new ConcurrentHashMap<>();
+    
+    public ReadYourWritesFilter(long windowMs) {
+        this.windowMs = windowMs;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String user = currentUser();
+        if (user != null) {
+            Long until = primaryUntil.get(user);
+            if (until != null && until > System.currentTimeMillis()) {
+                ReadWriteRoutingDataSource.pinToPrimary();
+            }
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (user != null && ReadWriteRoutingDataSource.wroteToPrimary()) {
+                primaryUntil.put(user, System.currentTimeMillis() + windowMs);
+            }
+            ReadWriteRoutingDataSource.clear();
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${app.datasource.replica.read-your-writes-cleanup-ms:60000}")
+    public void removeExpired() {
+        long now = System.currentTimeMillis();
+        primaryUntil.values().removeIf(until -> until <= now);
+    }
+    
+    private String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
@@ -0,0 +1,88 @@
+package com.busbooking.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Tách đọc/ghi khi có app.datasource.replica.url (profile replica): pool primary cấu hình như spring.datasource.*,
+ * pool replica theo app.datasource.replica.*, DataSource chính là ReadWriteRoutingDataSource bọc lazy.
+ * - Pool replica nhận cùng cấu hình spring.datasource.hikari.* (kích thước pool, Connector/J của profile prod),
+ *   app.datasource.replica.hikari.* ghi đè từng giá trị
+ * - Bắt buộc spring.jpa.open-in-view=false: Session mở theo request giữ kết nối vật lý đầu tiên cho mọi
+ *   transaction sau đó, nên định tuyến sẽ theo request thay vì theo từng transaction
+ * Không đặt replica thì không tạo bean nào, Spring Boot tự cấu hình một DataSource như cũ.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replica.url")
+public class ReplicaDataSourceConfig {
+    
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName(ReadWriteRoutingDataSource.PRIMARY);
+        return dataSource;
+    }
+    
+    @Bean
+    public HikariDataSource replicaDataSource(
+            DataSourceProperties properties,
+            Environment environment,
+            @Value("${app.datasource.replica.url}") String url,
+            @Value("${app.datasource.replica.username:${spring.datasource.username}}") String username,
+            @Value("${app.datasource.replica.password:${spring.datasource.password}}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        Binder binder = Binder.get(environment);
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+        binder.bind("app.datasource.replica.hikari", Bindable.ofInstance(dataSource));
+        dataSource.setPoolName(ReadWriteRoutingDataSource.REPLICA);
+        return dataSource;
+    }
+    
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            @Qualifier("primaryDataSource") DataSource primaryDataSource,
+            @Qualifier("replicaDataSource") DataSource replicaDataSource,
+            @Value("${spring.jpa.open-in-view:true}") boolean openInView) {
+        if (openInView) {
+            throw new IllegalStateException(
+                    "spring.jpa.open-in-view phải là false khi dùng replica (app.datasource.replica.url)");
+        }
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource();
+        routing.setTargetDataSources(Map.of(
+                ReadWriteRoutingDataSource.PRIMARY, primaryDataSource,
+                ReadWriteRoutingDataSource.REPLICA, replicaDataSource));
+        routing.setDefaultTargetDataSource(primaryDataSource);
+        routing.afterPropertiesSet();
+        // Kết nối vật lý chỉ lấy ở câu SQL đầu tiên, khi transaction đã đánh dấu readOnly
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+    
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(
+            @Value("${app.datasource.replica.read-your-writes-ms:5000}") long windowMs) {
+        return new ReadYourWritesFilter(windowMs);
+    }
+}
@@ -4,6 +4,7 @@ import com.busbooking.security.JwtAuthenticationFilter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
@@ -53,14 +54,21 @@ public class SecurityConfig {
                 // Public endpoints - no authentication required
                 .requestMatchers("/auth/**").permitAll()  // Authentication endpoints
                 .requestMatchers("/util/**").permitAll()  // Utility endpoints (development only)
+                .requestMatchers(HttpMethod.POST, "/upload/image/async").hasRole("ADMIN")  // Upload nền chiếm worker/đĩa spool
+                .requestMatchers("/upload/jobs/**").hasRole("ADMIN")  // Trạng thái job upload nền
                 .requestMatchers("/upload/**").permitAll()  // Image upload endpoints (for testing)
+                .requestMatchers(HttpMethod.GET, "/images/**").permitAll()  // Ảnh lưu cục bộ (app.image-storage.type=local)
                 
                 // Public read-only endpoints for browsing
                 .requestMatchers("/routes/**").permitAll()  // Browse routes
                 .requestMatchers("/trips/**").permitAll()   // Browse trips
                 .requestMatchers("/promotions/**").permitAll()  // View promotions
+                .requestMatchers(HttpMethod.GET, "/pricing/**").permitAll()  // Báo giá vé
                 .requestMatchers("/seats/**").permitAll()     // Seat management (TEMPORARY - FOR DEVELOPMENT)
                 .requestMatchers("/vehicles/**").permitAll()  // Vehicle info (TEMPORARY - FOR DEVELOPMENT)
+                .requestMatchers(HttpMethod.POST, "/payments/callback").permitAll()  // Callback từ cổng thanh toán
+                .requestMatchers(HttpMethod.GET, "/trip-seats/trip/*/stream").permitAll()  // Live seat status (EventSource không gửi được header)
+                .requestMatchers(HttpMethod.GET, "/actuator/health", "/actuator/prometheus").permitAll()  // Cổng quản trị, chỉ nghe trên localhost
                 
                 // Protected endpoints - require authentication
                 .requestMatchers("/users/**").authenticated()     // User management
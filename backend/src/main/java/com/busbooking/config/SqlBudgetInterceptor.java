@@ -0,0 +1,72 @@
+package com.busbooking.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * So số câu SQL của request với ngân sách @QueryBudget của endpoint (phát hiện N+1 khi dữ liệu lớn dần).
+ * app.sql-budget.mode: log (ghi cảnh báo và metric), fail (chặn câu SQL vượt ngân sách, request trả lỗi), off.
+ * Số câu đếm bởi SqlStatementInspector trong phạm vi SqlStatementMetricsFilter mở.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SqlBudgetInterceptor implements HandlerInterceptor {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Method, Integer> budgets = new ConcurrentHashMap<>();
+
+    @Value("${app.sql-budget.mode:log}")
+    private String mode;
+
+    @Value("${app.sql-budget.default:20}")
+    private int defaultBudget;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if ("fail".equals(mode) && handler instanceof HandlerMethod handlerMethod) {
+            SqlStatementInspector.limit(budgetOf(handlerMethod));
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if ("off".equals(mode) || !(handler instanceof HandlerMethod handlerMethod)) {
+            return;
+        }
+        int budget = budgetOf(handlerMethod);
+        int statements = SqlStatementInspector.current();
+        if (statements <= budget) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        log.warn("{} {} chạy {} câu SQL, vượt ngân sách {}", request.getMethod(), uri, statements, budget);
+        meterRegistry.counter("http.server.requests.sql.budget.exceeded",
+                "method", request.getMethod(), "uri", uri).increment();
+    }
+
+    private int budgetOf(HandlerMethod handlerMethod) {
+        return budgets.computeIfAbsent(handlerMethod.getMethod(), method -> {
+            QueryBudget budget = AnnotatedElementUtils.findMergedAnnotation(method, QueryBudget.class);
+            if (budget == null) {
+                budget = AnnotatedElementUtils.findMergedAnnotation(method.getDeclaringClass(), QueryBudget.class);
+            }
+            return budget != null ? budget.value() : defaultBudget;
+        });
+    }
+}
@@ -0,0 +1,84 @@
+package com.busbooking.config;
+
+import com.busbooking.exception.SqlBudgetExceededException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Đếm số câu SQL chạy trên thread hiện tại (giữa begin() và end()), gồm cả Hibernate lẫn JdbcTemplate/JDBC batch
+ * vì được gọi từ StatementCountingDataSource ở tầng JDBC; dùng để đo số statement của mỗi request và phát hiện N+1.
+ * Không sửa câu SQL; ngoài phạm vi đếm chỉ là một lần đọc ThreadLocal.
+ * Khi đặt giới hạn bằng limit(), câu vượt giới hạn bị chặn bằng SqlBudgetExceededException.
+ * Phạm vi được lấy mẫu (begin với nhãn khác null) ghi từng câu SQL ra logger com.busbooking.sql.
+ */
+@Slf4j(topic = "com.busbooking.sql")
+public final class SqlStatementInspector {
+
+    private static final ThreadLocal<Scope> SCOPE = new ThreadLocal<>();
+
+    private static final class Scope {
+        private final String sampleLabel;
+        private int count;
+        private int limit;
+
+        private Scope(String sampleLabel) {
+            this.sampleLabel = sampleLabel;
+        }
+    }
+
+    private SqlStatementInspector() {
+    }
+
+    /**
+     * Ghi nhận một câu SQL sắp chạy (gọi từ StatementCountingDataSource)
+     */
+    public static void inspect(String sql) {
+        Scope scope = SCOPE.get();
+        if (scope != null) {
+            scope.count++;
+            if (scope.sampleLabel != null) {
+                log.info("{} #{}: {}", scope.sampleLabel, scope.count, sql);
+            }
+            if (scope.limit > 0 && scope.count > scope.limit) {
+                throw new SqlBudgetExceededException(scope.limit, sql);
+            }
+        }
+    }
+
+    public static void begin() {
+        begin(null);
+    }
+
+    /**
+     * Mở phạm vi đếm; sampleLabel khác null thì ghi log từng câu SQL kèm nhãn này
+     */
+    public static void begin(String sampleLabel) {
+        SCOPE.set(new Scope(sampleLabel));
+    }
+
+    /**
+     * Số câu SQL đã chạy từ begin() tới giờ
+     */
+    public static int current() {
+        Scope scope = SCOPE.get();
+        return scope != null ? scope.count : 0;
+    }
+
+    /**
+     * Chặn các câu SQL vượt quá maxStatements trong phạm vi đếm hiện tại
+     */
+    public static void limit(int maxStatements) {
+        Scope scope = SCOPE.get();
+        if (scope != null) {
+            scope.limit = maxStatements;
+        }
+    }
+
+    /**
+     * Kết thúc phạm vi đếm và trả về số câu SQL đã chạy
+     */
+    public static int end() {
+        Scope scope = SCOPE.get();
+        SCOPE.remove();
+        return scope != null ? scope.count : 0;
+    }
+}
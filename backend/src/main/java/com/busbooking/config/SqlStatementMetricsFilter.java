@@ -0,0 +1,58 @@
+package com.busbooking.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Ghi số câu SQL của mỗi request vào histogram http.server.requests.sql.statements,
+ * gắn tag method và uri (mẫu đường dẫn của controller, giống http.server.requests).
+ * Một endpoint có phân phối tăng theo kích thước dữ liệu là dấu hiệu N+1.
+ * Một tỉ lệ app.logging.sql-sample-rate request được lấy mẫu để ghi log toàn bộ câu SQL của request đó.
+ * Chạy trước chuỗi filter của Spring Security để câu tải người dùng của JwtAuthenticationFilter cũng được đếm.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@RequiredArgsConstructor
+public class SqlStatementMetricsFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.logging.sql-sample-rate:0}")
+    private double sqlSampleRate;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean sampled = sqlSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sqlSampleRate;
+        SqlStatementInspector.begin(sampled ? request.getMethod() + " " + request.getRequestURI() : null);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            int statements = SqlStatementInspector.end();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            DistributionSummary.builder("http.server.requests.sql.statements")
+                    .description("Số câu SQL mỗi request")
+                    .baseUnit("statements")
+                    .tag("method", request.getMethod())
+                    .tag("uri", pattern != null ? pattern.toString() : "UNKNOWN")
+                    .publishPercentileHistogram()
+                    .maximumExpectedValue(500.0)
+                    .register(meterRegistry)
+                    .record(statements);
+        }
+    }
+}
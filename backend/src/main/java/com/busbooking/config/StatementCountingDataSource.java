@@ -0,0 +1,98 @@
+package com.busbooking.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+
+/**
+ * Bọc DataSource chính để mọi câu SQL đi qua JDBC (Hibernate, JdbcTemplate, JDBC batch) đều được
+ * SqlStatementInspector đếm: mỗi lần prepareStatement/prepareCall là một câu (một JDBC batch cũng là một câu),
+ * Statement thường thì mỗi lần execute*()/executeBatch() là một câu.
+ * Chỉ bọc một lớp ngoài cùng (bean "dataSource") để pool primary/replica phía sau không bị đếm lặp.
+ */
+public class StatementCountingDataSource extends DelegatingDataSource {
+
+    private static final Set<String> PREPARE_METHODS = Set.of("prepareStatement", "prepareCall");
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    public StatementCountingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private static Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(StatementCountingDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(connection));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private static Object identity(Object proxy, Object target, Method method, Object[] args) throws Throwable {
+        return switch (method.getName()) {
+            case "equals" -> proxy == args[0];
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "unwrap" -> ((Class<?>) args[0]).isInstance(proxy) ? proxy : invoke(target, method, args);
+            case "isWrapperFor" -> ((Class<?>) args[0]).isInstance(proxy) || (Boolean) invoke(target, method, args);
+            default -> null;
+        };
+    }
+
+    private record ConnectionHandler(Connection target) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object identity = identity(proxy, target, method, args);
+            if (identity != null) {
+                return identity;
+            }
+            if (PREPARE_METHODS.contains(method.getName())) {
+                SqlStatementInspector.inspect((String) args[0]);
+            }
+            Object result = StatementCountingDataSource.invoke(target, method, args);
+            if ("createStatement".equals(method.getName())) {
+                return Proxy.newProxyInstance(StatementCountingDataSource.class.getClassLoader(),
+                        new Class<?>[]{Statement.class}, new StatementHandler((Statement) result));
+            }
+            return result;
+        }
+    }
+
+    private record StatementHandler(Statement target) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object identity = identity(proxy, target, method, args);
+            if (identity != null) {
+                return identity;
+            }
+            if (EXECUTE_METHODS.contains(method.getName())) {
+                SqlStatementInspector.inspect(args != null && args.length > 0 ? (String) args[0] : "(batch)");
+            }
+            return StatementCountingDataSource.invoke(target, method, args);
+        }
+    }
+}
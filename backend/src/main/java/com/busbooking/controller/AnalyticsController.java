@@ -0,0 +1,50 @@
+package com.busbooking.controller;
+
+import com.busbooking.config.QueryBudget;
+import com.busbooking.dto.response.AnalyticsResponse;
+import com.busbooking.dto.response.ApiResponse;
+import com.busbooking.model.Vehicle;
+import com.busbooking.service.AnalyticsCube;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/analytics")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class AnalyticsController {
+    
+    private final AnalyticsCube analyticsCube;
+    
+    /**
+     * Ví dụ: /analytics/revenue?from=2025-01-01&to=2025-12-31&groupBy=route,vehicle_type
+     */
+    @QueryBudget(3)
+    @GetMapping("/revenue")
+    public ResponseEntity<ApiResponse<List<AnalyticsResponse>>> getRevenue(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Integer routeId,
+            @RequestParam(required = false) Vehicle.VehicleType vehicleType,
+            @RequestParam(required = false) List<AnalyticsCube.Dimension> groupBy) {
+        List<AnalyticsResponse> rows = analyticsCube.query(from, to, routeId, vehicleType, groupBy);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Analytics retrieved successfully", rows));
+    }
+    
+    /**
+     * Dựng lại cube ngay (bình thường tự làm mới định kỳ).
+     * Ngân sách SQL đếm theo code (hai câu đọc fact); các câu này chỉ chạy trên MySQL nên test H2 không đo.
+     */
+    @QueryBudget(3)
+    @PostMapping("/refresh")
+    public ResponseEntity<ApiResponse<Integer>> refresh() {
+        int tickets = analyticsCube.refresh();
+        return ResponseEntity.ok(new ApiResponse<>(true, "Analytics cube rebuilt", tickets));
+    }
+}
@@ -1,5 +1,6 @@
 package com.busbooking.controller;
 
+import com.busbooking.config.QueryBudget;
 import com.busbooking.dto.request.LoginRequest;
 import com.busbooking.dto.request.UserRequest;
 import com.busbooking.dto.response.ApiResponse;
@@ -31,6 +32,7 @@ public class AuthController {
     private final PasswordEncoder passwordEncoder;
     private final JwtTokenProvider tokenProvider;
     
+    @QueryBudget(3)
     @PostMapping("/login")
     public ResponseEntity<ApiResponse<LoginResponse>> login(@Valid @RequestBody LoginRequest loginRequest) {
         // Authenticate user
@@ -62,6 +64,7 @@ public class AuthController {
         return ResponseEntity.ok(new ApiResponse<>(true, "Login successful", loginResponse));
     }
     
+    @QueryBudget(4)
     @PostMapping("/register")
     public ResponseEntity<ApiResponse<UserResponse>> register(@Valid @RequestBody UserRequest userRequest) {
         // Check if username exists
@@ -87,12 +90,14 @@ public class AuthController {
                 .body(new ApiResponse<>(true, "User registered successfully", userResponse));
     }
     
+    @QueryBudget(1)
     @PostMapping("/logout")
     public ResponseEntity<ApiResponse<Void>> logout() {
         SecurityContextHolder.clearContext();
         return ResponseEntity.ok(new ApiResponse<>(true, "Logout successful", null));
     }
     
+    @QueryBudget(2)
     @GetMapping("/me")
     public ResponseEntity<ApiResponse<UserResponse>> getCurrentUser(Authentication authentication) {
         if (authentication == null || !authentication.isAuthenticated()) {
@@ -1,5 +1,6 @@
 package com.busbooking.controller;
 
+import com.busbooking.config.QueryBudget;
 import com.busbooking.dto.request.DriverRequest;
 import com.busbooking.dto.response.ApiResponse;
 import com.busbooking.dto.response.DriverResponse;
@@ -18,33 +19,39 @@ import java.util.List;
 public class DriverController {
     private final DriverService driverService;
 
+    @QueryBudget(2)
     @GetMapping
     public ResponseEntity<ApiResponse<List<DriverResponse>>> getAll() {
         return ResponseEntity.ok(new ApiResponse<>(true, "Drivers retrieved", driverService.getAllDrivers()));
     }
 
+    @QueryBudget(2)
     @GetMapping("/active")
     public ResponseEntity<ApiResponse<List<DriverResponse>>> getActiveDrivers() {
         return ResponseEntity.ok(new ApiResponse<>(true, "Active drivers retrieved", driverService.getActiveDrivers()));
     }
 
+    @QueryBudget(2)
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<DriverResponse>> getById(@PathVariable Integer id) {
         return ResponseEntity.ok(new ApiResponse<>(true, "Driver retrieved", driverService.getDriverById(id)));
     }
 
+    @QueryBudget(2)
     @PostMapping
     public ResponseEntity<ApiResponse<DriverResponse>> create(@Valid @RequestBody DriverRequest request) {
         DriverResponse resp = driverService.createDriver(request);
         return ResponseEntity.status(HttpStatus.CREATED).body(new ApiResponse<>(true, "Driver created", resp));
     }
 
+    @QueryBudget(3)
     @PutMapping("/{id}")
     public ResponseEntity<ApiResponse<DriverResponse>> update(@PathVariable Integer id, @Valid @RequestBody DriverRequest request) {
         DriverResponse resp = driverService.updateDriver(id, request);
         return ResponseEntity.ok(new ApiResponse<>(true, "Cập nhật tài xế thành công", resp));
     }
 
+    @QueryBudget(3)
     @PatchMapping("/{id}/toggle-status")
     public ResponseEntity<ApiResponse<DriverResponse>> toggleStatus(@PathVariable Integer id) {
         DriverResponse resp = driverService.toggleDriverStatus(id);
@@ -52,6 +59,7 @@ public class DriverController {
         return ResponseEntity.ok(new ApiResponse<>(true, message, resp));
     }
 
+    @QueryBudget(3)
     @DeleteMapping("/{id}")
     public ResponseEntity<ApiResponse<Void>> delete(@PathVariable Integer id) {
         driverService.deleteDriver(id);
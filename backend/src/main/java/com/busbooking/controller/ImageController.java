@@ -0,0 +1,81 @@
+package com.busbooking.controller;
+
+import com.busbooking.config.QueryBudget;
+import com.busbooking.exception.ResourceNotFoundException;
+import com.busbooking.service.LocalImageStorage;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+
+/**
+ * Phục vụ ảnh của LocalImageStorage (app.image-storage.type=local).
+ * URL chứa SHA-256 của nội dung nên cache 1 năm (immutable); ETag cho request kiểm tra lại.
+ * Dùng sendfile của Tomcat khi connector hỗ trợ, nếu không thì FileChannel.transferTo.
+ */
+@RestController
+@RequestMapping("/images")
+@ConditionalOnProperty(name = "app.image-storage.type", havingValue = "local")
+@RequiredArgsConstructor
+public class ImageController {
+    
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    private static final String CACHE_CONTROL = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable().getHeaderValue();
+    
+    private final LocalImageStorage localImageStorage;
+    
+    /**
+     * Lấy ảnh theo hash; size (một trong app.image-storage.local.thumbnail-sizes) để lấy thumbnail
+     */
+    @QueryBudget(1)
+    @GetMapping("/{hash}.jpg")
+    public void getImage(
+            @PathVariable String hash,
+            @RequestParam(required = false) Integer size,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        Path file = localImageStorage.resolve(hash, size)
+                .orElseThrow(() -> new ResourceNotFoundException("Image not found: " + hash));
+        
+        String etag = "\"" + hash + (size != null ? "-" + size : "") + "\"";
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        response.setHeader(HttpHeaders.ETAG, etag);
+        if (etag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        
+        long length = Files.size(file);
+        response.setContentType(MediaType.IMAGE_JPEG_VALUE);
+        response.setContentLengthLong(length);
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, length);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = 0;
+            while (position < length) {
+                position += channel.transferTo(position, length - position, out);
+            }
+        }
+    }
+}
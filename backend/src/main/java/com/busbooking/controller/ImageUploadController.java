@@ -1,7 +1,10 @@
 package com.busbooking.controller;
 
+import com.busbooking.config.QueryBudget;
 import com.busbooking.dto.response.ApiResponse;
-import com.busbooking.service.CloudinaryService;
+import com.busbooking.dto.response.ImageUploadJobResponse;
+import com.busbooking.service.ImageStorage;
+import com.busbooking.service.ImageUploadService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -11,13 +14,15 @@ import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/upload")
 @RequiredArgsConstructor
 public class ImageUploadController {
 
-    private final CloudinaryService cloudinaryService;
+    private final ImageUploadService imageUploadService;
+    private final ImageStorage imageStorage;
 
     /**
      * Upload single image
@@ -25,33 +30,21 @@ public class ImageUploadController {
      * @param folder Folder name (default: "general")
      * @return Image URL
      */
+    @QueryBudget(1)
     @PostMapping("/image")
     public ResponseEntity<ApiResponse<Map<String, String>>> uploadImage(
             @RequestParam("file") MultipartFile file,
             @RequestParam(value = "folder", defaultValue = "general") String folder) {
         
         try {
-            // Validate file
-            if (file.isEmpty()) {
+            String validationError = validate(file, folder);
+            if (validationError != null) {
                 return ResponseEntity.badRequest()
-                        .body(new ApiResponse<>(false, "Please select a file to upload", null));
+                        .body(new ApiResponse<>(false, validationError, null));
             }
 
-            // Validate file type
-            String contentType = file.getContentType();
-            if (contentType == null || !contentType.startsWith("image/")) {
-                return ResponseEntity.badRequest()
-                        .body(new ApiResponse<>(false, "Only image files are allowed", null));
-            }
-
-            // Validate file size (max 10MB)
-            if (file.getSize() > 10 * 1024 * 1024) {
-                return ResponseEntity.badRequest()
-                        .body(new ApiResponse<>(false, "File size must not exceed 10MB", null));
-            }
-
-            // Upload to Cloudinary
-            String imageUrl = cloudinaryService.uploadImage(file, folder);
+            // Resize and upload from the spooled file
+            String imageUrl = imageUploadService.upload(file, folder);
 
             Map<String, String> response = new HashMap<>();
             response.put("url", imageUrl);
@@ -67,15 +60,60 @@ public class ImageUploadController {
         }
     }
 
+    /**
+     * Upload image in the background
+     * @param file Image file to upload
+     * @param folder Folder name (default: "general")
+     * @return Upload job; poll GET /upload/jobs/{jobId} for the image URL
+     */
+    @QueryBudget(1)
+    @PostMapping("/image/async")
+    public ResponseEntity<ApiResponse<ImageUploadJobResponse>> uploadImageAsync(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "folder", defaultValue = "general") String folder) {
+
+        try {
+            String validationError = validate(file, folder);
+            if (validationError != null) {
+                return ResponseEntity.badRequest()
+                        .body(new ApiResponse<>(false, validationError, null));
+            }
+
+            ImageUploadJobResponse job = imageUploadService.submit(file, folder);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(new ApiResponse<>(true, "Image upload queued", job));
+
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(new ApiResponse<>(false, "Upload queue is full, please retry later", null));
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ApiResponse<>(false, "Failed to upload image: " + e.getMessage(), null));
+        }
+    }
+
+    /**
+     * Get background upload status
+     * @param jobId Job id returned by POST /upload/image/async
+     * @return Job status (queued, processing, completed, failed)
+     */
+    @QueryBudget(1)
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<ApiResponse<ImageUploadJobResponse>> getUploadJob(@PathVariable String jobId) {
+        ImageUploadJobResponse job = imageUploadService.getJob(jobId);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Upload job retrieved successfully", job));
+    }
+
     /**
      * Delete image by URL
      * @param imageUrl URL of image to delete
      * @return Success message
      */
+    @QueryBudget(1)
     @DeleteMapping("/image")
     public ResponseEntity<ApiResponse<Void>> deleteImage(@RequestParam("url") String imageUrl) {
         try {
-            cloudinaryService.deleteImage(imageUrl);
+            imageStorage.delete(imageUrl);
             return ResponseEntity.ok(
                     new ApiResponse<>(true, "Image deleted successfully", null)
             );
@@ -84,4 +122,31 @@ public class ImageUploadController {
                     .body(new ApiResponse<>(false, "Failed to delete image: " + e.getMessage(), null));
         }
     }
+
+    /**
+     * @return error message, or null if the upload is valid
+     */
+    private String validate(MultipartFile file, String folder) {
+        // Validate file
+        if (file.isEmpty()) {
+            return "Please select a file to upload";
+        }
+
+        // Validate file type
+        String contentType = file.getContentType();
+        if (contentType == null || !contentType.startsWith("image/")) {
+            return "Only image files are allowed";
+        }
+
+        // Validate file size (max 10MB)
+        if (file.getSize() > 10 * 1024 * 1024) {
+            return "File size must not exceed 10MB";
+        }
+
+        // Folder becomes part of the storage path
+        if (!folder.matches("[A-Za-z0-9_-]{1,50}")) {
+            return "Invalid folder name";
+        }
+        return null;
+    }
 }
@@ -0,0 +1,44 @@
+package com.busbooking.controller;
+
+import com.busbooking.config.QueryBudget;
+import com.busbooking.dto.response.ApiResponse;
+import com.busbooking.dto.response.InvoiceResponse;
+import com.busbooking.service.InvoiceService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/invoices")
+@RequiredArgsConstructor
+public class InvoiceController {
+    
+    private final InvoiceService invoiceService;
+    
+    @QueryBudget(2)
+    @GetMapping("/{id}")
+    public ResponseEntity<ApiResponse<InvoiceResponse>> getInvoiceById(@PathVariable Integer id) {
+        InvoiceResponse invoice = invoiceService.getInvoiceById(id);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Invoice retrieved successfully", invoice));
+    }
+    
+    @QueryBudget(2)
+    @GetMapping("/payment/{paymentId}")
+    public ResponseEntity<ApiResponse<InvoiceResponse>> getInvoiceByPayment(@PathVariable Integer paymentId) {
+        InvoiceResponse invoice = invoiceService.getInvoiceByPayment(paymentId);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Invoice retrieved successfully", invoice));
+    }
+    
+    /**
+     * Xuất hóa đơn ngay cho các thanh toán đã hoàn tất (bình thường chạy tự động cuối ngày).
+     * Ngân sách SQL tính cho một lô app.invoice.batch-size thanh toán, mỗi lô thêm khoảng 3 câu.
+     */
+    @QueryBudget(7)
+    @PostMapping("/generate")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Integer>> generateInvoices() {
+        int issued = invoiceService.issuePendingInvoices();
+        return ResponseEntity.ok(new ApiResponse<>(true, "Invoices issued", issued));
+    }
+}
@@ -0,0 +1,84 @@
+package com.busbooking.controller;
+
+import com.busbooking.config.QueryBudget;
+import com.busbooking.dto.request.PaymentCallbackRequest;
+import com.busbooking.dto.request.PaymentRequest;
+import com.busbooking.dto.response.ApiResponse;
+import com.busbooking.dto.response.PaymentResponse;
+import com.busbooking.security.PaymentCallbackSigner;
+import com.busbooking.service.FakePaymentGateway;
+import com.busbooking.service.PaymentService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/payments")
+@RequiredArgsConstructor
+public class PaymentController {
+    
+    private final PaymentService paymentService;
+    private final ObjectProvider<FakePaymentGateway> fakeGateway;
+    private final PaymentCallbackSigner callbackSigner;
+    
+    @QueryBudget(2)
+    @GetMapping("/{id}")
+    public ResponseEntity<ApiResponse<PaymentResponse>> getPaymentById(@PathVariable Integer id) {
+        PaymentResponse payment = paymentService.getPaymentById(id);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Payment retrieved successfully", payment));
+    }
+    
+    @QueryBudget(2)
+    @GetMapping("/ticket/{ticketId}")
+    public ResponseEntity<ApiResponse<List<PaymentResponse>>> getPaymentsByTicket(@PathVariable Integer ticketId) {
+        List<PaymentResponse> payments = paymentService.getPaymentsByTicket(ticketId);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Ticket payments retrieved successfully", payments));
+    }
+    
+    @QueryBudget(3)
+    @PostMapping
+    public ResponseEntity<ApiResponse<PaymentResponse>> createPayment(@Valid @RequestBody PaymentRequest request) {
+        PaymentResponse payment = paymentService.createPayment(request);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(new ApiResponse<>(true, "Payment created successfully", payment));
+    }
+    
+    /**
+     * Callback từ cổng thanh toán (idempotent theo transactionId), phải có chữ ký X-Payment-Signature hợp lệ
+     */
+    @QueryBudget(5)
+    @PostMapping("/callback")
+    public ResponseEntity<ApiResponse<PaymentResponse>> handleCallback(
+            @Valid @RequestBody PaymentCallbackRequest request,
+            @RequestHeader(value = PaymentCallbackSigner.HEADER, required = false) String signature) {
+        callbackSigner.verify(request, signature);
+        PaymentResponse payment = paymentService.handleCallback(request);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Callback processed", payment));
+    }
+    
+    /**
+     * Giả lập callback từ cổng thanh toán (chỉ khi bật app.payment.fake-gateway.enabled, profile dev)
+     */
+    @QueryBudget(2)
+    @PostMapping("/{id}/fake-callback")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<List<PaymentResponse>>> fakeCallback(
+            @PathVariable Integer id,
+            @RequestParam(defaultValue = "true") boolean success,
+            @RequestParam(defaultValue = "1") int duplicates) {
+        FakePaymentGateway gateway = fakeGateway.getIfAvailable();
+        if (gateway == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ApiResponse<>(false, "Fake payment gateway is disabled", null));
+        }
+        PaymentResponse payment = paymentService.getPaymentById(id);
+        List<PaymentResponse> results = gateway.simulateCallback(payment, success, Math.min(duplicates, 100));
+        return ResponseEntity.ok(new ApiResponse<>(true, "Fake callbacks sent", results));
+    }
+}
@@ -0,0 +1,29 @@
+package com.busbooking.controller;
+
+import com.busbooking.config.QueryBudget;
+import com.busbooking.dto.response.ApiResponse;
+import com.busbooking.dto.response.TripQuoteResponse;
+import com.busbooking.service.PricingService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/pricing")
+@RequiredArgsConstructor
+public class PricingController {
+    
+    private final PricingService pricingService;
+    
+    /**
+     * Báo giá cả sơ đồ ghế của chuyến, có thể kèm mã khuyến mãi
+     */
+    @QueryBudget(3)
+    @GetMapping("/trip/{tripId}/quote")
+    public ResponseEntity<ApiResponse<TripQuoteResponse>> quoteTrip(
+            @PathVariable Integer tripId,
+            @RequestParam(required = false) String promotionCode) {
+        TripQuoteResponse quote = pricingService.quoteTrip(tripId, promotionCode);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Quote computed successfully", quote));
+    }
+}
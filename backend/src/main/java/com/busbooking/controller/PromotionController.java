@@ -1,13 +1,18 @@
 package com.busbooking.controller;
 
+import com.busbooking.config.QueryBudget;
+import com.busbooking.dto.request.OnUpdate;
 import com.busbooking.dto.request.PromotionRequest;
 import com.busbooking.dto.response.ApiResponse;
+import com.busbooking.dto.response.PromotionOfferResponse;
 import com.busbooking.dto.response.PromotionResponse;
 import com.busbooking.service.PromotionService;
 import jakarta.validation.Valid;
+import jakarta.validation.groups.Default;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -18,24 +23,44 @@ import java.util.List;
 public class PromotionController {
     private final PromotionService promotionService;
 
+    @QueryBudget(3)
     @GetMapping
     public ResponseEntity<ApiResponse<List<PromotionResponse>>> getAll() {
         return ResponseEntity.ok(new ApiResponse<>(true, "Promotions retrieved", promotionService.getAllPromotions()));
     }
 
+    @QueryBudget(1)
+    @GetMapping("/validate")
+    public ResponseEntity<ApiResponse<PromotionResponse>> validate(@RequestParam String code) {
+        return ResponseEntity.ok(new ApiResponse<>(true, "Promotion is valid", promotionService.validateCode(code)));
+    }
+
+    @QueryBudget(3)
+    @GetMapping("/trip/{tripId}/best")
+    public ResponseEntity<ApiResponse<List<PromotionOfferResponse>>> getBestForTrip(
+            @PathVariable Integer tripId,
+            @RequestParam(defaultValue = "5") int limit) {
+        List<PromotionOfferResponse> offers = promotionService.getBestPromotionsForTrip(tripId, Math.max(1, Math.min(limit, 50)));
+        return ResponseEntity.ok(new ApiResponse<>(true, "Promotions retrieved", offers));
+    }
+
+    @QueryBudget(3)
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<PromotionResponse>> getById(@PathVariable Integer id) {
         return ResponseEntity.ok(new ApiResponse<>(true, "Promotion retrieved", promotionService.getPromotionById(id)));
     }
 
+    @QueryBudget(6)
     @PostMapping
     public ResponseEntity<ApiResponse<PromotionResponse>> create(@Valid @RequestBody PromotionRequest request) {
         PromotionResponse resp = promotionService.createPromotion(request);
         return ResponseEntity.status(HttpStatus.CREATED).body(new ApiResponse<>(true, "Promotion created", resp));
     }
 
+    @QueryBudget(7)
     @PutMapping("/{id}")
-    public ResponseEntity<ApiResponse<PromotionResponse>> update(@PathVariable Integer id, @Valid @RequestBody PromotionRequest request) {
+    public ResponseEntity<ApiResponse<PromotionResponse>> update(@PathVariable Integer id,
+            @Validated({Default.class, OnUpdate.class}) @RequestBody PromotionRequest request) {
         PromotionResponse resp = promotionService.updatePromotion(id, request);
         return ResponseEntity.ok(new ApiResponse<>(true, "Promotion updated", resp));
     }
@@ -0,0 +1,63 @@
+package com.busbooking.controller;
+
+import com.busbooking.config.QueryBudget;
+import com.busbooking.dto.response.ApiResponse;
+import com.busbooking.dto.response.DailyReportResponse;
+import com.busbooking.dto.response.ReportResponse;
+import com.busbooking.model.Report;
+import com.busbooking.service.ReportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/reports")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class ReportController {
+    
+    private final ReportService reportService;
+    
+    @QueryBudget(2)
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<ReportResponse>>> getReports(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "revenue") Report.ReportType type) {
+        List<ReportResponse> reports = reportService.getReports(from, to, type);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Reports retrieved successfully", reports));
+    }
+    
+    @QueryBudget(2)
+    @GetMapping("/daily")
+    public ResponseEntity<ApiResponse<List<DailyReportResponse>>> getDailySummary(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        List<DailyReportResponse> summary = reportService.getDailySummary(from, to);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Daily summary retrieved successfully", summary));
+    }
+    
+    @QueryBudget(2)
+    @GetMapping("/trip/{tripId}")
+    public ResponseEntity<ApiResponse<List<ReportResponse>>> getReportsByTrip(@PathVariable Integer tripId) {
+        List<ReportResponse> reports = reportService.getReportsByTrip(tripId);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Reports retrieved successfully", reports));
+    }
+    
+    /**
+     * Tính lại báo cáo từ tickets cho một khoảng ngày (chỉ dùng khi số liệu bị lệch)
+     */
+    @QueryBudget(7)
+    @PostMapping("/rebuild")
+    public ResponseEntity<ApiResponse<Integer>> rebuild(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        int rows = reportService.rebuild(from, to);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Reports rebuilt", rows));
+    }
+}
@@ -1,5 +1,6 @@
 package com.busbooking.controller;
 
+import com.busbooking.config.QueryBudget;
 import com.busbooking.dto.request.RouteRequest;
 import com.busbooking.dto.response.ApiResponse;
 import com.busbooking.dto.response.RouteResponse;
@@ -20,24 +21,28 @@ public class RouteController {
     
     private final RouteService routeService;
     
+    @QueryBudget(2)
     @GetMapping
     public ResponseEntity<ApiResponse<List<RouteResponse>>> getAllRoutes() {
         List<RouteResponse> routes = routeService.getAllRoutes();
         return ResponseEntity.ok(new ApiResponse<>(true, "Routes retrieved successfully", routes));
     }
     
+    @QueryBudget(3)
     @GetMapping("/schedules")
     public ResponseEntity<ApiResponse<List<ScheduleResponse>>> getSchedules() {
         List<ScheduleResponse> schedules = routeService.getSchedules();
         return ResponseEntity.ok(new ApiResponse<>(true, "Schedules retrieved successfully", schedules));
     }
     
+    @QueryBudget(2)
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<RouteResponse>> getRouteById(@PathVariable Integer id) {
         RouteResponse route = routeService.getRouteById(id);
         return ResponseEntity.ok(new ApiResponse<>(true, "Route retrieved successfully", route));
     }
     
+    @QueryBudget(2)
     @GetMapping("/search")
     public ResponseEntity<ApiResponse<List<RouteResponse>>> searchRoutes(
             @RequestParam(required = false) String from,
@@ -46,6 +51,7 @@ public class RouteController {
         return ResponseEntity.ok(new ApiResponse<>(true, "Routes searched successfully", routes));
     }
     
+    @QueryBudget(3)
     @PostMapping
     public ResponseEntity<ApiResponse<RouteResponse>> createRoute(@Valid @RequestBody RouteRequest request) {
         RouteResponse route = routeService.createRoute(request);
@@ -53,6 +59,7 @@ public class RouteController {
                 .body(new ApiResponse<>(true, "Route created successfully", route));
     }
     
+    @QueryBudget(4)
     @PutMapping("/{id}")
     public ResponseEntity<ApiResponse<RouteResponse>> updateRoute(
             @PathVariable Integer id, 
@@ -1,5 +1,6 @@
 package com.busbooking.controller;
 
+import com.busbooking.config.QueryBudget;
 import com.busbooking.dto.request.SeatRequest;
 import com.busbooking.dto.response.ApiResponse;
 import com.busbooking.dto.response.SeatResponse;
@@ -18,28 +19,40 @@ import java.util.List;
 public class SeatController {
     private final SeatService seatService;
 
+    @QueryBudget(2)
     @GetMapping
     public ResponseEntity<ApiResponse<List<SeatResponse>>> getAll() {
         return ResponseEntity.ok(new ApiResponse<>(true, "Seats retrieved", seatService.getAllSeats()));
     }
 
+    @QueryBudget(2)
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<SeatResponse>> getById(@PathVariable Integer id) {
         return ResponseEntity.ok(new ApiResponse<>(true, "Seat retrieved", seatService.getSeatById(id)));
     }
 
+    @QueryBudget(3)
     @PostMapping
     public ResponseEntity<ApiResponse<SeatResponse>> create(@Valid @RequestBody SeatRequest request) {
         SeatResponse resp = seatService.createSeat(request);
         return ResponseEntity.status(HttpStatus.CREATED).body(new ApiResponse<>(true, "Seat created", resp));
     }
 
+    @QueryBudget(4)
+    @PostMapping("/vehicle/{vehicleId}/generate")
+    public ResponseEntity<ApiResponse<Integer>> generateFromLayout(@PathVariable Integer vehicleId) {
+        int created = seatService.generateSeatsFromLayout(vehicleId);
+        return ResponseEntity.status(HttpStatus.CREATED).body(new ApiResponse<>(true, "Seats generated from layout", created));
+    }
+
+    @QueryBudget(3)
     @PutMapping("/{id}")
     public ResponseEntity<ApiResponse<SeatResponse>> update(@PathVariable Integer id, @Valid @RequestBody SeatRequest request) {
         SeatResponse resp = seatService.updateSeat(id, request);
         return ResponseEntity.ok(new ApiResponse<>(true, "Seat updated", resp));
     }
 
+    @QueryBudget(3)
     @DeleteMapping("/{id}")
     public ResponseEntity<ApiResponse<Void>> delete(@PathVariable Integer id) {
         seatService.deleteSeat(id);
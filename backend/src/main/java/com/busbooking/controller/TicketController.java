@@ -1,5 +1,6 @@
 package com.busbooking.controller;
 
+import com.busbooking.config.QueryBudget;
 import com.busbooking.dto.request.TicketRequest;
 import com.busbooking.dto.response.ApiResponse;
 import com.busbooking.dto.response.TicketResponse;
@@ -19,30 +20,35 @@ public class TicketController {
     
     private final TicketService ticketService;
     
+    @QueryBudget(2)
     @GetMapping
     public ResponseEntity<ApiResponse<List<TicketResponse>>> getAllTickets() {
         List<TicketResponse> tickets = ticketService.getAllTickets();
         return ResponseEntity.ok(new ApiResponse<>(true, "Tickets retrieved successfully", tickets));
     }
     
+    @QueryBudget(2)
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<TicketResponse>> getTicketById(@PathVariable Integer id) {
         TicketResponse ticket = ticketService.getTicketById(id);
         return ResponseEntity.ok(new ApiResponse<>(true, "Ticket retrieved successfully", ticket));
     }
     
+    @QueryBudget(2)
     @GetMapping("/user/{userId}")
     public ResponseEntity<ApiResponse<List<TicketResponse>>> getTicketsByUser(@PathVariable Integer userId) {
         List<TicketResponse> tickets = ticketService.getTicketsByUser(userId);
         return ResponseEntity.ok(new ApiResponse<>(true, "User tickets retrieved successfully", tickets));
     }
     
+    @QueryBudget(2)
     @GetMapping("/trip/{tripId}")
     public ResponseEntity<ApiResponse<List<TicketResponse>>> getTicketsByTrip(@PathVariable Integer tripId) {
         List<TicketResponse> tickets = ticketService.getTicketsByTrip(tripId);
         return ResponseEntity.ok(new ApiResponse<>(true, "Trip tickets retrieved successfully", tickets));
     }
     
+    @QueryBudget(12)
     @PostMapping
     public ResponseEntity<ApiResponse<TicketResponse>> createTicket(@Valid @RequestBody TicketRequest request) {
         TicketResponse ticket = ticketService.createTicket(request);
@@ -50,6 +56,7 @@ public class TicketController {
                 .body(new ApiResponse<>(true, "Ticket created successfully", ticket));
     }
     
+    @QueryBudget(5)
     @PatchMapping("/{id}/status")
     public ResponseEntity<ApiResponse<TicketResponse>> updateTicketStatus(
             @PathVariable Integer id, 
@@ -58,6 +65,7 @@ public class TicketController {
         return ResponseEntity.ok(new ApiResponse<>(true, "Ticket status updated successfully", ticket));
     }
     
+    @QueryBudget(5)
     @DeleteMapping("/{id}")
     public ResponseEntity<ApiResponse<Void>> deleteTicket(@PathVariable Integer id) {
         ticketService.deleteTicket(id);
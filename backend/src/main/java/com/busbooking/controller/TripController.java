@@ -1,15 +1,19 @@
 package com.busbooking.controller;
 
+import com.busbooking.config.QueryBudget;
+import com.busbooking.dto.request.OnUpdate;
 import com.busbooking.dto.request.TripRequest;
 import com.busbooking.dto.response.ApiResponse;
 import com.busbooking.dto.response.ScheduleGroupResponse;
 import com.busbooking.dto.response.TripResponse;
 import com.busbooking.service.TripService;
 import jakarta.validation.Valid;
+import jakarta.validation.groups.Default;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
@@ -22,30 +26,35 @@ public class TripController {
     
     private final TripService tripService;
     
+    @QueryBudget(3)
     @GetMapping
     public ResponseEntity<ApiResponse<List<TripResponse>>> getAllTrips() {
         List<TripResponse> trips = tripService.getAllTrips();
         return ResponseEntity.ok(new ApiResponse<>(true, "Trips retrieved successfully", trips));
     }
     
+    @QueryBudget(3)
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<TripResponse>> getTripById(@PathVariable Integer id) {
         TripResponse trip = tripService.getTripById(id);
         return ResponseEntity.ok(new ApiResponse<>(true, "Trip retrieved successfully", trip));
     }
     
+    @QueryBudget(3)
     @GetMapping("/route/{routeId}")
     public ResponseEntity<ApiResponse<List<TripResponse>>> getTripsByRoute(@PathVariable Integer routeId) {
         List<TripResponse> trips = tripService.getTripsByRoute(routeId);
         return ResponseEntity.ok(new ApiResponse<>(true, "Trips by route retrieved successfully", trips));
     }
     
+    @QueryBudget(3)
     @GetMapping("/status/{status}")
     public ResponseEntity<ApiResponse<List<TripResponse>>> getTripsByStatus(@PathVariable String status) {
         List<TripResponse> trips = tripService.getTripsByStatus(status);
         return ResponseEntity.ok(new ApiResponse<>(true, "Trips by status retrieved successfully", trips));
     }
     
+    @QueryBudget(3)
     @GetMapping("/search")
     public ResponseEntity<ApiResponse<List<TripResponse>>> getTripsInDateRange(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
@@ -54,12 +63,14 @@ public class TripController {
         return ResponseEntity.ok(new ApiResponse<>(true, "Trips in date range retrieved successfully", trips));
     }
     
+    @QueryBudget(2)
     @GetMapping("/schedule-routes")
     public ResponseEntity<ApiResponse<List<ScheduleGroupResponse>>> getScheduleRoutes() {
         List<ScheduleGroupResponse> routes = tripService.getScheduleRoutes();
         return ResponseEntity.ok(new ApiResponse<>(true, "Schedule routes retrieved successfully", routes));
     }
     
+    @QueryBudget(10)
     @PostMapping
     public ResponseEntity<ApiResponse<TripResponse>> createTrip(@Valid @RequestBody TripRequest request) {
         TripResponse trip = tripService.createTrip(request);
@@ -67,10 +78,11 @@ public class TripController {
                 .body(new ApiResponse<>(true, "Trip created successfully", trip));
     }
     
+    @QueryBudget(4)
     @PutMapping("/{id}")
     public ResponseEntity<ApiResponse<TripResponse>> updateTrip(
             @PathVariable Integer id, 
-            @Valid @RequestBody TripRequest request) {
+            @Validated({Default.class, OnUpdate.class}) @RequestBody TripRequest request) {
         TripResponse trip = tripService.updateTrip(id, request);
         return ResponseEntity.ok(new ApiResponse<>(true, "Trip updated successfully", trip));
     }
@@ -1,11 +1,16 @@
 package com.busbooking.controller;
 
+import com.busbooking.config.QueryBudget;
 import com.busbooking.dto.response.ApiResponse;
 import com.busbooking.dto.response.TripSeatResponse;
+import com.busbooking.mapper.SeatMapEncoder;
+import com.busbooking.service.TripSeatEventPublisher;
 import com.busbooking.service.TripSeatService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -15,19 +20,46 @@ import java.util.List;
 public class TripSeatController {
     
     private final TripSeatService tripSeatService;
+    private final TripSeatEventPublisher seatEventPublisher;
     
     /**
      * Lấy tất cả ghế của một chuyến xe
      */
+    @QueryBudget(3)
     @GetMapping("/trip/{tripId}")
     public ResponseEntity<ApiResponse<List<TripSeatResponse>>> getSeatsByTrip(@PathVariable Integer tripId) {
         List<TripSeatResponse> seats = tripSeatService.getSeatsByTripId(tripId);
         return ResponseEntity.ok(new ApiResponse<>(true, "Seats retrieved successfully", seats));
     }
     
+    /**
+     * Lấy sơ đồ ghế dạng nhị phân gọn (Accept: application/vnd.busbooking.seatmap).
+     * Truyền layoutId (hex) đã cache để bỏ qua phần layout trong response.
+     */
+    @QueryBudget(3)
+    @GetMapping(value = "/trip/{tripId}", produces = SeatMapEncoder.MEDIA_TYPE)
+    public ResponseEntity<byte[]> getCompactSeatMap(
+            @PathVariable Integer tripId,
+            @RequestParam(required = false) String layoutId) {
+        byte[] seatMap = tripSeatService.getCompactSeatMap(tripId, layoutId);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(SeatMapEncoder.MEDIA_TYPE))
+                .body(seatMap);
+    }
+    
+    /**
+     * Theo dõi thay đổi trạng thái ghế của chuyến xe (Server-Sent Events, event "seat-status")
+     */
+    @QueryBudget(1)
+    @GetMapping(value = "/trip/{tripId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamSeatStatus(@PathVariable Integer tripId) {
+        return seatEventPublisher.subscribe(tripId);
+    }
+    
     /**
      * Lấy danh sách ghế trống
      */
+    @QueryBudget(3)
     @GetMapping("/trip/{tripId}/available")
     public ResponseEntity<ApiResponse<List<TripSeatResponse>>> getAvailableSeats(@PathVariable Integer tripId) {
         List<TripSeatResponse> seats = tripSeatService.getAvailableSeats(tripId);
@@ -37,6 +69,7 @@ public class TripSeatController {
     /**
      * Đếm số ghế trống
      */
+    @QueryBudget(2)
     @GetMapping("/trip/{tripId}/available-count")
     public ResponseEntity<ApiResponse<Long>> countAvailableSeats(@PathVariable Integer tripId) {
         Long count = tripSeatService.countAvailableSeats(tripId);
@@ -46,6 +79,7 @@ public class TripSeatController {
     /**
      * Tạo ghế cho trip (sử dụng khi tạo trip mới)
      */
+    @QueryBudget(4)
     @PostMapping("/trip/{tripId}/create")
     public ResponseEntity<ApiResponse<Void>> createSeatsForTrip(@PathVariable Integer tripId) {
         tripSeatService.createSeatsForTrip(tripId);
@@ -55,6 +89,7 @@ public class TripSeatController {
     /**
      * Đặt ghế
      */
+    @QueryBudget(3)
     @PatchMapping("/{tripSeatId}/book")
     public ResponseEntity<ApiResponse<TripSeatResponse>> bookSeat(@PathVariable Integer tripSeatId) {
         TripSeatResponse seat = tripSeatService.bookSeat(tripSeatId);
@@ -64,6 +99,7 @@ public class TripSeatController {
     /**
      * Hủy đặt ghế
      */
+    @QueryBudget(3)
     @PatchMapping("/{tripSeatId}/cancel")
     public ResponseEntity<ApiResponse<TripSeatResponse>> cancelSeat(@PathVariable Integer tripSeatId) {
         TripSeatResponse seat = tripSeatService.cancelSeat(tripSeatId);
@@ -73,6 +109,7 @@ public class TripSeatController {
     /**
      * Khóa ghế
      */
+    @QueryBudget(3)
     @PatchMapping("/{tripSeatId}/lock")
     public ResponseEntity<ApiResponse<TripSeatResponse>> lockSeat(@PathVariable Integer tripSeatId) {
         TripSeatResponse seat = tripSeatService.lockSeat(tripSeatId);
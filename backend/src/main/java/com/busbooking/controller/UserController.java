@@ -1,5 +1,6 @@
 package com.busbooking.controller;
 
+import com.busbooking.config.QueryBudget;
 import com.busbooking.dto.request.UpdateUserRequest;
 import com.busbooking.dto.request.UserRequest;
 import com.busbooking.dto.response.ApiResponse;
@@ -21,16 +22,19 @@ public class UserController {
     private final UserService userService;
     private final PasswordEncoder passwordEncoder;
 
+    @QueryBudget(2)
     @GetMapping
     public ResponseEntity<ApiResponse<List<UserResponse>>> getAllUsers() {
         return ResponseEntity.ok(new ApiResponse<>(true, "Users retrieved", userService.getAllUsers()));
     }
 
+    @QueryBudget(2)
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<UserResponse>> getUser(@PathVariable Integer id) {
         return ResponseEntity.ok(new ApiResponse<>(true, "User retrieved", userService.getUserById(id)));
     }
 
+    @QueryBudget(2)
     @PostMapping
     public ResponseEntity<ApiResponse<UserResponse>> createUser(@Valid @RequestBody UserRequest request) {
         // Encode password before creating user
@@ -39,12 +43,14 @@ public class UserController {
         return ResponseEntity.status(HttpStatus.CREATED).body(new ApiResponse<>(true, "User created", resp));
     }
 
+    @QueryBudget(3)
     @PutMapping("/{id}")
     public ResponseEntity<ApiResponse<UserResponse>> updateUser(@PathVariable Integer id, @Valid @RequestBody UpdateUserRequest request) {
         UserResponse resp = userService.updateUser(id, request);
         return ResponseEntity.ok(new ApiResponse<>(true, "Cập nhật tài khoản thành công", resp));
     }
 
+    @QueryBudget(3)
     @PatchMapping("/{id}/toggle-status")
     public ResponseEntity<ApiResponse<UserResponse>> toggleUserStatus(@PathVariable Integer id) {
         UserResponse resp = userService.toggleUserStatus(id);
@@ -52,6 +58,7 @@ public class UserController {
         return ResponseEntity.ok(new ApiResponse<>(true, message, resp));
     }
 
+    @QueryBudget(3)
     @DeleteMapping("/{id}")
     public ResponseEntity<ApiResponse<Void>> deleteUser(@PathVariable Integer id) {
         userService.deleteUser(id);
@@ -1,5 +1,6 @@
 package com.busbooking.controller;
 
+import com.busbooking.config.QueryBudget;
 import com.busbooking.dto.response.ApiResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -21,6 +22,7 @@ public class UtilController {
      * ONLY for development/testing purposes
      * Should be DISABLED in production
      */
+    @QueryBudget(1)
     @PostMapping("/encode-password")
     public ResponseEntity<ApiResponse<Map<String, String>>> encodePassword(@RequestParam String password) {
         String encodedPassword = passwordEncoder.encode(password);
@@ -36,6 +38,7 @@ public class UtilController {
      * Verify if a plain text password matches a BCrypt hash
      * ONLY for development/testing purposes
      */
+    @QueryBudget(1)
     @PostMapping("/verify-password")
     public ResponseEntity<ApiResponse<Map<String, Object>>> verifyPassword(
             @RequestParam String plainText,
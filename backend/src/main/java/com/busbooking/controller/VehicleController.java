@@ -1,8 +1,10 @@
 package com.busbooking.controller;
 
+import com.busbooking.config.QueryBudget;
 import com.busbooking.dto.request.VehicleRequest;
 import com.busbooking.dto.response.ApiResponse;
 import com.busbooking.dto.response.VehicleResponse;
+import com.busbooking.model.SeatLayout;
 import com.busbooking.service.VehicleService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -18,33 +20,45 @@ import java.util.List;
 public class VehicleController {
     private final VehicleService vehicleService;
 
+    @QueryBudget(2)
     @GetMapping
     public ResponseEntity<ApiResponse<List<VehicleResponse>>> getAll() {
         return ResponseEntity.ok(new ApiResponse<>(true, "Vehicles retrieved", vehicleService.getAllVehicles()));
     }
     
+    @QueryBudget(2)
     @GetMapping("/active")
     public ResponseEntity<ApiResponse<List<VehicleResponse>>> getActive() {
         return ResponseEntity.ok(new ApiResponse<>(true, "Active vehicles retrieved", vehicleService.getActiveVehicles()));
     }
 
+    @QueryBudget(2)
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<VehicleResponse>> getById(@PathVariable Integer id) {
         return ResponseEntity.ok(new ApiResponse<>(true, "Vehicle retrieved", vehicleService.getVehicleById(id)));
     }
 
+    @QueryBudget(3)
+    @GetMapping("/{id}/layout")
+    public ResponseEntity<ApiResponse<SeatLayout>> getLayout(@PathVariable Integer id) {
+        return ResponseEntity.ok(new ApiResponse<>(true, "Seat layout retrieved", vehicleService.getSeatLayout(id)));
+    }
+
+    @QueryBudget(2)
     @PostMapping
     public ResponseEntity<ApiResponse<VehicleResponse>> create(@Valid @RequestBody VehicleRequest request) {
         VehicleResponse resp = vehicleService.createVehicle(request);
         return ResponseEntity.status(HttpStatus.CREATED).body(new ApiResponse<>(true, "Vehicle created", resp));
     }
 
+    @QueryBudget(3)
     @PutMapping("/{id}")
     public ResponseEntity<ApiResponse<VehicleResponse>> update(@PathVariable Integer id, @Valid @RequestBody VehicleRequest request) {
         VehicleResponse resp = vehicleService.updateVehicle(id, request);
         return ResponseEntity.ok(new ApiResponse<>(true, "Vehicle updated", resp));
     }
     
+    @QueryBudget(3)
     @PatchMapping("/{id}/toggle-status")
     public ResponseEntity<ApiResponse<VehicleResponse>> toggleStatus(@PathVariable Integer id) {
         VehicleResponse resp = vehicleService.toggleVehicleStatus(id);
@@ -52,6 +66,7 @@ public class VehicleController {
         return ResponseEntity.ok(new ApiResponse<>(true, message, resp));
     }
 
+    @QueryBudget(3)
     @DeleteMapping("/{id}")
     public ResponseEntity<ApiResponse<Void>> delete(@PathVariable Integer id) {
         vehicleService.deleteVehicle(id);
@@ -0,0 +1,18 @@
+package com.busbooking.dto.event;
+
+import com.busbooking.model.Notification;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Thông báo đang chờ gửi (đã gộp theo người dùng và kênh)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationMessage {
+    private Integer userId;
+    private Notification.Type type;
+    private String message;
+}
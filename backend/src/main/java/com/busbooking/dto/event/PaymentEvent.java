@@ -0,0 +1,24 @@
+package com.busbooking.dto.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Payload của sự kiện thanh toán trong booking_outbox
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentEvent {
+    private Integer paymentId;
+    private Integer ticketId;
+    private BigDecimal amount;
+    private String method;
+    private String status;
+    private String transactionId;
+    private LocalDateTime occurredAt;
+}
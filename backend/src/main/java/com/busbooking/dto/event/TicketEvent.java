@@ -0,0 +1,29 @@
+package com.busbooking.dto.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Payload của sự kiện vé trong booking_outbox
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TicketEvent {
+    // status của sự kiện khi vé bị xóa hẳn
+    public static final String STATUS_DELETED = "deleted";
+
+    private Integer ticketId;
+    private Integer userId;
+    private Integer tripId;
+    private Integer seatId;
+    private Integer promotionId;
+    private BigDecimal price;
+    private String status;
+    private String previousStatus;
+    private LocalDateTime occurredAt;
+}
@@ -0,0 +1,7 @@
+package com.busbooking.dto.request;
+
+/**
+ * Nhóm validation chỉ áp dụng khi cập nhật (PUT), dùng cùng Default: @Validated({Default.class, OnUpdate.class})
+ */
+public interface OnUpdate {
+}
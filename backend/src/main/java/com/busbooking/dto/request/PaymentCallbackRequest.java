@@ -0,0 +1,32 @@
+package com.busbooking.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentCallbackRequest {
+    
+    @NotNull(message = "Payment ID is required")
+    @Positive(message = "Payment ID must be positive")
+    private Integer paymentId;
+    
+    @NotBlank(message = "Transaction ID is required")
+    private String transactionId;
+    
+    @NotBlank(message = "Status is required")
+    @Pattern(regexp = "^(completed|failed)$", message = "Status must be completed or failed")
+    private String status;
+    
+    @NotNull(message = "Amount is required")
+    @Positive(message = "Amount must be positive")
+    private BigDecimal amount; // phải khớp số tiền của thanh toán, nằm trong nội dung chữ ký
+}
@@ -0,0 +1,23 @@
+package com.busbooking.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentRequest {
+    
+    @NotNull(message = "Ticket ID is required")
+    @Positive(message = "Ticket ID must be positive")
+    private Integer ticketId;
+    
+    @NotBlank(message = "Payment method is required")
+    @Pattern(regexp = "^(VNPay|Momo|cash|bank_transfer)$", message = "Method must be VNPay, Momo, cash or bank_transfer")
+    private String method;
+}
@@ -1,6 +1,7 @@
 package com.busbooking.dto.request;
 
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -8,6 +9,7 @@ import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
 
 @Data
 @NoArgsConstructor
@@ -27,4 +29,9 @@ public class PromotionRequest {
     
     @Positive(message = "Max uses must be positive")
     private Integer maxUses;
+    
+    private List<@Positive(message = "Route ID must be positive") Integer> routeIds; // null: giữ nguyên, rỗng: mọi tuyến
+    
+    @NotNull(message = "Version is required", groups = OnUpdate.class)
+    private Long version; // version đã đọc (PromotionResponse.version), bắt buộc khi cập nhật; đã bị sửa sau đó → 409
 }
@@ -6,6 +6,7 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -32,7 +33,10 @@ public class TicketRequest {
     @Positive(message = "Promotion ID must be positive")
     private Integer promotionId;
     
-    @NotNull(message = "Price is required")
+    @Size(max = 50, message = "Promotion code must not exceed 50 characters")
+    private String promotionCode; // ưu tiên hơn promotionId nếu có
+    
+    // Giá do server tính lại khi đặt vé (PricingService), giá gửi lên chỉ để tham khảo
     @DecimalMin(value = "10000.0", message = "Price must be at least 10,000 VND")
     @DecimalMax(value = "10000000.0", message = "Price must not exceed 10,000,000 VND")
     private BigDecimal price;
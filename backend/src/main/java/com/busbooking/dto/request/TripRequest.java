@@ -36,4 +36,7 @@ public class TripRequest {
     @Pattern(regexp = "^(scheduled|ongoing|completed|cancelled)$", 
              message = "Status must be scheduled, ongoing, completed or cancelled")
     private String status; // scheduled, ongoing, completed, cancelled
+    
+    @NotNull(message = "Version is required", groups = OnUpdate.class)
+    private Long version; // version đã đọc (TripResponse.version), bắt buộc khi cập nhật; chuyến đã bị sửa sau đó → 409
 }
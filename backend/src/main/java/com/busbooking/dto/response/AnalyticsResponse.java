@@ -0,0 +1,24 @@
+package com.busbooking.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Một nhóm kết quả của analytics cube; chiều không được group-by để null
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalyticsResponse {
+    private Integer routeId;
+    private LocalDate day;
+    private String vehicleType;
+    private BigDecimal revenue;
+    private long ticketCount;
+    private long seatCapacity;
+    private Double loadFactor;
+}
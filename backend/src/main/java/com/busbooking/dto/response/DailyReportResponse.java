@@ -0,0 +1,20 @@
+package com.busbooking.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Tổng hợp theo ngày, cộng từ các dòng reports đã tính sẵn
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyReportResponse {
+    private LocalDate reportDate;
+    private BigDecimal revenue;
+    private BigDecimal passengerCount;
+}
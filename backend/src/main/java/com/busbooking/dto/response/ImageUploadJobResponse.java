@@ -0,0 +1,20 @@
+package com.busbooking.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageUploadJobResponse {
+    private String jobId;
+    private String folder;
+    private String status; // queued, processing, completed, failed
+    private String url; // có khi status = completed
+    private String error; // có khi status = failed
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,18 @@
+package com.busbooking.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceResponse {
+    private Integer id;
+    private Integer paymentId;
+    private String invoiceNumber;
+    private String details;
+    private LocalDateTime issuedAt;
+}
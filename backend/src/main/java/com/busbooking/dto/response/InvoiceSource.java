@@ -0,0 +1,29 @@
+package com.busbooking.dto.response;
+
+import com.busbooking.model.Payment;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Dữ liệu phẳng để xuất hóa đơn, đọc bằng một câu JPQL (không nạp entity)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceSource {
+    private Integer paymentId;
+    private BigDecimal amount;
+    private Payment.Method method;
+    private String transactionId;
+    private LocalDateTime paidAt;
+    private Integer ticketId;
+    private String customerName;
+    private String fromLocation;
+    private String toLocation;
+    private LocalDateTime departureTime;
+    private String seatNumber;
+}
@@ -0,0 +1,22 @@
+package com.busbooking.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Hành khách của một chuyến xe (projection, dùng để gửi thông báo hàng loạt)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PassengerTrip {
+    private Integer userId;
+    private Integer tripId;
+    private String fromLocation;
+    private String toLocation;
+    private LocalDateTime departureTime;
+    private String seatNumber;
+}
@@ -0,0 +1,22 @@
+package com.busbooking.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentResponse {
+    private Integer id;
+    private Integer ticketId;
+    private BigDecimal amount;
+    private String method;
+    private String status;
+    private String transactionId;
+    private LocalDateTime paidAt;
+    private String paymentUrl;
+}
@@ -0,0 +1,20 @@
+package com.busbooking.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Khuyến mãi áp dụng được cho một chuyến, kèm số tiền giảm tính trên giá vé của chuyến
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PromotionOfferResponse {
+    private Integer promotionId;
+    private String code;
+    private BigDecimal discount;
+    private BigDecimal finalPrice;
+}
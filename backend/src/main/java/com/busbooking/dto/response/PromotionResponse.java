@@ -7,6 +7,7 @@ import lombok.NoArgsConstructor;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 @NoArgsConstructor
@@ -21,4 +22,6 @@ public class PromotionResponse {
     private Integer maxUses;
     private Integer usedCount;
     private LocalDateTime createdAt;
+    private List<Integer> routeIds; // rỗng: áp dụng cho mọi tuyến
+    private Long version; // gửi lại trong PromotionRequest khi cập nhật
 }
@@ -0,0 +1,19 @@
+package com.busbooking.dto.response;
+
+import com.busbooking.model.Report;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportResponse {
+    private Integer tripId;
+    private Report.ReportType reportType;
+    private BigDecimal value;
+    private LocalDate reportDate;
+}
@@ -0,0 +1,41 @@
+package com.busbooking.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Báo giá cả sơ đồ ghế của một chuyến (giá tính bằng VND, số nguyên)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TripQuoteResponse {
+    private Integer tripId;
+    private String promotionCode;
+    private long basePrice;
+    private List<SeatTypePrice> seatTypes;
+    private List<SeatPrice> seats;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SeatTypePrice {
+        private String seatType;
+        private long originalPrice;
+        private long price;
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SeatPrice {
+        private Integer tripSeatId;
+        private String seatNumber;
+        private String seatType;
+        private String status;
+        private long price;
+    }
+}
@@ -19,4 +19,6 @@ public class TripResponse {
     private String status;
     private LocalDateTime createdAt;
     private Long availableSeats; // Số ghế còn trống
+    private Long fromPrice; // Giá thấp nhất hiện tại (VND), đã gồm phụ thu theo nhu cầu
+    private Long version; // gửi lại trong TripRequest khi cập nhật
 }
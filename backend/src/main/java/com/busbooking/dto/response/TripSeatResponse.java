@@ -13,4 +13,5 @@ public class TripSeatResponse {
     private String seatNumber;
     private String seatType;
     private String status;
+    private Long price; // giá hiện tại (VND) của ghế, chỉ có trong sơ đồ ghế
 }
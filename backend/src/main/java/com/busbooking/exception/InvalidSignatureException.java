@@ -0,0 +1,10 @@
+package com.busbooking.exception;
+
+/**
+ * Callback từ bên ngoài thiếu chữ ký hoặc chữ ký không khớp
+ */
+public class InvalidSignatureException extends RuntimeException {
+    public InvalidSignatureException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package com.busbooking.exception;
+
+/**
+ * Ghế của chuyến đã có vé còn hiệu lực (vi phạm unique key uk_tickets_active_seat)
+ */
+public class SeatAlreadyBookedException extends RuntimeException {
+    public SeatAlreadyBookedException(Integer tripId, Integer seatId) {
+        super("Ghế " + seatId + " của chuyến " + tripId + " đã có vé");
+    }
+}
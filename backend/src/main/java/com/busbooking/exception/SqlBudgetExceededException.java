@@ -0,0 +1,10 @@
+package com.busbooking.exception;
+
+/**
+ * Request chạy nhiều câu SQL hơn ngân sách @QueryBudget của endpoint (chỉ ném khi app.sql-budget.mode=fail)
+ */
+public class SqlBudgetExceededException extends RuntimeException {
+    public SqlBudgetExceededException(int budget, String sql) {
+        super("Vượt ngân sách " + budget + " câu SQL mỗi request, câu bị chặn: " + sql);
+    }
+}
@@ -0,0 +1,10 @@
+package com.busbooking.exception;
+
+/**
+ * Client gửi version đã đọc nhưng bản ghi đã bị sửa sau đó; không chạy lại, client cần tải lại dữ liệu
+ */
+public class StaleVersionException extends RuntimeException {
+    public StaleVersionException(String entity, Integer id, Long expected, Long actual) {
+        super(entity + " " + id + " đã bị thay đổi (version " + expected + " → " + actual + "), vui lòng tải lại");
+    }
+}
@@ -0,0 +1,22 @@
+package com.busbooking.mapper;
+
+import com.busbooking.dto.response.PaymentResponse;
+import com.busbooking.model.Payment;
+import org.springframework.stereotype.Component;
+
+@Component
+public class PaymentMapper {
+
+    public PaymentResponse toResponse(Payment p) {
+        return new PaymentResponse(
+                p.getId(),
+                p.getTicket().getId(),
+                p.getAmount(),
+                p.getMethod().name(),
+                p.getStatus().name(),
+                p.getTransactionId(),
+                p.getPaidAt(),
+                null
+        );
+    }
+}
@@ -29,7 +29,9 @@ public class PromotionMapper {
                 p.getEndDate(),
                 p.getMaxUses(),
                 p.getUsedCount(),
-                p.getCreatedAt()
+                p.getCreatedAt(),
+                null,
+                p.getVersion()
         );
     }
 
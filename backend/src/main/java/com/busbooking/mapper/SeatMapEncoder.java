@@ -0,0 +1,135 @@
+package com.busbooking.mapper;
+
+import com.busbooking.model.TripSeat;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Mã hóa sơ đồ ghế dạng nhị phân gọn cho client mạng chậm (thay cho JSON list TripSeatResponse).
+ *
+ * Định dạng (big-endian):
+ * <pre>
+ * byte    version (= 2)
+ * byte    flags   (bit 0: có kèm layout)
+ * int     tripId
+ * int     vehicleId
+ * 16 byte layoutId   (128 bit đầu của SHA-256 phần layout, client cache layout theo giá trị này)
+ * short   seatCount
+ * [layout, nếu flags bit 0]
+ *   seatCount x { byte seatType, byte len, len bytes UTF-8 seatNumber }
+ * seatCount x varint   id trip_seat (phần tử đầu là id, các phần tử sau là độ lệch so với id trước)
+ * ceil(seatCount / 4) bytes   trạng thái 2 bit/ghế (0 = available, 1 = booked, 2 = locked), ghế đầu ở 2 bit thấp
+ * </pre>
+ * Thứ tự ghế là thứ tự id trip_seat, trùng với thứ tự ghế mẫu của xe nên mọi chuyến dùng chung layout.
+ * layoutId là digest của chính các byte layout: hai layout khác nhau không thể vô tình trùng id
+ * (version 1 dùng hash 32 bit, trùng hash thì client dùng nhầm layout đã cache).
+ * Client gửi lại layoutId dạng hex (32 ký tự).
+ */
+@Component
+public class SeatMapEncoder {
+
+    public static final String MEDIA_TYPE = "application/vnd.busbooking.seatmap";
+
+    private static final int VERSION = 2;
+    private static final int FLAG_LAYOUT = 1;
+    private static final int LAYOUT_ID_BYTES = 16;
+    private static final int MAX_SEATS = 0xFFFF;
+    private static final int MAX_SEAT_NUMBER_BYTES = 0xFF;
+
+    /**
+     * @param knownLayoutId layoutId (hex) client đang cache; nếu trùng thì bỏ phần layout
+     */
+    public byte[] encode(Integer tripId, Integer vehicleId, List<TripSeat> tripSeats, String knownLayoutId) {
+        List<TripSeat> seats = tripSeats.stream()
+                .sorted(Comparator.comparing(TripSeat::getId))
+                .toList();
+        if (seats.size() > MAX_SEATS) {
+            throw new IllegalStateException("Chuyến có " + seats.size() + " ghế, vượt giới hạn " + MAX_SEATS + " của sơ đồ ghế");
+        }
+
+        byte[] layout = encodeLayout(seats);
+        byte[] layoutId = layoutId(layout);
+        boolean includeLayout = knownLayoutId == null || !HexFormat.of().formatHex(layoutId).equalsIgnoreCase(knownLayoutId);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(
+                12 + LAYOUT_ID_BYTES + (includeLayout ? layout.length : 0) + seats.size() * 2);
+        out.write(VERSION);
+        out.write(includeLayout ? FLAG_LAYOUT : 0);
+        writeInt(out, tripId);
+        writeInt(out, vehicleId);
+        out.write(layoutId, 0, layoutId.length);
+        writeShort(out, seats.size());
+
+        if (includeLayout) {
+            out.write(layout, 0, layout.length);
+        }
+
+        int previousId = 0;
+        for (TripSeat seat : seats) {
+            writeVarint(out, seat.getId() - previousId);
+            previousId = seat.getId();
+        }
+
+        byte[] statuses = new byte[(seats.size() + 3) / 4];
+        for (int i = 0; i < seats.size(); i++) {
+            statuses[i >> 2] |= (byte) (seats.get(i).getStatus().ordinal() << ((i & 3) << 1));
+        }
+        out.write(statuses, 0, statuses.length);
+
+        return out.toByteArray();
+    }
+
+    /**
+     * Phần layout (loại ghế + số ghế theo thứ tự), giống nhau cho mọi chuyến của cùng một xe
+     */
+    private byte[] encodeLayout(List<TripSeat> seatsInOrder) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(seatsInOrder.size() * 6);
+        for (TripSeat seat : seatsInOrder) {
+            byte[] number = seat.getSeatNumber().getBytes(StandardCharsets.UTF_8);
+            if (number.length > MAX_SEAT_NUMBER_BYTES) {
+                throw new IllegalStateException("Số ghế '" + seat.getSeatNumber() + "' dài hơn "
+                        + MAX_SEAT_NUMBER_BYTES + " byte, không mã hóa được");
+            }
+            out.write(seat.getSeatType().ordinal());
+            out.write(number.length);
+            out.write(number, 0, number.length);
+        }
+        return out.toByteArray();
+    }
+
+    private byte[] layoutId(byte[] layout) {
+        try {
+            return Arrays.copyOf(MessageDigest.getInstance("SHA-256").digest(layout), LAYOUT_ID_BYTES);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void writeInt(ByteArrayOutputStream out, int value) {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    private void writeShort(ByteArrayOutputStream out, int value) {
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    private void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+}
@@ -2,11 +2,14 @@ package com.busbooking.mapper;
 
 import com.busbooking.dto.request.TicketRequest;
 import com.busbooking.dto.response.*;
+import com.busbooking.exception.ResourceNotFoundException;
 import com.busbooking.model.*;
 import com.busbooking.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 @Component
 public class TicketMapper {
     
@@ -25,22 +28,23 @@ public class TicketMapper {
     public Ticket toEntity(TicketRequest request) {
         Ticket ticket = new Ticket();
         
-        User user = userRepository.findById(request.getUserId())
-            .orElseThrow(() -> new RuntimeException("User not found"));
-        ticket.setUser(user);
-        
-        Trip trip = tripRepository.findById(request.getTripId())
-            .orElseThrow(() -> new RuntimeException("Trip not found"));
-        ticket.setTrip(trip);
+        // Chỉ cần user_id để ghi vé; user không tồn tại thì khóa ngoại báo lỗi khi INSERT (TicketService trả 404)
+        ticket.setUser(userRepository.getReferenceById(request.getUserId()));
         
-        Seat seat = seatRepository.findById(request.getSeatId())
-            .orElseThrow(() -> new RuntimeException("Seat not found"));
-        ticket.setSeat(seat);
+        // Chuyến và ghế nạp chung một câu SQL; chỉ khi thiếu mới tra thêm để báo đúng bản ghi không tồn tại
+        List<Object[]> rows = tripRepository.findTripWithSeat(request.getTripId(), request.getSeatId());
+        if (rows.isEmpty()) {
+            if (!tripRepository.existsById(request.getTripId())) {
+                throw new ResourceNotFoundException("Trip not found with id: " + request.getTripId());
+            }
+            throw new ResourceNotFoundException("Seat not found with id: " + request.getSeatId());
+        }
+        ticket.setTrip((Trip) rows.get(0)[0]);
+        ticket.setSeat((Seat) rows.get(0)[1]);
         
+        // Khuyến mãi được TicketService kiểm tra qua cache, ở đây chỉ cần tham chiếu để ghi promotion_id
         if (request.getPromotionId() != null) {
-            Promotion promotion = promotionRepository.findById(request.getPromotionId())
-                .orElseThrow(() -> new RuntimeException("Promotion not found"));
-            ticket.setPromotion(promotion);
+            ticket.setPromotion(promotionRepository.getReferenceById(request.getPromotionId()));
         }
         
         ticket.setPrice(request.getPrice());
@@ -104,7 +108,9 @@ public class TicketMapper {
             trip.getArrivalTime(),
             trip.getStatus().name(),
             trip.getCreatedAt(),
-            0L // availableSeats - set to 0 in ticket context since not needed
+            0L, // availableSeats - set to 0 in ticket context since not needed
+            null,
+            trip.getVersion()
         );
         
         SeatResponse seatResponse = new SeatResponse(
@@ -126,7 +132,9 @@ public class TicketMapper {
                 ticket.getPromotion().getEndDate(),
                 ticket.getPromotion().getMaxUses(),
                 ticket.getPromotion().getUsedCount(),
-                ticket.getPromotion().getCreatedAt()
+                ticket.getPromotion().getCreatedAt(),
+                null,
+                ticket.getPromotion().getVersion()
             );
         }
         
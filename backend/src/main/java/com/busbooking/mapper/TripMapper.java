@@ -91,7 +91,9 @@ public class TripMapper {
             trip.getArrivalTime(),
             trip.getStatus().name(),
             trip.getCreatedAt(),
-            0L // availableSeats sẽ được set từ service layer
+            0L, // availableSeats sẽ được set từ service layer
+            null, // fromPrice được set từ service layer
+            trip.getVersion()
         );
     }
     
@@ -0,0 +1,39 @@
+package com.busbooking.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "invoices")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Invoice {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "payment_id", nullable = false)
+    private Payment payment;
+    
+    @Column(name = "invoice_number", unique = true)
+    private String invoiceNumber;
+    
+    @Column(columnDefinition = "TEXT")
+    private String details;
+    
+    @Column(name = "issued_at")
+    private LocalDateTime issuedAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        if (issuedAt == null) {
+            issuedAt = LocalDateTime.now();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.busbooking.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "notifications")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Notification {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+    
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String message;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Type type;
+    
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+    
+    // Sự kiện booking_outbox sinh ra thông báo (nếu có), để giao lại không gửi trùng
+    @Column(name = "event_id", unique = true)
+    private Long eventId;
+    
+    // Khóa chống trùng cho thông báo sinh theo lịch (ví dụ nhắc chuyến: reminder:{tripId}:{userId}:{seatNumber})
+    @Column(name = "dedup_key", unique = true, length = 64)
+    private String dedupKey;
+    
+    // Số lần gửi lỗi; tin pending chỉ được gửi lại từ next_attempt_at
+    @Column(nullable = false)
+    private Integer attempts = 0;
+    
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status")
+    private Status status = Status.sent;
+    
+    public enum Type {
+        email, sms, push
+    }
+    
+    public enum Status {
+        pending, sent, failed
+    }
+}
@@ -0,0 +1,49 @@
+package com.busbooking.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "payments")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Payment {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "ticket_id", nullable = false)
+    private Ticket ticket;
+    
+    @Column(nullable = false)
+    private BigDecimal amount;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Method method;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status")
+    private Status status = Status.pending;
+    
+    @Column(name = "transaction_id", unique = true)
+    private String transactionId;
+    
+    @Column(name = "paid_at")
+    private LocalDateTime paidAt;
+    
+    public enum Method {
+        VNPay, Momo, cash, bank_transfer
+    }
+    
+    public enum Status {
+        pending, completed, failed
+    }
+}
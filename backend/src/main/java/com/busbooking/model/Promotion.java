@@ -37,12 +37,20 @@ public class Promotion {
     @Column(name = "max_uses")
     private Integer maxUses;
     
-    @Column(name = "used_count")
+    /**
+     * Chỉ tăng/giảm bằng UPDATE có điều kiện (PromotionRepository.redeem/release),
+     * không ghi đè khi lưu entity để tránh mất lượt dùng khi cập nhật đồng thời
+     * và không tăng version, nên khách dùng mã không làm admin đang sửa khuyến mãi bị xung đột
+     */
+    @Column(name = "used_count", updatable = false)
     private Integer usedCount = 0;
     
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
+    @Version
+    private Long version;
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -0,0 +1,47 @@
+package com.busbooking.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "reports")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Report {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "trip_id")
+    private Trip trip;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "report_type", nullable = false)
+    private ReportType reportType;
+    
+    @Column(precision = 15, scale = 2)
+    private BigDecimal value;
+    
+    @Column(name = "report_date", nullable = false)
+    private LocalDate reportDate;
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+    
+    public enum ReportType {
+        revenue, passenger_count, empty_seat_ratio
+    }
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
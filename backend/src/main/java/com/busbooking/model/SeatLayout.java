@@ -0,0 +1,43 @@
+package com.busbooking.model;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Sơ đồ ghế đã parse của một xe (bất biến).
+ * Các xe có cùng sơ đồ dùng chung một instance (xem SeatLayoutService), nên có thể chia sẻ giữa mọi chuyến xe.
+ */
+@Value
+public class SeatLayout {
+
+    public static final SeatLayout EMPTY = new SeatLayout(0, 0, 0, List.of());
+
+    int rows;
+    int columns;
+    int floors;
+    List<Slot> seats;
+
+    public SeatLayout(int rows, int columns, int floors, List<Slot> seats) {
+        this.rows = rows;
+        this.columns = columns;
+        this.floors = floors;
+        this.seats = List.copyOf(seats);
+    }
+
+    public int getTotalSeats() {
+        return seats.size();
+    }
+
+    /**
+     * Một vị trí ghế trong sơ đồ (tầng, hàng, cột tính từ 0)
+     */
+    @Value
+    public static class Slot {
+        String seatNumber;
+        Seat.SeatType seatType;
+        int floor;
+        int row;
+        int column;
+    }
+}
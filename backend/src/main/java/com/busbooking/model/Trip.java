@@ -42,6 +42,9 @@ public class Trip {
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
+    @Version
+    private Long version;
+    
     public enum Status {
         scheduled, ongoing, completed, cancelled
     }
@@ -35,6 +35,9 @@ public class TripSeat {
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
+    @Version
+    private Long version;
+    
     public enum SeatType {
         standard, vip, bed
     }
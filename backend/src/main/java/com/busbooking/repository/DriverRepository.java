@@ -2,6 +2,7 @@ package com.busbooking.repository;
 
 import com.busbooking.model.Driver;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 import java.util.Optional;
@@ -10,4 +11,8 @@ import java.util.Optional;
 public interface DriverRepository extends JpaRepository<Driver, Integer> {
     Optional<Driver> findByLicenseNumber(String licenseNumber);
     List<Driver> findByIsActiveTrue();
+    
+    // Ảnh đang được tài xế tham chiếu (ImageCleanupService)
+    @Query("SELECT DISTINCT d.imageUrl FROM Driver d WHERE d.imageUrl IS NOT NULL")
+    List<String> findAllImageUrls();
 }
@@ -0,0 +1,28 @@
+package com.busbooking.repository;
+
+import com.busbooking.dto.response.InvoiceSource;
+import com.busbooking.model.Invoice;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface InvoiceRepository extends JpaRepository<Invoice, Integer> {
+    Optional<Invoice> findByPaymentId(Integer paymentId);
+    Optional<Invoice> findByInvoiceNumber(String invoiceNumber);
+    
+    // Thanh toán đã hoàn tất nhưng chưa có hóa đơn, phân trang theo id (keyset)
+    @Query("SELECT new com.busbooking.dto.response.InvoiceSource(" +
+           "p.id, p.amount, p.method, p.transactionId, p.paidAt, " +
+           "t.id, u.fullName, r.fromLocation, r.toLocation, tr.departureTime, s.seatNumber) " +
+           "FROM Payment p JOIN p.ticket t JOIN t.user u JOIN t.trip tr JOIN tr.route r JOIN t.seat s " +
+           "WHERE p.status = 'completed' AND p.id > :afterPaymentId " +
+           "AND NOT EXISTS (SELECT 1 FROM Invoice i WHERE i.payment.id = p.id) " +
+           "ORDER BY p.id")
+    List<InvoiceSource> findUninvoicedPayments(@Param("afterPaymentId") Integer afterPaymentId, Pageable pageable);
+}
@@ -0,0 +1,29 @@
+package com.busbooking.repository;
+
+import com.busbooking.model.Payment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PaymentRepository extends JpaRepository<Payment, Integer> {
+    Optional<Payment> findByTransactionId(String transactionId);
+    List<Payment> findByTicketId(Integer ticketId);
+    
+    // Chuyển trạng thái có điều kiện (chỉ từ pending), không cần khóa bản ghi trước
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Payment p SET p.status = :status, p.transactionId = :transactionId, p.paidAt = :paidAt " +
+           "WHERE p.id = :id AND p.status = 'pending'")
+    int completeIfPending(
+            @Param("id") Integer id,
+            @Param("status") Payment.Status status,
+            @Param("transactionId") String transactionId,
+            @Param("paidAt") LocalDateTime paidAt
+    );
+}
@@ -2,10 +2,32 @@ package com.busbooking.repository;
 
 import com.busbooking.model.Promotion;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PromotionRepository extends JpaRepository<Promotion, Integer> {
     Optional<Promotion> findByCode(String code);
+    
+    @Query("SELECT p FROM Promotion p WHERE p.endDate IS NULL OR p.endDate >= :today")
+    List<Promotion> findNotExpired(@Param("today") LocalDate today);
+    
+    /**
+     * Dùng một lượt khuyến mãi nếu còn lượt và còn hạn; trả về 0 nếu không dùng được
+     */
+    @Modifying
+    @Query("UPDATE Promotion p SET p.usedCount = COALESCE(p.usedCount, 0) + 1 " +
+           "WHERE p.id = :id AND (p.maxUses IS NULL OR COALESCE(p.usedCount, 0) < p.maxUses) " +
+           "AND (p.startDate IS NULL OR p.startDate <= :today) AND (p.endDate IS NULL OR p.endDate >= :today)")
+    int redeem(@Param("id") Integer id, @Param("today") LocalDate today);
+    
+    @Modifying
+    @Query("UPDATE Promotion p SET p.usedCount = p.usedCount - 1 WHERE p.id = :id AND p.usedCount > 0")
+    int release(@Param("id") Integer id);
 }
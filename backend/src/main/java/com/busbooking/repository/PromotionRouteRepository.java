@@ -0,0 +1,26 @@
+package com.busbooking.repository;
+
+import com.busbooking.model.PromotionRoute;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PromotionRouteRepository extends JpaRepository<PromotionRoute, Integer> {
+    
+    @Query("SELECT pr.route.id FROM PromotionRoute pr WHERE pr.promotion.id = :promotionId ORDER BY pr.route.id")
+    List<Integer> findRouteIdsByPromotionId(@Param("promotionId") Integer promotionId);
+    
+    // Mỗi phần tử: {promotionId, routeId}
+    @Query("SELECT pr.promotion.id, pr.route.id FROM PromotionRoute pr WHERE pr.promotion.id IN :promotionIds")
+    List<Object[]> findLinks(@Param("promotionIds") Collection<Integer> promotionIds);
+    
+    @Modifying
+    @Query("DELETE FROM PromotionRoute pr WHERE pr.promotion.id = :promotionId")
+    int deleteByPromotionId(@Param("promotionId") Integer promotionId);
+}
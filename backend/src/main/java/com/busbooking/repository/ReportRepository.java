@@ -0,0 +1,34 @@
+package com.busbooking.repository;
+
+import com.busbooking.dto.response.DailyReportResponse;
+import com.busbooking.dto.response.ReportResponse;
+import com.busbooking.model.Report;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ReportRepository extends JpaRepository<Report, Integer> {
+    
+    @Query("SELECT new com.busbooking.dto.response.ReportResponse(r.trip.id, r.reportType, r.value, r.reportDate) " +
+           "FROM Report r WHERE r.trip.id = :tripId ORDER BY r.reportDate, r.reportType")
+    List<ReportResponse> findByTripId(@Param("tripId") Integer tripId);
+    
+    @Query("SELECT new com.busbooking.dto.response.ReportResponse(r.trip.id, r.reportType, r.value, r.reportDate) " +
+           "FROM Report r WHERE r.reportDate BETWEEN :from AND :to AND r.reportType = :type " +
+           "ORDER BY r.reportDate, r.trip.id")
+    List<ReportResponse> findByDateRange(@Param("from") LocalDate from,
+                                         @Param("to") LocalDate to,
+                                         @Param("type") Report.ReportType type);
+    
+    @Query("SELECT new com.busbooking.dto.response.DailyReportResponse(r.reportDate, " +
+           "SUM(CASE WHEN r.reportType = com.busbooking.model.Report.ReportType.revenue THEN r.value ELSE 0 END), " +
+           "SUM(CASE WHEN r.reportType = com.busbooking.model.Report.ReportType.passenger_count THEN r.value ELSE 0 END)) " +
+           "FROM Report r WHERE r.reportDate BETWEEN :from AND :to " +
+           "GROUP BY r.reportDate ORDER BY r.reportDate")
+    List<DailyReportResponse> summarizeByDate(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -1,12 +1,18 @@
 package com.busbooking.repository;
 
 import com.busbooking.model.Seat;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 
 @Repository
 public interface SeatRepository extends JpaRepository<Seat, Integer> {
+    // Nạp vehicle bằng JOIN trong cùng câu SQL (tránh N+1 do quan hệ EAGER)
+    @Override
+    @EntityGraph(attributePaths = "vehicle")
+    List<Seat> findAll();
+    
     List<Seat> findByVehicleId(Integer vehicleId);
     List<Seat> findByVehicleIdAndStatus(Integer vehicleId, Seat.Status status);
 }
@@ -1,13 +1,49 @@
 package com.busbooking.repository;
 
+import com.busbooking.dto.response.PassengerTrip;
 import com.busbooking.model.Ticket;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface TicketRepository extends JpaRepository<Ticket, Integer> {
+    // Danh sách vé nạp kèm mọi quan hệ TicketMapper cần trong một câu SQL
+    @Override
+    @EntityGraph(attributePaths = {"user", "trip.route", "trip.vehicle", "trip.driver", "seat.vehicle", "promotion"})
+    List<Ticket> findAll();
+    
+    @EntityGraph(attributePaths = {"user", "trip.route", "trip.vehicle", "trip.driver", "seat.vehicle", "promotion"})
     List<Ticket> findByUserId(Integer userId);
+    
+    @EntityGraph(attributePaths = {"user", "trip.route", "trip.vehicle", "trip.driver", "seat.vehicle", "promotion"})
     List<Ticket> findByTripId(Integer tripId);
+    
     List<Ticket> findByStatus(Ticket.Status status);
+    
+    // Hành khách (vé chưa hủy) của các chuyến khởi hành trong khoảng thời gian
+    @Query("SELECT new com.busbooking.dto.response.PassengerTrip(" +
+           "t.user.id, tr.id, r.fromLocation, r.toLocation, tr.departureTime, s.seatNumber) " +
+           "FROM Ticket t JOIN t.trip tr JOIN tr.route r JOIN t.seat s " +
+           "WHERE tr.departureTime >= :from AND tr.departureTime < :to " +
+           "AND tr.status = 'scheduled' AND t.status <> 'cancelled'")
+    List<PassengerTrip> findPassengersDepartingBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    // Hành khách (vé chưa hủy) của các chuyến cho trước
+    @Query("SELECT new com.busbooking.dto.response.PassengerTrip(" +
+           "t.user.id, tr.id, r.fromLocation, r.toLocation, tr.departureTime, s.seatNumber) " +
+           "FROM Ticket t JOIN t.trip tr JOIN tr.route r JOIN t.seat s " +
+           "WHERE tr.id IN :tripIds AND t.status <> 'cancelled'")
+    List<PassengerTrip> findPassengersOfTrips(@Param("tripIds") Collection<Integer> tripIds);
+    
+    // Xác nhận vé nếu vẫn đang ở trạng thái booked (idempotent, không cần đọc trước)
+    @Modifying
+    @Query("UPDATE Ticket t SET t.status = 'confirmed' WHERE t.id = :id AND t.status = 'booked'")
+    int confirmIfBooked(@Param("id") Integer id);
 }
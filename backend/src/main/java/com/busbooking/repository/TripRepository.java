@@ -1,6 +1,7 @@
 package com.busbooking.repository;
 
 import com.busbooking.model.Trip;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -10,10 +11,30 @@ import java.util.List;
 
 @Repository
 public interface TripRepository extends JpaRepository<Trip, Integer> {
+    // Các truy vấn danh sách nạp route/vehicle/driver bằng JOIN trong cùng câu SQL (tránh N+1 do quan hệ EAGER)
+    @Override
+    @EntityGraph(attributePaths = {"route", "vehicle", "driver"})
+    List<Trip> findAll();
+    
+    @EntityGraph(attributePaths = {"route", "vehicle", "driver"})
     List<Trip> findByRouteId(Integer routeId);
+    
+    @EntityGraph(attributePaths = {"route", "vehicle", "driver"})
     List<Trip> findByStatus(Trip.Status status);
+    
+    @EntityGraph(attributePaths = {"route", "vehicle", "driver"})
     List<Trip> findByDepartureTimeBetween(LocalDateTime start, LocalDateTime end);
     
+    // Chuyến (kèm tuyến, xe, tài xế) và ghế (kèm xe) trong một câu SQL khi đặt vé; rỗng nếu thiếu một trong hai
+    @Query("SELECT t, s FROM Trip t JOIN FETCH t.route JOIN FETCH t.vehicle JOIN FETCH t.driver, " +
+           "Seat s JOIN FETCH s.vehicle WHERE t.id = :tripId AND s.id = :seatId")
+    List<Object[]> findTripWithSeat(@Param("tripId") Integer tripId, @Param("seatId") Integer seatId);
+    
+    // Số chuyến theo (tuyến, loại xe, xe còn hoạt động) cho trang lịch trình tuyến
+    @Query("SELECT t.route.id, v.vehicleType, v.isActive, COUNT(t) FROM Trip t JOIN t.vehicle v " +
+           "GROUP BY t.route.id, v.vehicleType, v.isActive")
+    List<Object[]> countTripsByRouteAndVehicleType();
+    
     // Tìm các chuyến xe của tài xế trong khoảng thời gian (kiểm tra xung đột lịch)
     @Query("SELECT t FROM Trip t WHERE t.driver.id = :driverId " +
            "AND t.status != 'cancelled' " +
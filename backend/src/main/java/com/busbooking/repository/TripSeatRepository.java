@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -16,9 +17,19 @@ public interface TripSeatRepository extends JpaRepository<TripSeat, Integer> {
     @Query("SELECT ts FROM TripSeat ts WHERE ts.trip.id = :tripId AND ts.status = 'available'")
     List<TripSeat> findAvailableSeatsByTripId(@Param("tripId") Integer tripId);
     
+    // Ghế admin khóa không phải ghế đã bán, không tính vào phụ thu theo nhu cầu
+    @Query("SELECT COUNT(ts) FROM TripSeat ts WHERE ts.trip.id = :tripId AND ts.status = 'booked'")
+    long countBookedSeatsByTripId(@Param("tripId") Integer tripId);
+    
     @Query("SELECT COUNT(ts) FROM TripSeat ts WHERE ts.trip.id = :tripId AND ts.status = 'available'")
     Long countAvailableSeatsByTripId(@Param("tripId") Integer tripId);
     
+    // Số ghế theo trạng thái và loại ghế của nhiều chuyến trong một truy vấn: [tripId, status, seatType, count],
+    // tổ hợp không có ghế không có dòng
+    @Query("SELECT ts.trip.id, ts.status, ts.seatType, COUNT(ts) FROM TripSeat ts WHERE ts.trip.id IN :tripIds " +
+           "GROUP BY ts.trip.id, ts.status, ts.seatType")
+    List<Object[]> countSeatsByTripIdsStatusAndType(@Param("tripIds") Collection<Integer> tripIds);
+    
     @Query("SELECT ts FROM TripSeat ts WHERE ts.trip.id = :tripId AND ts.seatNumber = :seatNumber")
     TripSeat findByTripIdAndSeatNumber(@Param("tripId") Integer tripId, @Param("seatNumber") String seatNumber);
 }
@@ -0,0 +1,59 @@
+package com.busbooking.security;
+
+import com.busbooking.dto.request.PaymentCallbackRequest;
+import com.busbooking.exception.InvalidSignatureException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+/**
+ * Chữ ký HMAC-SHA256 của callback thanh toán, cổng gửi trong header X-Payment-Signature (hex).
+ * Nội dung ký: paymentId|transactionId|status|amount (amount dạng số thập phân rút gọn, ví dụ 150000).
+ * Chưa cấu hình app.payment.callback-secret thì mọi callback đều bị từ chối.
+ */
+@Component
+public class PaymentCallbackSigner {
+
+    public static final String HEADER = "X-Payment-Signature";
+
+    @Value("${app.payment.callback-secret:}")
+    private String secret;
+
+    public String sign(PaymentCallbackRequest callback) {
+        if (secret.isBlank()) {
+            throw new InvalidSignatureException("Chưa cấu hình app.payment.callback-secret");
+        }
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return HexFormat.of().formatHex(mac.doFinal(payload(callback).getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Không tạo được chữ ký HMAC", e);
+        }
+    }
+
+    /**
+     * Ném InvalidSignatureException (401) nếu thiếu chữ ký hoặc chữ ký không khớp
+     */
+    public void verify(PaymentCallbackRequest callback, String signature) {
+        if (signature == null || signature.isBlank()) {
+            throw new InvalidSignatureException("Thiếu chữ ký callback");
+        }
+        byte[] expected = sign(callback).getBytes(StandardCharsets.US_ASCII);
+        byte[] actual = signature.trim().toLowerCase().getBytes(StandardCharsets.US_ASCII);
+        if (!MessageDigest.isEqual(expected, actual)) {
+            throw new InvalidSignatureException("Chữ ký callback không hợp lệ");
+        }
+    }
+
+    private String payload(PaymentCallbackRequest callback) {
+        return callback.getPaymentId() + "|" + callback.getTransactionId() + "|" + callback.getStatus() + "|"
+                + callback.getAmount().stripTrailingZeros().toPlainString();
+    }
+}
@@ -0,0 +1,299 @@
+package com.busbooking.service;
+
+import com.busbooking.dto.response.AnalyticsResponse;
+import com.busbooking.model.Vehicle;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+/**
+ * Cube phân tích doanh thu và hệ số lấp đầy ghế, lưu dạng cột mảng nguyên thủy trong bộ nhớ.
+ * - Cột vé: routeId, ngày khởi hành (epoch day), loại xe (ordinal), giá (VND nguyên, cùng đơn vị với PricingEngine)
+ * - Cột chuyến: routeId, ngày, loại xe, số ghế (mẫu số của load factor). Hai cột cùng bỏ chuyến đã hủy
+ *   để vé của chuyến hủy không bị tính vào doanh thu và tử số load factor khi mẫu số không có chuyến đó
+ * - Snapshot bất biến, dựng lại định kỳ từ DB và thay thế nguyên khối; truy vấn không chạm DB
+ * - Lượt dựng định kỳ chạy trên thread riêng analytics-cube: đọc hai năm dữ liệu có thể mất nhiều giây
+ *   và không được chiếm thread scheduler dùng chung của các tác vụ @Scheduled khác
+ * - Lọc và group-by chạy song song theo từng đoạn cột, mỗi đoạn gộp vào map riêng rồi merge
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AnalyticsCube {
+
+    private static final String TICKET_FACTS_SQL =
+            "SELECT t.route_id, DATEDIFF(t.departure_time, '1970-01-01'), v.vehicle_type, ROUND(tk.price) " +
+            "FROM tickets tk JOIN trips t ON t.id = tk.trip_id JOIN vehicles v ON v.id = t.vehicle_id " +
+            "WHERE tk.status <> 'cancelled' AND t.status <> 'cancelled' AND t.departure_time >= ?";
+
+    private static final String TRIP_FACTS_SQL =
+            "SELECT t.route_id, DATEDIFF(t.departure_time, '1970-01-01'), v.vehicle_type, v.total_seats " +
+            "FROM trips t JOIN vehicles v ON v.id = t.vehicle_id " +
+            "WHERE t.status <> 'cancelled' AND t.departure_time >= ?";
+
+    private static final int CHUNK_SIZE = 1 << 16;
+    private static final byte UNKNOWN_TYPE = -1;
+    private static final Vehicle.VehicleType[] VEHICLE_TYPES = Vehicle.VehicleType.values();
+
+    private final DataSource dataSource;
+
+    @Value("${app.analytics.history-days:730}")
+    private int historyDays;
+
+    private volatile Snapshot snapshot;
+
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private ExecutorService executor;
+
+    /**
+     * Chiều có thể group-by
+     */
+    public enum Dimension {
+        route, day, vehicle_type
+    }
+
+    @PostConstruct
+    public void init() {
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "analytics-cube");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Chỉ giao lượt dựng lại cho thread analytics-cube rồi trả lại thread scheduler ngay; lượt trước chưa xong
+     * thì bỏ qua. Truy vấn vẫn dùng snapshot cũ cho tới khi snapshot mới thay thế.
+     */
+    @Scheduled(fixedDelayString = "${app.analytics.refresh-interval-ms:300000}")
+    public void scheduledRefresh() {
+        if (!refreshing.compareAndSet(false, true)) {
+            log.warn("Previous analytics cube rebuild still running, skipping");
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                refresh();
+            } catch (Exception e) {
+                log.error("Analytics cube rebuild failed", e);
+            } finally {
+                refreshing.set(false);
+            }
+        });
+    }
+
+    public synchronized int refresh() {
+        long started = System.nanoTime();
+        LocalDateTime since = LocalDate.now().minusDays(historyDays).atStartOfDay();
+
+        // Đọc streaming (fetch size MIN_VALUE với MySQL) để không giữ toàn bộ ResultSet trong bộ nhớ
+        JdbcTemplate streaming = new JdbcTemplate(dataSource);
+        streaming.setFetchSize(Integer.MIN_VALUE);
+
+        Columns tickets = new Columns();
+        streaming.query(TICKET_FACTS_SQL, rs -> {
+            tickets.add(rs.getInt(1), rs.getInt(2), vehicleType(rs.getString(3)), rs.getLong(4));
+        }, since);
+
+        Columns trips = new Columns();
+        streaming.query(TRIP_FACTS_SQL, rs -> {
+            trips.add(rs.getInt(1), rs.getInt(2), vehicleType(rs.getString(3)), rs.getLong(4));
+        }, since);
+
+        snapshot = new Snapshot(tickets.trim(), trips.trim(), LocalDateTime.now());
+        log.info("Analytics cube rebuilt: {} tickets, {} trips in {} ms",
+                tickets.size, trips.size, (System.nanoTime() - started) / 1_000_000);
+        return tickets.size;
+    }
+
+    /**
+     * Doanh thu, số vé và load factor trong [from, to], lọc tùy chọn theo tuyến và loại xe
+     */
+    public List<AnalyticsResponse> query(LocalDate from, LocalDate to, Integer routeId,
+                                         Vehicle.VehicleType vehicleType, Collection<Dimension> groupBy) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Ngày kết thúc phải sau ngày bắt đầu");
+        }
+        Snapshot current = snapshot;
+        if (current == null) {
+            refresh();
+            current = snapshot;
+        }
+
+        Set<Dimension> dimensions = EnumSet.noneOf(Dimension.class);
+        if (groupBy != null) {
+            groupBy.stream().filter(Objects::nonNull).forEach(dimensions::add);
+        }
+        Filter filter = new Filter((int) from.toEpochDay(), (int) to.toEpochDay(),
+                routeId, vehicleType != null ? (byte) vehicleType.ordinal() : null, dimensions);
+
+        // long[]: {doanh thu, số vé, số ghế}
+        Map<Long, long[]> groups = merge(aggregate(current.tickets(), filter, 0), aggregate(current.trips(), filter, 2));
+
+        List<AnalyticsResponse> rows = new ArrayList<>(groups.size());
+        groups.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> rows.add(toResponse(entry.getKey(), entry.getValue(), filter.groupBy())));
+        return rows;
+    }
+
+    public LocalDateTime getBuiltAt() {
+        Snapshot current = snapshot;
+        return current != null ? current.builtAt() : null;
+    }
+
+    /**
+     * Gộp song song một bộ cột. Với cột vé: value cộng vào doanh thu và đếm số vé;
+     * với cột chuyến: value là số ghế.
+     */
+    private Map<Long, long[]> aggregate(Columns columns, Filter filter, int slot) {
+        int chunks = (columns.size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        return IntStream.range(0, chunks).parallel()
+                .mapToObj(chunk -> {
+                    Map<Long, long[]> local = new HashMap<>();
+                    int end = Math.min(columns.size, (chunk + 1) * CHUNK_SIZE);
+                    for (int i = chunk * CHUNK_SIZE; i < end; i++) {
+                        if (!filter.matches(columns.routeIds[i], columns.days[i], columns.vehicleTypes[i])) {
+                            continue;
+                        }
+                        long[] sums = local.computeIfAbsent(
+                                key(columns.routeIds[i], columns.days[i], columns.vehicleTypes[i], filter.groupBy()),
+                                k -> new long[3]);
+                        if (slot == 0) {
+                            sums[0] += columns.values[i];
+                            sums[1]++;
+                        } else {
+                            sums[slot] += columns.values[i];
+                        }
+                    }
+                    return local;
+                })
+                .reduce(this::merge)
+                .orElseGet(HashMap::new);
+    }
+
+    private Map<Long, long[]> merge(Map<Long, long[]> left, Map<Long, long[]> right) {
+        Map<Long, long[]> target = left.size() >= right.size() ? left : right;
+        Map<Long, long[]> source = target == left ? right : left;
+        source.forEach((key, sums) -> target.merge(key, sums, (a, b) -> {
+            a[0] += b[0];
+            a[1] += b[1];
+            a[2] += b[2];
+            return a;
+        }));
+        return target;
+    }
+
+    /**
+     * Khóa nhóm: 32 bit cao là routeId, 24 bit tiếp là ngày, 8 bit thấp là loại xe.
+     * Chiều không group-by được đặt 0.
+     */
+    private long key(int routeId, int day, byte vehicleType, Set<Dimension> groupBy) {
+        long key = 0;
+        if (groupBy.contains(Dimension.route)) {
+            key |= (long) routeId << 32;
+        }
+        if (groupBy.contains(Dimension.day)) {
+            key |= (long) (day & 0xFFFFFF) << 8;
+        }
+        if (groupBy.contains(Dimension.vehicle_type)) {
+            key |= vehicleType & 0xFF;
+        }
+        return key;
+    }
+
+    private AnalyticsResponse toResponse(long key, long[] sums, Set<Dimension> groupBy) {
+        Integer routeId = groupBy.contains(Dimension.route) ? (int) (key >>> 32) : null;
+        LocalDate day = groupBy.contains(Dimension.day) ? LocalDate.ofEpochDay((key >>> 8) & 0xFFFFFF) : null;
+        String vehicleType = null;
+        if (groupBy.contains(Dimension.vehicle_type)) {
+            byte type = (byte) key;
+            vehicleType = type == UNKNOWN_TYPE ? "unknown" : VEHICLE_TYPES[type].name();
+        }
+        Double loadFactor = sums[2] > 0 ? (double) sums[1] / sums[2] : null;
+        return new AnalyticsResponse(routeId, day, vehicleType, PricingEngine.toAmount(sums[0]), sums[1], sums[2], loadFactor);
+    }
+
+    private byte vehicleType(String value) {
+        if (value == null) {
+            return UNKNOWN_TYPE;
+        }
+        try {
+            return (byte) Vehicle.VehicleType.valueOf(value).ordinal();
+        } catch (IllegalArgumentException e) {
+            return UNKNOWN_TYPE;
+        }
+    }
+
+    private record Snapshot(Columns tickets, Columns trips, LocalDateTime builtAt) {
+    }
+
+    private record Filter(int fromDay, int toDay, Integer routeId, Byte vehicleType, Set<Dimension> groupBy) {
+        private boolean matches(int route, int day, byte type) {
+            return day >= fromDay && day <= toDay
+                    && (routeId == null || routeId == route)
+                    && (vehicleType == null || vehicleType == type);
+        }
+    }
+
+    /**
+     * Các cột mảng nguyên thủy, tăng kích thước khi dựng và không đổi sau trim()
+     */
+    private static final class Columns {
+        private int[] routeIds = new int[1024];
+        private int[] days = new int[1024];
+        private byte[] vehicleTypes = new byte[1024];
+        private long[] values = new long[1024];
+        private int size;
+
+        private void add(int routeId, int day, byte vehicleType, long value) {
+            if (size == routeIds.length) {
+                int capacity = size * 2;
+                routeIds = Arrays.copyOf(routeIds, capacity);
+                days = Arrays.copyOf(days, capacity);
+                vehicleTypes = Arrays.copyOf(vehicleTypes, capacity);
+                values = Arrays.copyOf(values, capacity);
+            }
+            routeIds[size] = routeId;
+            days[size] = day;
+            vehicleTypes[size] = vehicleType;
+            values[size] = value;
+            size++;
+        }
+
+        private Columns trim() {
+            routeIds = Arrays.copyOf(routeIds, size);
+            days = Arrays.copyOf(days, size);
+            vehicleTypes = Arrays.copyOf(vehicleTypes, size);
+            values = Arrays.copyOf(values, size);
+            return this;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.busbooking.service;
+
+import com.busbooking.model.OutboxEvent;
+
+/**
+ * Xử lý tác vụ phụ sau khi đặt vé (thông báo, hóa đơn, báo cáo...).
+ * Được OutboxRelay gọi bất đồng bộ, ngoài transaction đặt vé; ném exception để được thử lại.
+ * Handler phải idempotent vì một sự kiện có thể được giao nhiều lần.
+ */
+public interface BookingEventHandler {
+    
+    boolean supports(String eventType);
+    
+    void handle(OutboxEvent event) throws Exception;
+}
@@ -1,33 +1,55 @@
 package com.busbooking.service;
 
 import com.cloudinary.Cloudinary;
+import com.cloudinary.api.ApiResponse;
+import com.cloudinary.api.RateLimit;
 import com.cloudinary.utils.ObjectUtils;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @Service
+@ConditionalOnProperty(name = "app.image-storage.type", havingValue = "cloudinary", matchIfMissing = true)
 @RequiredArgsConstructor
-public class CloudinaryService {
+@Slf4j
+public class CloudinaryService implements ImageStorage {
+
+    // Ảnh giao qua res.cloudinary.com: public_id nằm sau /upload/ và version (nếu có), bỏ phần mở rộng
+    private static final Pattern DELIVERY_URL = Pattern.compile("https?://res\\.cloudinary\\.com/[^/]+/image/upload/(?:v\\d+/)?(.+?)(?:\\.[A-Za-z0-9]+)?");
+    private static final int LIST_PAGE_SIZE = 500;
+    private static final int DELETE_BATCH_SIZE = 100;
+    // Chừa lại quota Admin API cho thao tác quản trị khác
+    private static final long MIN_REMAINING_CALLS = 50;
 
     private final Cloudinary cloudinary;
 
     /**
-     * Upload image to Cloudinary
-     * @param file MultipartFile to upload
+     * Upload image to Cloudinary (SDK đọc thẳng từ file, không nạp cả ảnh vào heap)
+     * @param image Image file to upload
      * @param folder Folder name in Cloudinary (e.g., "drivers", "vehicles")
      * @return URL of uploaded image
      */
-    public String uploadImage(MultipartFile file, String folder) throws IOException {
+    @Override
+    public String store(Path image, String folder) throws IOException {
         // Generate unique filename
         String publicId = folder + "/" + UUID.randomUUID().toString();
 
         // Upload to Cloudinary
-        Map uploadResult = cloudinary.uploader().upload(file.getBytes(),
+        Map uploadResult = cloudinary.uploader().upload(image.toFile(),
                 ObjectUtils.asMap(
                         "public_id", publicId,
                         "folder", folder,
@@ -42,59 +64,96 @@ public class CloudinaryService {
      * Delete image from Cloudinary
      * @param imageUrl URL of image to delete
      */
-    public void deleteImage(String imageUrl) throws IOException {
-        if (imageUrl == null || imageUrl.isEmpty()) {
+    @Override
+    public void delete(String imageUrl) throws IOException {
+        String publicId = keyOf(imageUrl);
+        if (publicId == null) {
             return;
         }
 
         try {
-            // Extract public_id from URL
-            // URL format: https://res.cloudinary.com/{cloud_name}/image/upload/{version}/{public_id}.{format}
-            String publicId = extractPublicIdFromUrl(imageUrl);
-            if (publicId != null) {
-                cloudinary.uploader().destroy(publicId, ObjectUtils.emptyMap());
-            }
+            cloudinary.uploader().destroy(publicId, ObjectUtils.emptyMap());
         } catch (Exception e) {
             // Log error but don't throw exception
-            System.err.println("Error deleting image from Cloudinary: " + e.getMessage());
+            log.warn("Error deleting image from Cloudinary: {}", imageUrl, e);
         }
     }
 
     /**
      * Extract public_id from Cloudinary URL
+     * URL format: https://res.cloudinary.com/{cloud_name}/image/upload/[v{version}/]{public_id}.{format}
      */
-    private String extractPublicIdFromUrl(String imageUrl) {
-        try {
-            // Split URL by "upload/"
-            String[] parts = imageUrl.split("/upload/");
-            if (parts.length < 2) {
-                return null;
-            }
-
-            // Get the part after "upload/" and remove version
-            String pathWithVersion = parts[1];
-            String[] pathParts = pathWithVersion.split("/");
+    @Override
+    public String keyOf(String imageUrl) {
+        if (imageUrl == null) {
+            return null;
+        }
+        Matcher matcher = DELIVERY_URL.matcher(imageUrl);
+        return matcher.matches() ? matcher.group(1) : null;
+    }
 
-            // Skip version (v1234567890) and get the rest
-            StringBuilder publicId = new StringBuilder();
-            for (int i = 1; i < pathParts.length; i++) {
-                if (i > 1) {
-                    publicId.append("/");
+    /**
+     * List images by folder prefix through the Admin API (max 500 per page, follows next_cursor)
+     */
+    @Override
+    public List<StoredImage> list(Collection<String> folders) throws IOException {
+        List<StoredImage> images = new ArrayList<>();
+        for (String folder : folders) {
+            String cursor = null;
+            do {
+                Map<String, Object> options = new HashMap<>();
+                options.put("type", "upload");
+                options.put("resource_type", "image");
+                options.put("prefix", folder + "/");
+                options.put("max_results", LIST_PAGE_SIZE);
+                if (cursor != null) {
+                    options.put("next_cursor", cursor);
                 }
-                publicId.append(pathParts[i]);
-            }
+                ApiResponse page = callAdminApi(() -> cloudinary.api().resources(options));
+                for (Object resource : (List<?>) page.get("resources")) {
+                    Map<?, ?> item = (Map<?, ?>) resource;
+                    images.add(new StoredImage((String) item.get("public_id"), Instant.parse((String) item.get("created_at"))));
+                }
+                cursor = (String) page.get("next_cursor");
+            } while (cursor != null);
+        }
+        return images;
+    }
 
-            // Remove file extension
-            String result = publicId.toString();
-            int lastDotIndex = result.lastIndexOf(".");
-            if (lastDotIndex > 0) {
-                result = result.substring(0, lastDotIndex);
-            }
+    /**
+     * Delete up to 100 images per Admin API call
+     */
+    @Override
+    public void deleteBatch(List<String> keys) throws IOException {
+        for (int from = 0; from < keys.size(); from += DELETE_BATCH_SIZE) {
+            List<String> batch = keys.subList(from, Math.min(keys.size(), from + DELETE_BATCH_SIZE));
+            callAdminApi(() -> cloudinary.api().deleteResources(batch, ObjectUtils.emptyMap()));
+        }
+    }
 
-            return result;
+    private ApiResponse callAdminApi(AdminCall call) throws IOException {
+        ApiResponse response;
+        try {
+            response = call.execute();
+        } catch (IOException e) {
+            throw e;
         } catch (Exception e) {
-            System.err.println("Error extracting public_id from URL: " + e.getMessage());
-            return null;
+            throw new IOException("Cloudinary Admin API call failed: " + e.getMessage(), e);
+        }
+        try {
+            RateLimit rateLimit = response.apiRateLimit();
+            if (rateLimit != null && rateLimit.getRemaining() < MIN_REMAINING_CALLS) {
+                throw new IOException("Cloudinary Admin API rate limit nearly exhausted, remaining "
+                        + rateLimit.getRemaining() + " until " + rateLimit.getReset());
+            }
+        } catch (ParseException e) {
+            log.debug("Could not read Cloudinary rate limit headers", e);
         }
+        return response;
+    }
+
+    @FunctionalInterface
+    private interface AdminCall {
+        ApiResponse execute() throws Exception;
     }
 }
@@ -0,0 +1,211 @@
+package com.busbooking.service;
+
+import com.busbooking.model.Trip;
+import com.busbooking.model.Vehicle;
+import com.busbooking.repository.TripSeatRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Phụ thu theo nhu cầu: tỉ lệ ghế đã đặt (ghế admin khóa không tính) và thời gian còn lại tới giờ khởi hành.
+ * - Đường giá cấu hình theo dải (band), mặc định chung và ghi đè được theo tuyến:
+ *   app.pricing.dynamic.occupancy-bands=50:5,70:10      (từ 50% ghế đã bán: +5%, từ 70%: +10%)
+ *   app.pricing.dynamic.lead-time-bands=24:5,6:15       (còn dưới 24 giờ: +5%, dưới 6 giờ: +15%)
+ *   app.pricing.dynamic.routes.{routeId}.occupancy-bands / lead-time-bands
+ * - Số ghế đã bán luôn đếm từ trip_seats (caller truyền số đã đọc sẵn, hoặc một truy vấn đếm),
+ *   không giữ trong bộ nhớ, để mọi instance hiển thị và thu cùng một giá
+ * - Bảng giá (theo loại ghế) của chuyến được cache theo dải, chỉ tính lại khi chuyến sang dải khác
+ * - Metrics: cache.gets{cache=trip-price-table, result=hit|miss}, cache.size{cache=trip-price-table}
+ */
+@Service
+@RequiredArgsConstructor
+public class DynamicPricingService {
+
+    private final TripSeatRepository tripSeatRepository;
+    private final PricingEngine pricingEngine;
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.pricing.weekend-surcharge-percent:0}")
+    private BigDecimal weekendSurchargePercent;
+
+    @Value("${app.pricing.dynamic.occupancy-bands:}")
+    private String defaultOccupancyBands;
+
+    @Value("${app.pricing.dynamic.lead-time-bands:}")
+    private String defaultLeadTimeBands;
+
+    private final Map<Integer, CachedTable> tableByTrip = new ConcurrentHashMap<>();
+    private final Map<Integer, Curves> curvesByRoute = new ConcurrentHashMap<>();
+
+    private Counter tableHits;
+    private Counter tableMisses;
+
+    @PostConstruct
+    public void registerMetrics() {
+        tableHits = meterRegistry.counter("cache.gets", "cache", "trip-price-table", "result", "hit");
+        tableMisses = meterRegistry.counter("cache.gets", "cache", "trip-price-table", "result", "miss");
+        meterRegistry.gaugeMapSize("cache.size", Tags.of("cache", "trip-price-table"), tableByTrip);
+    }
+
+    /**
+     * Bảng giá chưa áp khuyến mãi của chuyến với số ghế đã bán caller đã đếm từ trip_seats
+     * (lấy từ cache nếu chuyến vẫn ở dải cũ)
+     */
+    public PricingEngine.PriceTable priceTable(Trip trip, int occupiedSeats) {
+        Curves curves = curvesFor(trip.getRoute().getId());
+        int occupancyBand = curves.occupancy().bandOf(occupancyPercent(trip, occupiedSeats));
+        int leadBand = curves.leadTime().bandOf(hoursToDeparture(trip));
+        long basePrice = PricingEngine.toMinor(trip.getRoute().getBasePrice());
+
+        CachedTable current = tableByTrip.get(trip.getId());
+        if (current != null && current.matches(occupancyBand, leadBand, basePrice, trip)) {
+            tableHits.increment();
+            return current.table();
+        }
+        tableMisses.increment();
+        int demandBps = weekendBps(trip) + curves.occupancy().surchargeAt(occupancyBand)
+                + curves.leadTime().surchargeAt(leadBand);
+        PricingEngine.PriceTable table = pricingEngine.priceTable(basePrice, trip.getVehicle().getVehicleType(),
+                demandBps, PricingEngine.Discount.NONE);
+        tableByTrip.put(trip.getId(), new CachedTable(occupancyBand, leadBand, basePrice,
+                trip.getVehicle().getVehicleType(), trip.getDepartureTime(), table));
+        return table;
+    }
+
+    /**
+     * Tổng phụ thu nhu cầu hiện tại của chuyến (basis point); đếm ghế đã bán bằng một truy vấn
+     */
+    public int demandSurchargeBps(Trip trip) {
+        return demandSurchargeBps(trip, (int) tripSeatRepository.countBookedSeatsByTripId(trip.getId()));
+    }
+
+    /**
+     * Như demandSurchargeBps(trip) với số ghế đã bán caller đã đếm từ trip_seats
+     */
+    public int demandSurchargeBps(Trip trip, int occupiedSeats) {
+        Curves curves = curvesFor(trip.getRoute().getId());
+        return weekendBps(trip)
+                + curves.occupancy().surchargeAt(curves.occupancy().bandOf(occupancyPercent(trip, occupiedSeats)))
+                + curves.leadTime().surchargeAt(curves.leadTime().bandOf(hoursToDeparture(trip)));
+    }
+
+    /**
+     * Bỏ bảng giá của các chuyến đã khởi hành và đọc lại đường giá từ cấu hình
+     */
+    @Scheduled(fixedDelayString = "${app.pricing.dynamic.cleanup-interval-ms:600000}")
+    public void cleanup() {
+        LocalDateTime now = LocalDateTime.now();
+        tableByTrip.values().removeIf(table -> table.departureTime() != null && table.departureTime().isBefore(now));
+        curvesByRoute.clear();
+    }
+
+    private Curves curvesFor(Integer routeId) {
+        return curvesByRoute.computeIfAbsent(routeId, id -> new Curves(
+                BandCurve.parse(environment.getProperty("app.pricing.dynamic.routes." + id + ".occupancy-bands",
+                        defaultOccupancyBands), true),
+                BandCurve.parse(environment.getProperty("app.pricing.dynamic.routes." + id + ".lead-time-bands",
+                        defaultLeadTimeBands), false)));
+    }
+
+    private int weekendBps(Trip trip) {
+        if (trip.getDepartureTime() == null) {
+            return 0;
+        }
+        DayOfWeek day = trip.getDepartureTime().getDayOfWeek();
+        boolean weekend = day == DayOfWeek.FRIDAY || day == DayOfWeek.SATURDAY || day == DayOfWeek.SUNDAY;
+        return weekend ? (int) PricingEngine.toBasisPoints(weekendSurchargePercent) : 0;
+    }
+
+    private int occupancyPercent(Trip trip, int occupied) {
+        Integer totalSeats = trip.getVehicle().getTotalSeats();
+        return totalSeats == null || totalSeats <= 0 ? 0 : occupied * 100 / totalSeats;
+    }
+
+    private long hoursToDeparture(Trip trip) {
+        if (trip.getDepartureTime() == null) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, Duration.between(LocalDateTime.now(), trip.getDepartureTime()).toHours());
+    }
+
+    /**
+     * Bảng giá đã tính cho một chuyến ở dải hiện tại
+     */
+    private record CachedTable(int occupancyBand, int leadBand, long basePrice,
+                               Vehicle.VehicleType vehicleType,
+                               LocalDateTime departureTime, PricingEngine.PriceTable table) {
+
+        private boolean matches(int occupancyBand, int leadBand, long basePrice, Trip trip) {
+            return this.occupancyBand == occupancyBand && this.leadBand == leadBand && this.basePrice == basePrice
+                    && vehicleType == trip.getVehicle().getVehicleType()
+                    && Objects.equals(departureTime, trip.getDepartureTime());
+        }
+    }
+
+    private record Curves(BandCurve occupancy, BandCurve leadTime) {
+    }
+
+    /**
+     * Đường giá dạng bậc thang "ngưỡng:phần trăm,...".
+     * ascending = true: dải là ngưỡng lớn nhất <= giá trị (tỉ lệ lấp đầy);
+     * ascending = false: dải là ngưỡng nhỏ nhất >= giá trị (số giờ trước khởi hành).
+     * Dải 0 là "chưa tới ngưỡng nào", không phụ thu.
+     */
+    private record BandCurve(long[] thresholds, int[] surchargeBps, boolean ascending) {
+
+        private static BandCurve parse(String spec, boolean ascending) {
+            List<long[]> bands = new ArrayList<>();
+            if (spec != null && !spec.isBlank()) {
+                for (String part : spec.split(",")) {
+                    String[] pair = part.trim().split(":");
+                    if (pair.length != 2) {
+                        throw new IllegalArgumentException("Cấu hình dải giá không hợp lệ: " + spec);
+                    }
+                    bands.add(new long[]{Long.parseLong(pair[0].trim()),
+                            PricingEngine.toBasisPoints(new BigDecimal(pair[1].trim()))});
+                }
+            }
+            bands.sort((a, b) -> ascending ? Long.compare(a[0], b[0]) : Long.compare(b[0], a[0]));
+            long[] thresholds = new long[bands.size()];
+            int[] surcharges = new int[bands.size() + 1];
+            for (int i = 0; i < bands.size(); i++) {
+                thresholds[i] = bands.get(i)[0];
+                surcharges[i + 1] = (int) bands.get(i)[1];
+            }
+            return new BandCurve(thresholds, surcharges, ascending);
+        }
+
+        private int bandOf(long value) {
+            int band = 0;
+            for (int i = 0; i < thresholds.length; i++) {
+                boolean reached = ascending ? value >= thresholds[i] : value <= thresholds[i];
+                if (reached) {
+                    band = i + 1;
+                }
+            }
+            return band;
+        }
+
+        private int surchargeAt(int band) {
+            return surchargeBps[band];
+        }
+    }
+}
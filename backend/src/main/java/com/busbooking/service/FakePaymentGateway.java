@@ -0,0 +1,58 @@
+package com.busbooking.service;
+
+import com.busbooking.dto.request.PaymentCallbackRequest;
+import com.busbooking.dto.response.PaymentResponse;
+import com.busbooking.model.Payment;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Cổng thanh toán giả lập cho môi trường local/test (app.payment.fake-gateway.enabled=true, bật trong profile dev).
+ * Chỉ nhận thanh toán chuyển khoản để không che các cổng thật của VNPay/Momo.
+ * Có thể bắn nhiều callback trùng cùng lúc để kiểm tra tính idempotent của PaymentService.
+ */
+@Component
+@ConditionalOnProperty(name = "app.payment.fake-gateway.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class FakePaymentGateway implements PaymentGateway {
+    
+    private final PaymentService paymentService;
+    
+    @Override
+    public boolean supports(Payment.Method method) {
+        return method == Payment.Method.bank_transfer;
+    }
+    
+    @Override
+    public String initiate(Payment payment) {
+        return "fake-gateway://pay/" + payment.getId();
+    }
+    
+    /**
+     * Giả lập cổng gửi callback cho một thanh toán, lặp lại duplicates lần song song với cùng transactionId
+     */
+    public List<PaymentResponse> simulateCallback(PaymentResponse payment, boolean success, int duplicates) {
+        PaymentCallbackRequest callback = new PaymentCallbackRequest(
+                payment.getId(),
+                "FAKE" + UUID.randomUUID().toString().replace("-", "").substring(0, 16).toUpperCase(),
+                success ? "completed" : "failed",
+                payment.getAmount()
+        );
+        
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<CompletableFuture<PaymentResponse>> results = new ArrayList<>();
+            for (int i = 0; i < Math.max(1, duplicates); i++) {
+                results.add(CompletableFuture.supplyAsync(() -> paymentService.handleCallback(callback), executor));
+            }
+            return results.stream().map(CompletableFuture::join).toList();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.busbooking.service;
+
+import com.busbooking.repository.DriverRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Dọn ảnh mồ côi: so các ảnh trong storage (folder app.image-cleanup.folders) với ảnh đang được tham chiếu
+ * (Driver.imageUrl), xóa phần còn lại theo lô, nghỉ giữa các lô để không vượt giới hạn API của storage.
+ * - Ảnh mới hơn min-age-hours được giữ lại: có thể vừa upload xong và chưa được lưu vào tài xế
+ * - dry-run (mặc định bật) chỉ ghi log số ảnh sẽ xóa; tắt khi storage chỉ dùng riêng cho database này
+ * - Chạy trên thread riêng: lượt dọn có thể kéo dài nhiều phút (nghỉ giữa các lô) mà không chiếm
+ *   thread scheduler dùng chung của các tác vụ @Scheduled khác
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ImageCleanupService {
+    
+    private final ImageStorage imageStorage;
+    private final DriverRepository driverRepository;
+    
+    @Value("${app.image-cleanup.folders:drivers}")
+    private List<String> folders;
+    
+    @Value("${app.image-cleanup.min-age-hours:24}")
+    private long minAgeHours;
+    
+    @Value("${app.image-cleanup.batch-size:100}")
+    private int batchSize;
+    
+    @Value("${app.image-cleanup.batch-interval-ms:1000}")
+    private long batchIntervalMs;
+    
+    @Value("${app.image-cleanup.dry-run:true}")
+    private boolean dryRun;
+    
+    private final AtomicBoolean running = new AtomicBoolean();
+    private ExecutorService executor;
+    
+    @PostConstruct
+    public void init() {
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "image-cleanup");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        // Ngắt lượt đang nghỉ giữa các lô; lượt sau làm tiếp phần còn lại
+        executor.shutdownNow();
+    }
+    
+    /**
+     * Chỉ giao lượt dọn cho thread image-cleanup rồi trả lại thread scheduler ngay; lượt trước chưa xong thì bỏ qua
+     */
+    @Scheduled(cron = "${app.image-cleanup.cron:0 30 3 * * *}")
+    public void reconcile() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Previous image cleanup still running, skipping");
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                cleanup();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.error("Image cleanup failed", e);
+            } finally {
+                running.set(false);
+            }
+        });
+    }
+    
+    /**
+     * Chạy một lượt dọn; trả về số ảnh mồ côi đã xóa (hoặc sẽ xóa nếu dry-run)
+     */
+    public int cleanup() throws IOException, InterruptedException {
+        // Đọc tham chiếu trước khi liệt kê storage: ảnh upload sau thời điểm này còn quá mới để bị xóa
+        Set<String> referenced = new HashSet<>();
+        driverRepository.findAllImageUrls().stream()
+                .map(imageStorage::keyOf)
+                .filter(Objects::nonNull)
+                .forEach(referenced::add);
+        
+        Instant cutoff = Instant.now().minus(Duration.ofHours(minAgeHours));
+        List<ImageStorage.StoredImage> stored = imageStorage.list(folders);
+        List<String> orphans = stored.stream()
+                .filter(image -> image.createdAt().isBefore(cutoff))
+                .map(ImageStorage.StoredImage::key)
+                .filter(key -> !referenced.contains(key))
+                .toList();
+        
+        if (dryRun) {
+            log.info("Image cleanup (dry-run): {} stored, {} referenced, {} orphans would be deleted, e.g. {}",
+                    stored.size(), referenced.size(), orphans.size(), orphans.subList(0, Math.min(10, orphans.size())));
+            return orphans.size();
+        }
+        
+        for (int from = 0; from < orphans.size(); from += batchSize) {
+            if (from > 0) {
+                Thread.sleep(batchIntervalMs);
+            }
+            imageStorage.deleteBatch(orphans.subList(from, Math.min(orphans.size(), from + batchSize)));
+        }
+        log.info("Image cleanup: {} stored, {} referenced, {} orphans deleted", stored.size(), referenced.size(), orphans.size());
+        return orphans.size();
+    }
+}
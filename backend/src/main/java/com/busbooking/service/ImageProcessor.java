@@ -0,0 +1,130 @@
+package com.busbooking.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+
+/**
+ * Chuẩn hóa ảnh trước khi upload: JPEG RGB (bỏ kênh alpha và metadata), cạnh dài nhất không quá
+ * app.upload.max-dimension.<folder> (mặc định app.upload.max-dimension).
+ * Ảnh lớn được giải mã với subsampling nên không bao giờ giữ bitmap gốc đầy đủ trong heap.
+ */
+@Service
+@RequiredArgsConstructor
+public class ImageProcessor {
+    
+    private final Environment environment;
+    
+    @Value("${app.upload.max-dimension:1600}")
+    private int defaultMaxDimension;
+    
+    @Value("${app.upload.max-pixels:50000000}")
+    private long maxPixels;
+    
+    @Value("${app.upload.jpeg-quality:0.85}")
+    private float jpegQuality;
+    
+    @PostConstruct
+    public void init() {
+        // Không dùng file cache tạm của ImageIO; file nguồn đã nằm trên đĩa
+        ImageIO.setUseCache(false);
+    }
+    
+    /**
+     * Đọc ảnh từ source, thu nhỏ theo giới hạn của folder và ghi JPEG ra target
+     */
+    public void normalize(Path source, Path target, String folder) throws IOException {
+        int maxDimension = environment.getProperty("app.upload.max-dimension." + folder, Integer.class, defaultMaxDimension);
+        resize(source, target, maxDimension);
+    }
+    
+    /**
+     * Đọc ảnh từ source và ghi JPEG có cạnh dài nhất không quá maxDimension ra target
+     */
+    public void resize(Path source, Path target, int maxDimension) throws IOException {
+        BufferedImage decoded = decode(source, maxDimension);
+        BufferedImage resized = scale(decoded, maxDimension);
+        write(resized, target);
+    }
+    
+    private BufferedImage decode(Path source, int maxDimension) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new IllegalArgumentException("Định dạng ảnh không được hỗ trợ");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    throw new IllegalArgumentException("Ảnh quá lớn: " + width + "x" + height);
+                }
+                // Subsampling khi giải mã, giữ lại ít nhất gấp đôi kích thước đích để thu nhỏ tiếp cho mịn
+                int step = Math.max(1, Math.max(width, height) / (maxDimension * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+    
+    private BufferedImage scale(BufferedImage image, int maxDimension) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        double scale = Math.min(1.0, (double) maxDimension / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+        
+        BufferedImage result = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = result.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            // Nền trắng cho ảnh PNG/GIF trong suốt
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, targetWidth, targetHeight);
+            graphics.drawImage(image, 0, 0, targetWidth, targetHeight, null);
+        } finally {
+            graphics.dispose();
+        }
+        return result;
+    }
+    
+    private void write(BufferedImage image, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(jpegQuality);
+        try (OutputStream file = Files.newOutputStream(target);
+             ImageOutputStream output = ImageIO.createImageOutputStream(file)) {
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+}
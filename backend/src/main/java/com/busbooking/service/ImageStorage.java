@@ -0,0 +1,47 @@
+package com.busbooking.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Nơi lưu ảnh đã xử lý (ảnh tài xế, ảnh xe). Chọn bằng app.image-storage.type (mặc định cloudinary).
+ * ImageUploadService gọi store() từ thread upload riêng, không phải thread request.
+ * Mỗi ảnh có một key trong storage (public_id, hash, ...); ImageCleanupService so key đang được tham chiếu
+ * với list() để xóa ảnh mồ côi bằng deleteBatch().
+ */
+public interface ImageStorage {
+    
+    /**
+     * Ảnh đang lưu trong storage
+     */
+    record StoredImage(String key, Instant createdAt) {
+    }
+    
+    /**
+     * Lưu file ảnh vào thư mục folder; trả về URL công khai của ảnh
+     */
+    String store(Path image, String folder) throws IOException;
+    
+    /**
+     * Xóa ảnh theo URL đã trả về từ store(); URL rỗng hoặc không thuộc storage này thì bỏ qua
+     */
+    void delete(String imageUrl) throws IOException;
+    
+    /**
+     * Key của ảnh trong storage theo URL; null nếu URL không thuộc storage này
+     */
+    String keyOf(String imageUrl);
+    
+    /**
+     * Liệt kê ảnh trong các folder; không được trả ảnh ngoài các folder này vì ImageCleanupService sẽ xóa chúng
+     */
+    List<StoredImage> list(Collection<String> folders) throws IOException;
+    
+    /**
+     * Xóa một lô ảnh theo key trong một lần gọi (nếu storage hỗ trợ); key không còn tồn tại thì bỏ qua
+     */
+    void deleteBatch(List<String> keys) throws IOException;
+}
@@ -0,0 +1,184 @@
+package com.busbooking.service;
+
+import com.busbooking.dto.response.ImageUploadJobResponse;
+import com.busbooking.exception.ResourceNotFoundException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Upload ảnh theo luồng: multipart được ghi ra thư mục spool trên đĩa (không getBytes()),
+ * ImageProcessor thu nhỏ/chuẩn hóa từ file, rồi ImageStorage upload từ file đã xử lý.
+ * - upload(): làm tuần tự trên thread request, giữ nguyên API cũ POST /upload/image
+ * - submit(): đưa vào thread pool có hàng đợi giới hạn, trả jobId để tra trạng thái;
+ *   hàng đợi đầy thì ném RejectedExecutionException thay vì giữ thread Tomcat chờ
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ImageUploadService {
+    
+    private final ImageStorage imageStorage;
+    private final ImageProcessor imageProcessor;
+    
+    @Value("${app.upload.spool-dir:${java.io.tmpdir}/bus-booking-uploads}")
+    private String spoolDirectory;
+    
+    @Value("${app.upload.workers:4}")
+    private int workerCount;
+    
+    @Value("${app.upload.queue-capacity:32}")
+    private int queueCapacity;
+    
+    @Value("${app.upload.job-retention-minutes:60}")
+    private long jobRetentionMinutes;
+    
+    private final Map<String, UploadJob> jobs = new ConcurrentHashMap<>();
+    private ThreadPoolExecutor workers;
+    private Path spoolDir;
+    
+    private enum JobStatus {
+        queued, processing, completed, failed
+    }
+    
+    private static final class UploadJob {
+        private final String id;
+        private final String folder;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private volatile JobStatus status = JobStatus.queued;
+        private volatile String url;
+        private volatile String error;
+        private volatile LocalDateTime completedAt;
+        
+        private UploadJob(String id, String folder) {
+            this.id = id;
+            this.folder = folder;
+        }
+    }
+    
+    @PostConstruct
+    public void init() throws IOException {
+        spoolDir = Files.createDirectories(Paths.get(spoolDirectory));
+        AtomicInteger threadIndex = new AtomicInteger();
+        workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-upload-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+    
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        workers.shutdown();
+        workers.awaitTermination(30, TimeUnit.SECONDS);
+    }
+    
+    /**
+     * Xử lý và upload ngay trên thread gọi; trả về URL ảnh
+     */
+    public String upload(MultipartFile file, String folder) throws IOException {
+        return process(spool(file), folder);
+    }
+    
+    /**
+     * Ghi file ra đĩa rồi xếp hàng xử lý/upload nền; trả về job ở trạng thái queued
+     */
+    public ImageUploadJobResponse submit(MultipartFile file, String folder) throws IOException {
+        Path spooled = spool(file);
+        UploadJob job = new UploadJob(UUID.randomUUID().toString(), folder);
+        jobs.put(job.id, job);
+        try {
+            workers.execute(() -> run(job, spooled));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            deleteQuietly(spooled);
+            throw e;
+        }
+        return toResponse(job);
+    }
+    
+    public ImageUploadJobResponse getJob(String jobId) {
+        UploadJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Upload job not found with id: " + jobId);
+        }
+        return toResponse(job);
+    }
+    
+    /**
+     * Bỏ các job đã xong quá app.upload.job-retention-minutes
+     */
+    @Scheduled(fixedDelayString = "${app.upload.job-cleanup-interval-ms:600000}")
+    public void cleanupJobs() {
+        LocalDateTime threshold = LocalDateTime.now().minusMinutes(jobRetentionMinutes);
+        jobs.values().removeIf(job -> job.completedAt != null && job.completedAt.isBefore(threshold));
+    }
+    
+    private void run(UploadJob job, Path spooled) {
+        job.status = JobStatus.processing;
+        try {
+            job.url = process(spooled, job.folder);
+            job.status = JobStatus.completed;
+        } catch (Exception e) {
+            log.warn("Upload job {} failed", job.id, e);
+            job.error = e.getMessage();
+            job.status = JobStatus.failed;
+        } finally {
+            job.completedAt = LocalDateTime.now();
+        }
+    }
+    
+    private String process(Path spooled, String folder) throws IOException {
+        Path normalized = spoolDir.resolve(UUID.randomUUID() + ".jpg");
+        try {
+            imageProcessor.normalize(spooled, normalized, folder);
+            return imageStorage.store(normalized, folder);
+        } finally {
+            deleteQuietly(spooled);
+            deleteQuietly(normalized);
+        }
+    }
+    
+    /**
+     * Chuyển phần multipart (đã nằm trên đĩa khi vượt file-size-threshold) vào thư mục spool
+     */
+    private Path spool(MultipartFile file) throws IOException {
+        Path target = spoolDir.resolve(UUID.randomUUID() + ".upload");
+        file.transferTo(target);
+        return target;
+    }
+    
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete spooled file {}", path, e);
+        }
+    }
+    
+    private ImageUploadJobResponse toResponse(UploadJob job) {
+        return new ImageUploadJobResponse(job.id, job.folder, job.status.name(), job.url, job.error,
+                job.createdAt, job.completedAt);
+    }
+}
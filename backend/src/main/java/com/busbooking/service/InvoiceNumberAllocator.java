@@ -0,0 +1,88 @@
+package com.busbooking.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+/**
+ * Cấp số hóa đơn từ các khối số đặt trước trong bảng invoice_sequences.
+ * Mỗi lần hết khối chỉ cần một câu UPDATE (transaction riêng, ngắn), không dùng MAX() hay khóa toàn cục.
+ * Số hóa đơn có thể bị nhảy (khi restart) nhưng luôn duy nhất.
+ */
+@Component
+@RequiredArgsConstructor
+public class InvoiceNumberAllocator {
+    
+    private static final String SEQUENCE_NAME = "invoice";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    
+    @Value("${app.invoice.sequence-block-size:1000}")
+    private int blockSize;
+    
+    private TransactionTemplate requiresNew;
+    private long next;
+    private long blockEnd;
+    
+    @PostConstruct
+    public void init() {
+        requiresNew = new TransactionTemplate(transactionManager);
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+    
+    public synchronized String nextInvoiceNumber() {
+        if (next >= blockEnd) {
+            reserveBlock(blockSize);
+        }
+        return format(next++);
+    }
+    
+    /**
+     * Lấy liền count số hóa đơn (dùng cho xuất hóa đơn theo lô)
+     */
+    public synchronized String[] nextInvoiceNumbers(int count) {
+        String[] numbers = new String[count];
+        for (int i = 0; i < count; i++) {
+            if (next >= blockEnd) {
+                reserveBlock(Math.max(blockSize, count - i));
+            }
+            numbers[i] = format(next++);
+        }
+        return numbers;
+    }
+    
+    private void reserveBlock(int size) {
+        // LAST_INSERT_ID(expr) của MySQL: tăng và đọc giá trị mới trong cùng một câu lệnh
+        Long end = requiresNew.execute(status -> jdbcTemplate.execute((ConnectionCallback<Long>) con -> {
+            try (PreparedStatement update = con.prepareStatement(
+                    "UPDATE invoice_sequences SET next_value = LAST_INSERT_ID(next_value + ?) WHERE name = ?")) {
+                update.setLong(1, size);
+                update.setString(2, SEQUENCE_NAME);
+                if (update.executeUpdate() != 1) {
+                    throw new IllegalStateException("Missing invoice_sequences row '" + SEQUENCE_NAME + "'");
+                }
+            }
+            try (PreparedStatement select = con.prepareStatement("SELECT LAST_INSERT_ID()");
+                 ResultSet rs = select.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }));
+        blockEnd = end;
+        next = end - size;
+    }
+    
+    private String format(long value) {
+        return String.format("INV%09d", value);
+    }
+}
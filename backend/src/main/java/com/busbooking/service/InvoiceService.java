@@ -0,0 +1,215 @@
+package com.busbooking.service;
+
+import com.busbooking.dto.response.InvoiceResponse;
+import com.busbooking.dto.response.InvoiceSource;
+import com.busbooking.exception.ResourceNotFoundException;
+import com.busbooking.model.Invoice;
+import com.busbooking.repository.InvoiceRepository;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Xuất hóa đơn cho các thanh toán đã hoàn tất, theo lô lớn.
+ * - Đọc dữ liệu bằng một câu JPQL projection mỗi lô, phân trang keyset theo payment id
+ * - Số hóa đơn lấy từ khối số đặt trước (InvoiceNumberAllocator)
+ * - details được ghi thẳng bằng JsonGenerator vào buffer dùng lại, insert bằng JDBC batch
+ * - Lượt xuất theo lịch chạy trên thread riêng: có thể kéo dài nhiều phút mà không chiếm
+ *   thread scheduler dùng chung của các tác vụ @Scheduled khác
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InvoiceService {
+    
+    // Thanh toán đã có hóa đơn (instance khác xuất trước) thì bỏ qua dòng đó; lỗi khác vẫn làm lô thất bại
+    private static final String INSERT_SQL =
+            "INSERT INTO invoices (payment_id, invoice_number, details, issued_at) VALUES (?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE payment_id = payment_id";
+    
+    private final InvoiceRepository invoiceRepository;
+    private final InvoiceNumberAllocator invoiceNumberAllocator;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+    
+    @Value("${app.invoice.batch-size:1000}")
+    private int batchSize;
+    
+    private final AtomicBoolean running = new AtomicBoolean();
+    private TransactionTemplate transactionTemplate;
+    private ExecutorService executor;
+    
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "invoice-issue");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        // Lô đang chạy commit riêng từng lô; lượt sau xuất tiếp phần còn lại
+        executor.shutdownNow();
+    }
+    
+    public InvoiceResponse getInvoiceById(Integer id) {
+        Invoice invoice = invoiceRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Invoice not found with id: " + id));
+        return toResponse(invoice);
+    }
+    
+    public InvoiceResponse getInvoiceByPayment(Integer paymentId) {
+        Invoice invoice = invoiceRepository.findByPaymentId(paymentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Invoice not found for payment: " + paymentId));
+        return toResponse(invoice);
+    }
+    
+    /**
+     * Chạy cuối ngày (mặc định 00:05) để xuất hóa đơn cho toàn bộ thanh toán trong ngày.
+     * Chỉ giao lượt xuất cho thread invoice-issue rồi trả lại thread scheduler ngay
+     */
+    @Scheduled(cron = "${app.invoice.cron:0 5 0 * * *}")
+    public void scheduledIssue() {
+        if (running.get()) {
+            log.warn("Invoice issuing still running, skipping scheduled run");
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                issuePendingInvoices();
+            } catch (IllegalStateException e) {
+                log.warn("Invoice issuing still running, skipping scheduled run");
+            } catch (Exception e) {
+                log.error("Scheduled invoice issuing failed", e);
+            }
+        });
+    }
+    
+    /**
+     * Xuất hóa đơn cho mọi thanh toán completed chưa có hóa đơn
+     * @return số hóa đơn đã tạo
+     */
+    public int issuePendingInvoices() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Đang xuất hóa đơn, vui lòng thử lại sau");
+        }
+        try {
+            long start = System.currentTimeMillis();
+            int total = 0;
+            int afterPaymentId = 0;
+            DetailsWriter writer = new DetailsWriter(objectMapper.getFactory());
+            
+            while (true) {
+                List<InvoiceSource> batch = invoiceRepository.findUninvoicedPayments(
+                        afterPaymentId, PageRequest.of(0, batchSize));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                total += issueBatch(batch, writer);
+                afterPaymentId = batch.get(batch.size() - 1).getPaymentId();
+            }
+            
+            log.info("Issued {} invoices in {} ms", total, System.currentTimeMillis() - start);
+            return total;
+        } finally {
+            running.set(false);
+        }
+    }
+    
+    private int issueBatch(List<InvoiceSource> batch, DetailsWriter writer) {
+        String[] numbers = invoiceNumberAllocator.nextInvoiceNumbers(batch.size());
+        Timestamp issuedAt = Timestamp.valueOf(LocalDateTime.now());
+        
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            InvoiceSource source = batch.get(i);
+            rows.add(new Object[]{source.getPaymentId(), numbers[i], writer.render(numbers[i], source), issuedAt});
+        }
+        
+        // Driver MySQL có thể trả SUCCESS_NO_INFO (-2) khi gộp batch nên không đếm từ kết quả batchUpdate;
+        // số hóa đơn chỉ cấp cho lô này nên đếm theo số hóa đơn là đúng số dòng đã thêm
+        Integer inserted = transactionTemplate.execute(status -> {
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+            return countIssued(numbers);
+        });
+        return inserted != null ? inserted : 0;
+    }
+    
+    private int countIssued(String[] numbers) {
+        String placeholders = String.join(",", Collections.nCopies(numbers.length, "?"));
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM invoices WHERE invoice_number IN (" + placeholders + ")",
+                Integer.class, (Object[]) numbers);
+        return count != null ? count : 0;
+    }
+    
+    private InvoiceResponse toResponse(Invoice invoice) {
+        return new InvoiceResponse(
+                invoice.getId(),
+                invoice.getPayment().getId(),
+                invoice.getInvoiceNumber(),
+                invoice.getDetails(),
+                invoice.getIssuedAt()
+        );
+    }
+    
+    /**
+     * Ghi details dạng JSON trực tiếp bằng JsonGenerator, dùng lại một buffer cho cả lô
+     */
+    private static final class DetailsWriter {
+        private final JsonFactory factory;
+        private final StringWriter buffer = new StringWriter(512);
+        
+        private DetailsWriter(JsonFactory factory) {
+            this.factory = factory;
+        }
+        
+        private String render(String invoiceNumber, InvoiceSource source) {
+            buffer.getBuffer().setLength(0);
+            try (JsonGenerator json = factory.createGenerator(buffer)) {
+                json.writeStartObject();
+                json.writeStringField("invoiceNumber", invoiceNumber);
+                json.writeNumberField("ticketId", source.getTicketId());
+                json.writeStringField("customer", source.getCustomerName());
+                json.writeStringField("route", source.getFromLocation() + " - " + source.getToLocation());
+                json.writeStringField("departureTime", String.valueOf(source.getDepartureTime()));
+                json.writeStringField("seat", source.getSeatNumber());
+                json.writeNumberField("amount", source.getAmount());
+                json.writeStringField("method", source.getMethod().name());
+                json.writeStringField("transactionId", source.getTransactionId());
+                json.writeStringField("paidAt", String.valueOf(source.getPaidAt()));
+                json.writeEndObject();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return buffer.toString();
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.busbooking.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Lưu ảnh trên đĩa theo SHA-256 của nội dung (app.image-storage.type=local), không cần gọi ra ngoài:
+ * - objects/ab/abcd....jpg: cùng một ảnh upload nhiều lần chỉ lưu một bản, URL giống nhau
+ * - thumbs/<size>/abcd....jpg: thumbnail tạo lần đầu có người xem, chỉ với kích thước trong thumbnail-sizes
+ * - folders/<folder>/abcd...: file rỗng đánh dấu ảnh đã được upload vào folder nào (một ảnh có thể thuộc nhiều folder)
+ * Nội dung theo hash không bao giờ đổi nên ImageController trả cache header dài hạn.
+ */
+@Service
+@ConditionalOnProperty(name = "app.image-storage.type", havingValue = "local")
+@RequiredArgsConstructor
+@Slf4j
+public class LocalImageStorage implements ImageStorage {
+    
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+    private static final String EXTENSION = ".jpg";
+    
+    private final ImageProcessor imageProcessor;
+    
+    @Value("${app.image-storage.local.dir:data/images}")
+    private String directory;
+    
+    @Value("${app.image-storage.local.base-url:http://localhost:8080/api/images}")
+    private String baseUrl;
+    
+    @Value("${app.image-storage.local.thumbnail-sizes:160,320,640}")
+    private Set<Integer> thumbnailSizes;
+    
+    private Path objectsDir;
+    private Path thumbsDir;
+    private Path foldersDir;
+    private Path tmpDir;
+    
+    @PostConstruct
+    public void init() throws IOException {
+        Path root = Paths.get(directory).toAbsolutePath();
+        objectsDir = Files.createDirectories(root.resolve("objects"));
+        thumbsDir = Files.createDirectories(root.resolve("thumbs"));
+        foldersDir = Files.createDirectories(root.resolve("folders"));
+        // Cùng filesystem với objects để move nguyên tử
+        tmpDir = Files.createDirectories(root.resolve("tmp"));
+    }
+    
+    /**
+     * Băm trong lúc chép vào tmp rồi move sang objects; đã có bản cùng hash thì bỏ bản vừa chép
+     */
+    @Override
+    public String store(Path image, String folder) throws IOException {
+        Path part = Files.createTempFile(tmpDir, "store-", ".part");
+        try {
+            MessageDigest digest = sha256();
+            try (InputStream in = new DigestInputStream(Files.newInputStream(image), digest)) {
+                Files.copy(in, part, StandardCopyOption.REPLACE_EXISTING);
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+            Path target = objectPath(hash);
+            if (!Files.exists(target)) {
+                Files.createDirectories(target.getParent());
+                try {
+                    Files.move(part, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException e) {
+                    // Request khác vừa lưu cùng nội dung
+                }
+            } else {
+                // Làm mới thời điểm để ImageCleanupService không xóa ảnh vừa được dùng lại
+                Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+                log.debug("Image {} already stored, reusing", hash);
+            }
+            markFolder(folder, hash);
+            return baseUrl + "/" + hash + EXTENSION;
+        } finally {
+            Files.deleteIfExists(part);
+        }
+    }
+    
+    /**
+     * Không xóa file: cùng nội dung có thể đang được tài xế/xe khác dùng chung URL.
+     * Ảnh không còn ai tham chiếu được ImageCleanupService dọn qua deleteBatch().
+     */
+    @Override
+    public void delete(String imageUrl) {
+        log.debug("Keeping content-addressed image {} (may be shared)", imageUrl);
+    }
+    
+    @Override
+    public String keyOf(String imageUrl) {
+        String prefix = baseUrl + "/";
+        if (imageUrl == null || !imageUrl.startsWith(prefix) || !imageUrl.endsWith(EXTENSION)) {
+            return null;
+        }
+        String hash = imageUrl.substring(prefix.length(), imageUrl.length() - EXTENSION.length());
+        return HASH.matcher(hash).matches() ? hash : null;
+    }
+    
+    /**
+     * Ảnh chỉ thuộc các folder được hỏi. Cùng nội dung được dùng chung URL giữa các folder, nên ảnh còn nằm
+     * trong folder khác (có thể đang được tham chiếu ở đó) không được trả về; ảnh chưa có dấu folder cũng không.
+     */
+    @Override
+    public List<StoredImage> list(Collection<String> folders) throws IOException {
+        Set<String> inScope = new HashSet<>();
+        Set<String> outOfScope = new HashSet<>();
+        try (Stream<Path> folderDirs = Files.list(foldersDir)) {
+            for (Path folderDir : (Iterable<Path>) folderDirs::iterator) {
+                if (!Files.isDirectory(folderDir)) {
+                    continue;
+                }
+                Set<String> target = folders.contains(folderDir.getFileName().toString()) ? inScope : outOfScope;
+                try (Stream<Path> markers = Files.list(folderDir)) {
+                    markers.map(marker -> marker.getFileName().toString()).forEach(target::add);
+                }
+            }
+        }
+        inScope.removeAll(outOfScope);
+        
+        List<StoredImage> images = new ArrayList<>(inScope.size());
+        for (String hash : inScope) {
+            Path original = HASH.matcher(hash).matches() ? objectPath(hash) : null;
+            if (original != null && Files.isRegularFile(original)) {
+                images.add(new StoredImage(hash, Files.getLastModifiedTime(original).toInstant()));
+            }
+        }
+        return images;
+    }
+    
+    /**
+     * Xóa ảnh gốc cùng các thumbnail đã tạo và dấu folder
+     */
+    @Override
+    public void deleteBatch(List<String> keys) throws IOException {
+        List<Path> folderDirs;
+        try (Stream<Path> dirs = Files.list(foldersDir)) {
+            folderDirs = dirs.filter(Files::isDirectory).toList();
+        }
+        for (String hash : keys) {
+            if (!HASH.matcher(hash).matches()) {
+                continue;
+            }
+            Files.deleteIfExists(objectPath(hash));
+            for (Integer size : thumbnailSizes) {
+                Files.deleteIfExists(thumbsDir.resolve(String.valueOf(size)).resolve(hash + EXTENSION));
+            }
+            for (Path folderDir : folderDirs) {
+                Files.deleteIfExists(folderDir.resolve(hash));
+            }
+        }
+    }
+    
+    /**
+     * File ảnh gốc (size = null) hoặc thumbnail, tạo thumbnail nếu chưa có; rỗng nếu hash không tồn tại
+     */
+    public Optional<Path> resolve(String hash, Integer size) throws IOException {
+        if (!HASH.matcher(hash).matches()) {
+            return Optional.empty();
+        }
+        Path original = objectPath(hash);
+        if (!Files.exists(original)) {
+            return Optional.empty();
+        }
+        if (size == null) {
+            return Optional.of(original);
+        }
+        if (!thumbnailSizes.contains(size)) {
+            throw new IllegalArgumentException("Kích thước thumbnail không hỗ trợ: " + size + ", chỉ có " + thumbnailSizes);
+        }
+        Path thumbnail = thumbsDir.resolve(String.valueOf(size)).resolve(hash + EXTENSION);
+        if (!Files.exists(thumbnail)) {
+            Files.createDirectories(thumbnail.getParent());
+            Path part = Files.createTempFile(tmpDir, "thumb-", ".part");
+            try {
+                imageProcessor.resize(original, part, size);
+                Files.move(part, thumbnail, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(part);
+            }
+        }
+        return Optional.of(thumbnail);
+    }
+    
+    private void markFolder(String folder, String hash) throws IOException {
+        Path marker = Files.createDirectories(foldersDir.resolve(folder)).resolve(hash);
+        try {
+            Files.createFile(marker);
+        } catch (FileAlreadyExistsException e) {
+            // Đã upload vào folder này trước đó
+        }
+    }
+    
+    private Path objectPath(String hash) {
+        return objectsDir.resolve(hash.substring(0, 2)).resolve(hash + EXTENSION);
+    }
+    
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.busbooking.service;
+
+import com.busbooking.dto.event.TicketEvent;
+import com.busbooking.model.OutboxEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Gửi thông báo xác nhận đặt vé từ booking_outbox (không chặn luồng đặt vé).
+ * Thông báo được ghi xuống notifications trước khi relay đánh dấu sự kiện xong.
+ */
+@Component
+@RequiredArgsConstructor
+public class NotificationEventHandler implements BookingEventHandler {
+
+    private final NotificationService notificationService;
+    private final OutboxService outboxService;
+
+    @Override
+    public boolean supports(String eventType) {
+        return OutboxService.TICKET_CREATED.equals(eventType);
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        TicketEvent ticket = outboxService.readPayload(event, TicketEvent.class);
+        if (ticket.getUserId() != null) {
+            notificationService.enqueueBookingConfirmation(ticket.getUserId(), ticket.getTicketId(), event.getId());
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.busbooking.service;
+
+import com.busbooking.dto.event.NotificationMessage;
+import com.busbooking.model.Notification;
+
+import java.util.List;
+
+/**
+ * Nhà cung cấp gửi thông báo cho một kênh (email, sms, push).
+ * NotificationService gọi theo lô và đã áp giới hạn tốc độ trước khi gọi.
+ */
+public interface NotificationProvider {
+    
+    Notification.Type channel();
+    
+    /**
+     * Gửi một lô thông báo; ném exception nếu cả lô thất bại
+     */
+    void sendBatch(List<NotificationMessage> messages) throws Exception;
+}
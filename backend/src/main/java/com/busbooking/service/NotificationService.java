@@ -0,0 +1,334 @@
+package com.busbooking.service;
+
+import com.busbooking.dto.event.NotificationMessage;
+import com.busbooking.dto.response.PassengerTrip;
+import com.busbooking.model.Notification;
+import com.busbooking.repository.TicketRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Gửi thông báo (đặt vé, nhắc chuyến, xe khởi hành) bất đồng bộ.
+ * - enqueue() ghi dòng notifications trạng thái pending (bảng notifications là hàng đợi), không gửi trên
+ *   request thread; sự kiện outbox chỉ được đánh dấu xong khi dòng đã ghi nên tắt đột ngột không mất tin
+ * - Mỗi lần flush, với từng kênh: lấy tối đa batch-size dòng pending (không quá số token còn lại của provider),
+ *   gộp theo người dùng, gửi một lô rồi cập nhật trạng thái trong cùng transaction.
+ *   Tin vượt giới hạn tốc độ nằm lại trong DB, bộ nhớ không tăng theo lượng tồn; số tồn xem ở gauge notifications.pending
+ * - Provider lỗi: tin giữ pending, tăng attempts và chờ backoff tăng dần; quá max-attempts mới đánh dấu failed.
+ *   Kênh không có provider thì đánh dấu failed ngay (lỗi cấu hình, thử lại không giúp gì)
+ * - Nhắc chuyến có khóa dedup_key nên lượt chạy trễ/chồng cửa sổ không nhắc trùng
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationService {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO notifications (user_id, message, type, sent_at, status, attempts) VALUES (?, ?, ?, NULL, 'pending', 0)";
+
+    // Sự kiện outbox được giao lại thì không tạo thêm thông báo (unique event_id)
+    private static final String INSERT_FOR_EVENT_SQL =
+            "INSERT INTO notifications (user_id, message, type, sent_at, status, attempts, event_id) " +
+            "VALUES (?, ?, ?, NULL, 'pending', 0, ?) ON DUPLICATE KEY UPDATE event_id = event_id";
+
+    // Thông báo sinh theo lịch: lượt chạy lại cùng khóa không tạo thêm thông báo (unique dedup_key)
+    private static final String INSERT_FOR_KEY_SQL =
+            "INSERT INTO notifications (user_id, message, type, sent_at, status, attempts, dedup_key) " +
+            "VALUES (?, ?, ?, NULL, 'pending', 0, ?) ON DUPLICATE KEY UPDATE dedup_key = dedup_key";
+
+    // SKIP LOCKED để flush trên nhiều instance không gửi trùng một tin
+    private static final String PENDING_SQL =
+            "SELECT id, user_id, message, attempts FROM notifications WHERE status = 'pending' AND type = ? " +
+            "AND (next_attempt_at IS NULL OR next_attempt_at <= ?) ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    private static final String MARK_SQL =
+            "UPDATE notifications SET status = ?, sent_at = ? WHERE id = ?";
+
+    private static final String RETRY_SQL =
+            "UPDATE notifications SET status = ?, attempts = ?, next_attempt_at = ? WHERE id = ?";
+
+    private static final long MAX_BACKOFF_SECONDS = 3600;
+
+    private static final String COUNT_PENDING_SQL =
+            "SELECT COUNT(*) FROM notifications WHERE status = 'pending'";
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm dd/MM/yyyy");
+
+    private final ObjectProvider<NotificationProvider> providers;
+    private final TicketRepository ticketRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+    private final Environment environment;
+
+    @Value("${app.notification.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.notification.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${app.notification.reminder-lead-minutes:60}")
+    private int reminderLeadMinutes;
+
+    @Value("${app.notification.reminder-window-minutes:5}")
+    private int reminderWindowMinutes;
+
+    @Value("${app.notification.default-channel:email}")
+    private Notification.Type defaultChannel;
+
+    private final Map<Notification.Type, NotificationProvider> providersByChannel = new EnumMap<>(Notification.Type.class);
+    private final Map<Notification.Type, TokenBucket> rateLimits = new EnumMap<>(Notification.Type.class);
+    private TransactionTemplate transactionTemplate;
+    private volatile LocalDateTime reminderWindowEnd;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        providers.orderedStream().forEach(provider -> providersByChannel.putIfAbsent(provider.channel(), provider));
+        for (Notification.Type channel : Notification.Type.values()) {
+            int perSecond = environment.getProperty("app.notification.rate." + channel, Integer.class, 50);
+            rateLimits.put(channel, new TokenBucket(perSecond, perSecond));
+            if (!providersByChannel.containsKey(channel)) {
+                log.warn("No notification provider for channel {}, its notifications will be marked failed", channel);
+            }
+        }
+        Gauge.builder("notifications.pending", this, NotificationService::getPendingCount).register(meterRegistry);
+    }
+
+    /**
+     * Ghi thông báo chờ gửi; ném exception nếu không ghi được (bên gọi từ outbox sẽ được thử lại)
+     */
+    public void enqueue(Integer userId, Notification.Type type, String message) {
+        enqueueAll(List.of(new NotificationMessage(userId, type, message)));
+    }
+
+    /**
+     * Ghi nhiều thông báo chờ gửi bằng một JDBC batch
+     */
+    public void enqueueAll(List<NotificationMessage> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, messages.stream()
+                .map(message -> new Object[]{message.getUserId(), message.getMessage(), message.getType().name()})
+                .toList());
+    }
+
+    /**
+     * Ghi thông báo đặt vé thành công, mỗi sự kiện outbox tối đa một thông báo
+     */
+    public void enqueueBookingConfirmation(Integer userId, Integer ticketId, Long eventId) {
+        jdbcTemplate.update(INSERT_FOR_EVENT_SQL, userId, "Vé #" + ticketId + " của bạn đã được đặt thành công.",
+                defaultChannel.name(), eventId);
+    }
+
+    /**
+     * Báo cho hành khách khi chuyến xe chuyển sang ongoing (gọi từ TripStatusScheduler, một query cho mọi chuyến)
+     */
+    public void enqueueDepartureAlerts(Collection<Integer> tripIds) {
+        if (tripIds.isEmpty()) {
+            return;
+        }
+        List<NotificationMessage> messages = new ArrayList<>();
+        for (PassengerTrip passenger : ticketRepository.findPassengersOfTrips(tripIds)) {
+            messages.add(new NotificationMessage(passenger.getUserId(), Notification.Type.push,
+                    "Chuyến xe " + passenger.getFromLocation() + " - " + passenger.getToLocation()
+                            + " (ghế " + passenger.getSeatNumber() + ") đã khởi hành."));
+        }
+        enqueueAll(messages);
+    }
+
+    /**
+     * Nhắc hành khách của các chuyến khởi hành trong reminder-lead-minutes tới.
+     * Cửa sổ xét bắt đầu từ cuối cửa sổ lần chạy trước (lần đầu sau khi khởi động: từ bây giờ) nên lượt
+     * chạy trễ không bỏ sót chuyến; mỗi vé có một dedup_key nên cửa sổ chồng nhau (lần đầu, nhiều instance)
+     * không nhắc trùng.
+     */
+    @Scheduled(fixedRateString = "#{${app.notification.reminder-window-minutes:5} * 60000}")
+    public void enqueueTripReminders() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime from = reminderWindowEnd != null ? reminderWindowEnd : now;
+        LocalDateTime to = now.plusMinutes(reminderLeadMinutes + reminderWindowMinutes);
+        if (!from.isBefore(to)) {
+            return;
+        }
+        List<PassengerTrip> passengers = ticketRepository.findPassengersDepartingBetween(from, to);
+        List<Object[]> rows = new ArrayList<>(passengers.size());
+        for (PassengerTrip passenger : passengers) {
+            rows.add(new Object[]{passenger.getUserId(),
+                    "Nhắc lịch: chuyến " + passenger.getFromLocation() + " - " + passenger.getToLocation()
+                            + " khởi hành lúc " + passenger.getDepartureTime().format(TIME_FORMAT)
+                            + ", ghế " + passenger.getSeatNumber() + ".",
+                    defaultChannel.name(),
+                    "reminder:" + passenger.getTripId() + ":" + passenger.getUserId() + ":" + passenger.getSeatNumber()});
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_FOR_KEY_SQL, rows);
+            log.info("Queued {} trip reminders departing in [{}, {})", rows.size(), from, to);
+        }
+        reminderWindowEnd = to;
+    }
+
+    @Scheduled(fixedDelayString = "${app.notification.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        for (Notification.Type channel : Notification.Type.values()) {
+            try {
+                int processed;
+                do {
+                    Integer count = transactionTemplate.execute(status -> flushChannel(channel));
+                    processed = count != null ? count : 0;
+                } while (processed == batchSize);
+            } catch (RuntimeException e) {
+                log.warn("Flushing {} notifications failed, will retry: {}", channel, e.getMessage());
+            }
+        }
+    }
+
+    public int getPendingCount() {
+        Integer count = jdbcTemplate.queryForObject(COUNT_PENDING_SQL, Integer.class);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Gửi một lô tin pending của kênh (giữ khóa dòng tới khi ghi xong trạng thái); trả về số dòng đã xử lý
+     */
+    private int flushChannel(Notification.Type channel) {
+        NotificationProvider provider = providersByChannel.get(channel);
+        TokenBucket rateLimit = rateLimits.get(channel);
+        // Không có provider cho kênh: vẫn lấy ra để ghi failed, không để tin nằm chờ mãi
+        int limit = provider == null ? batchSize : Math.min(batchSize, rateLimit.available());
+        if (limit == 0) {
+            return 0;
+        }
+
+        Map<Integer, Integer> attemptsById = new LinkedHashMap<>();
+        Map<Integer, NotificationMessage> byUser = new LinkedHashMap<>();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.query(PENDING_SQL, rs -> {
+            int id = rs.getInt("id");
+            int userId = rs.getInt("user_id");
+            String message = rs.getString("message");
+            attemptsById.put(id, rs.getInt("attempts"));
+            // Gộp các tin của cùng người dùng trên kênh thành một lần gửi
+            NotificationMessage existing = byUser.get(userId);
+            if (existing == null) {
+                byUser.put(userId, new NotificationMessage(userId, channel, message));
+            } else {
+                existing.setMessage(existing.getMessage() + "\n" + message);
+            }
+        }, channel.name(), now, limit);
+        if (attemptsById.isEmpty()) {
+            return 0;
+        }
+
+        if (provider == null) {
+            markAll(attemptsById.keySet(), Notification.Status.failed, now);
+        } else {
+            rateLimit.tryAcquire(byUser.size());
+            if (send(provider, new ArrayList<>(byUser.values()))) {
+                markAll(attemptsById.keySet(), Notification.Status.sent, now);
+            } else {
+                scheduleRetry(attemptsById);
+            }
+        }
+        return attemptsById.size();
+    }
+
+    private boolean send(NotificationProvider provider, List<NotificationMessage> batch) {
+        try {
+            provider.sendBatch(batch);
+            return true;
+        } catch (Exception e) {
+            log.warn("Sending {} {} notifications failed, will retry: {}", batch.size(), provider.channel(), e.getMessage());
+            return false;
+        }
+    }
+
+    private void markAll(Collection<Integer> ids, Notification.Status status, Timestamp at) {
+        String statusName = status.name();
+        jdbcTemplate.batchUpdate(MARK_SQL, ids.stream()
+                .map(id -> new Object[]{statusName, at, id})
+                .toList());
+    }
+
+    /**
+     * Giữ tin pending và hẹn gửi lại với backoff tăng dần; tin đã lỗi max-attempts lần thì đánh dấu failed
+     */
+    private void scheduleRetry(Map<Integer, Integer> attemptsById) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>(attemptsById.size());
+        int exhausted = 0;
+        for (Map.Entry<Integer, Integer> entry : attemptsById.entrySet()) {
+            int attempts = entry.getValue() + 1;
+            boolean failed = attempts >= maxAttempts;
+            if (failed) {
+                exhausted++;
+            }
+            rows.add(new Object[]{failed ? Notification.Status.failed.name() : Notification.Status.pending.name(),
+                    attempts, Timestamp.valueOf(now.plusSeconds(backoffSeconds(attempts))), entry.getKey()});
+        }
+        jdbcTemplate.batchUpdate(RETRY_SQL, rows);
+        if (exhausted > 0) {
+            log.error("{} notifications failed after {} attempts", exhausted, maxAttempts);
+        }
+    }
+
+    private long backoffSeconds(int attempts) {
+        return Math.min(MAX_BACKOFF_SECONDS, 1L << Math.min(attempts, 20));
+    }
+
+    /**
+     * Token bucket đơn giản: nạp ratePerSecond token mỗi giây, tối đa capacity token
+     */
+    private static final class TokenBucket {
+        private final double capacity;
+        private final double ratePerNano;
+        private double tokens;
+        private long lastRefill = System.nanoTime();
+
+        private TokenBucket(int capacity, int ratePerSecond) {
+            this.capacity = capacity;
+            this.ratePerNano = ratePerSecond / 1_000_000_000.0;
+            this.tokens = capacity;
+        }
+
+        private synchronized int available() {
+            refill();
+            return (int) Math.floor(tokens);
+        }
+
+        private synchronized int tryAcquire(int requested) {
+            refill();
+            int granted = (int) Math.min(requested, Math.floor(tokens));
+            tokens -= granted;
+            return granted;
+        }
+
+        private void refill() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * ratePerNano);
+            lastRefill = now;
+        }
+    }
+}
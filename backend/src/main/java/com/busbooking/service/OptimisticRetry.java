@@ -0,0 +1,80 @@
+package com.busbooking.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Chạy một thao tác ghi trên entity có @Version trong transaction riêng, chạy lại từ đầu
+ * (đọc lại bản mới nhất, kiểm tra lại điều kiện) khi bị thao tác đồng thời khác ghi trước.
+ * Chỉ dùng cho thao tác chuyển trạng thái có kiểm tra lại được (đặt/hủy/khóa ghế); cập nhật thay toàn bộ
+ * bản ghi từ admin không được chạy lại vì sẽ ghi đè thay đổi của người khác.
+ * Không khóa dòng nên không tuần tự hóa các thao tác trên những bản ghi khác nhau.
+ * Hết số lần thử thì ném OptimisticLockingFailureException (GlobalExceptionHandler trả 409).
+ * Metrics: optimistic.lock.conflicts{operation, outcome=retried|exhausted}
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OptimisticRetry {
+
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.optimistic-retry.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${app.optimistic-retry.backoff-ms:20}")
+    private long backoffMs;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public <T> T execute(String operation, Supplier<T> action) {
+        // Đang trong transaction của bên gọi thì không thể chạy lại riêng phần này; để bên gọi xử lý xung đột
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return action.get();
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> action.get());
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    meterRegistry.counter("optimistic.lock.conflicts", "operation", operation, "outcome", "exhausted").increment();
+                    log.warn("{} still conflicting after {} attempts: {}", operation, attempt, e.getMessage());
+                    throw e;
+                }
+                meterRegistry.counter("optimistic.lock.conflicts", "operation", operation, "outcome", "retried").increment();
+                backoff(attempt);
+            }
+        }
+    }
+
+    /**
+     * Chờ ngẫu nhiên tăng dần để các thao tác tranh chấp không chạy lại cùng lúc
+     */
+    private void backoff(int attempt) {
+        if (backoffMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(backoffMs * attempt + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.busbooking.service;
+
+import com.busbooking.model.OutboxEvent;
+import com.busbooking.repository.OutboxEventRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Đọc booking_outbox theo lô và giao sự kiện cho các BookingEventHandler trên thread pool riêng.
+ * - Back-pressure: chỉ nhận thêm sự kiện khi số sự kiện đang xử lý còn dưới max-in-flight
+ * - Lỗi thì thử lại với backoff tăng dần, quá max-attempts thì đánh dấu failed
+ * - Sự kiện đang xử lý có lease; nếu instance chết giữa chừng, sự kiện sẽ được nhận lại khi hết lease
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxRelay {
+    
+    private static final long MAX_BACKOFF_SECONDS = 3600;
+    
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<BookingEventHandler> handlers;
+    private final PlatformTransactionManager transactionManager;
+    
+    @Value("${app.outbox.batch-size:200}")
+    private int batchSize;
+    
+    @Value("${app.outbox.workers:4}")
+    private int workerCount;
+    
+    @Value("${app.outbox.max-in-flight:1000}")
+    private int maxInFlight;
+    
+    @Value("${app.outbox.max-attempts:10}")
+    private int maxAttempts;
+    
+    @Value("${app.outbox.lease-seconds:300}")
+    private long leaseSeconds;
+    
+    @Value("${app.outbox.retention-days:7}")
+    private int retentionDays;
+    
+    private ExecutorService workers;
+    private Semaphore inFlight;
+    private TransactionTemplate transactionTemplate;
+    
+    @PostConstruct
+    public void init() {
+        workers = Executors.newFixedThreadPool(workerCount);
+        inFlight = new Semaphore(maxInFlight);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        workers.shutdown();
+        workers.awaitTermination(10, TimeUnit.SECONDS);
+    }
+    
+    /**
+     * Chạy liên tục (fixedDelay) để lấy lô sự kiện tiếp theo
+     */
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:1000}")
+    public void relay() {
+        int capacity = Math.min(batchSize, inFlight.availablePermits());
+        if (capacity == 0) {
+            // Handler đang chậm: để sự kiện nằm trong DB, không nhận thêm
+            return;
+        }
+        
+        List<OutboxEvent> batch = claim(capacity);
+        for (OutboxEvent event : batch) {
+            inFlight.acquireUninterruptibly();
+            workers.execute(() -> {
+                try {
+                    process(event);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+    }
+    
+    /**
+     * Xóa sự kiện đã xử lý xong quá retention-days (mỗi ngày lúc 3h sáng)
+     */
+    @Scheduled(cron = "${app.outbox.purge-cron:0 0 3 * * *}")
+    public void purgeProcessed() {
+        LocalDateTime before = LocalDateTime.now().minusDays(retentionDays);
+        Integer deleted = transactionTemplate.execute(status -> outboxEventRepository.deleteProcessedBefore(before));
+        log.info("Purged {} processed outbox events", deleted);
+    }
+    
+    private List<OutboxEvent> claim(int limit) {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboxEvent> due = outboxEventRepository.findDueForUpdate(now, PageRequest.of(0, limit));
+            for (OutboxEvent event : due) {
+                event.setStatus(OutboxEvent.Status.processing);
+                event.setNextAttemptAt(now.plusSeconds(leaseSeconds));
+            }
+            return outboxEventRepository.saveAll(due);
+        });
+    }
+    
+    private void process(OutboxEvent event) {
+        try {
+            for (BookingEventHandler handler : handlers) {
+                if (handler.supports(event.getEventType())) {
+                    handler.handle(event);
+                }
+            }
+            event.setStatus(OutboxEvent.Status.done);
+            event.setProcessedAt(LocalDateTime.now());
+            event.setLastError(null);
+        } catch (Exception e) {
+            int attempts = event.getAttempts() + 1;
+            event.setAttempts(attempts);
+            event.setLastError(truncate(e.toString()));
+            if (attempts >= maxAttempts) {
+                event.setStatus(OutboxEvent.Status.failed);
+                log.error("Outbox event {} ({}) failed after {} attempts", event.getId(), event.getEventType(), attempts, e);
+            } else {
+                event.setStatus(OutboxEvent.Status.pending);
+                event.setNextAttemptAt(LocalDateTime.now().plusSeconds(backoffSeconds(attempts)));
+                log.warn("Outbox event {} ({}) failed, retry #{}: {}", event.getId(), event.getEventType(), attempts, e.getMessage());
+            }
+        }
+        outboxEventRepository.save(event);
+    }
+    
+    private long backoffSeconds(int attempts) {
+        return Math.min(MAX_BACKOFF_SECONDS, 1L << Math.min(attempts, 20));
+    }
+    
+    private String truncate(String message) {
+        return message.length() > 500 ? message.substring(0, 500) : message;
+    }
+}
@@ -0,0 +1,53 @@
+package com.busbooking.service;
+
+import com.busbooking.model.OutboxEvent;
+import com.busbooking.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Ghi sự kiện đặt vé vào bảng booking_outbox trong cùng transaction với nghiệp vụ chính.
+ * OutboxRelay sẽ đọc và giao cho các BookingEventHandler sau khi commit.
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+    
+    public static final String TICKET_CREATED = "ticket.created";
+    public static final String TICKET_STATUS_CHANGED = "ticket.status_changed";
+    
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    
+    /**
+     * Bắt buộc gọi trong transaction đang mở, để sự kiện chỉ tồn tại khi nghiệp vụ commit thành công
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public OutboxEvent record(String eventType, Integer aggregateId, Object payload) {
+        OutboxEvent event = new OutboxEvent();
+        event.setEventType(eventType);
+        event.setAggregateId(aggregateId);
+        event.setPayload(toJson(payload));
+        return outboxEventRepository.save(event);
+    }
+    
+    public <T> T readPayload(OutboxEvent event, Class<T> type) {
+        try {
+            return objectMapper.readValue(event.getPayload(), type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Invalid outbox payload for event " + event.getId(), e);
+        }
+    }
+    
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize outbox payload", e);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.busbooking.service;
+
+import com.busbooking.model.Payment;
+
+/**
+ * Cổng thanh toán (VNPay, Momo...). Cổng gọi lại PaymentService.handleCallback khi có kết quả.
+ */
+public interface PaymentGateway {
+    
+    boolean supports(Payment.Method method);
+    
+    /**
+     * Khởi tạo giao dịch, trả về URL/mã để client chuyển tới cổng thanh toán
+     */
+    String initiate(Payment payment);
+}
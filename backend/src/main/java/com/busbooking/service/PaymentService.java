@@ -0,0 +1,197 @@
+package com.busbooking.service;
+
+import com.busbooking.dto.event.PaymentEvent;
+import com.busbooking.dto.request.PaymentCallbackRequest;
+import com.busbooking.dto.request.PaymentRequest;
+import com.busbooking.dto.response.PaymentResponse;
+import com.busbooking.exception.ResourceNotFoundException;
+import com.busbooking.mapper.PaymentMapper;
+import com.busbooking.model.Payment;
+import com.busbooking.model.Ticket;
+import com.busbooking.repository.PaymentRepository;
+import com.busbooking.repository.TicketRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+
+/**
+ * Thanh toán vé và xử lý callback từ cổng thanh toán.
+ * - Callback idempotent theo transaction_id: cache kết quả trong bộ nhớ, phía sau là unique index trên DB
+ * - Callback trùng đến đồng thời dùng chung một lần xử lý (in-flight future)
+ * - Chuyển trạng thái bằng UPDATE có điều kiện (pending -> completed/failed), không khóa bảng tickets;
+ *   xác nhận vé chạy bất đồng bộ qua booking_outbox
+ */
+@Service
+@RequiredArgsConstructor
+public class PaymentService {
+    
+    public static final String PAYMENT_COMPLETED = "payment.completed";
+    public static final String PAYMENT_FAILED = "payment.failed";
+    
+    private final PaymentRepository paymentRepository;
+    private final TicketRepository ticketRepository;
+    private final PaymentMapper paymentMapper;
+    private final OutboxService outboxService;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectProvider<PaymentGateway> gateways;
+    
+    @Value("${app.payment.dedup-cache-size:100000}")
+    private int dedupCacheSize;
+    
+    private final Map<String, CompletableFuture<PaymentResponse>> callbacksByTransaction = new ConcurrentHashMap<>();
+    private final Queue<String> callbackOrder = new ConcurrentLinkedQueue<>();
+    private TransactionTemplate transactionTemplate;
+    
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    public PaymentResponse getPaymentById(Integer id) {
+        Payment payment = paymentRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Payment not found with id: " + id));
+        return paymentMapper.toResponse(payment);
+    }
+    
+    public List<PaymentResponse> getPaymentsByTicket(Integer ticketId) {
+        return paymentRepository.findByTicketId(ticketId).stream()
+                .map(paymentMapper::toResponse)
+                .collect(Collectors.toList());
+    }
+    
+    public PaymentResponse createPayment(PaymentRequest request) {
+        Ticket ticket = ticketRepository.findById(request.getTicketId())
+                .orElseThrow(() -> new ResourceNotFoundException("Ticket not found with id: " + request.getTicketId()));
+        if (ticket.getStatus() == Ticket.Status.cancelled) {
+            throw new IllegalStateException("Vé đã bị hủy, không thể thanh toán");
+        }
+        
+        Payment payment = new Payment();
+        payment.setTicket(ticket);
+        payment.setAmount(ticket.getPrice());
+        payment.setMethod(Payment.Method.valueOf(request.getMethod()));
+        payment.setStatus(Payment.Status.pending);
+        Payment saved = paymentRepository.save(payment);
+        
+        PaymentResponse response = paymentMapper.toResponse(saved);
+        if (saved.getMethod() != Payment.Method.cash) {
+            gateways.orderedStream()
+                    .filter(gateway -> gateway.supports(saved.getMethod()))
+                    .findFirst()
+                    .ifPresent(gateway -> response.setPaymentUrl(gateway.initiate(saved)));
+        }
+        return response;
+    }
+    
+    /**
+     * Xử lý callback từ cổng thanh toán. Gọi lại nhiều lần với cùng transactionId luôn trả về cùng kết quả.
+     */
+    public PaymentResponse handleCallback(PaymentCallbackRequest callback) {
+        String transactionId = callback.getTransactionId();
+        CompletableFuture<PaymentResponse> pending = new CompletableFuture<>();
+        CompletableFuture<PaymentResponse> existing = callbacksByTransaction.putIfAbsent(transactionId, pending);
+        if (existing != null) {
+            return join(existing);
+        }
+        
+        try {
+            PaymentResponse result = applyCallback(callback);
+            pending.complete(result);
+            rememberCallback(transactionId);
+            return result;
+        } catch (RuntimeException e) {
+            // Không cache lỗi để cổng thanh toán có thể gửi lại
+            callbacksByTransaction.remove(transactionId, pending);
+            pending.completeExceptionally(e);
+            throw e;
+        }
+    }
+    
+    private PaymentResponse applyCallback(PaymentCallbackRequest callback) {
+        // Đã xử lý trước đó (instance khác hoặc đã bị đẩy khỏi cache)
+        Payment processed = paymentRepository.findByTransactionId(callback.getTransactionId()).orElse(null);
+        if (processed != null) {
+            return paymentMapper.toResponse(processed);
+        }
+        
+        try {
+            return transactionTemplate.execute(status -> transition(callback));
+        } catch (DataIntegrityViolationException e) {
+            // Unique index transaction_id: callback trùng đã ghi trước ở instance khác
+            return paymentRepository.findByTransactionId(callback.getTransactionId())
+                    .map(paymentMapper::toResponse)
+                    .orElseThrow(() -> e);
+        }
+    }
+    
+    private PaymentResponse transition(PaymentCallbackRequest callback) {
+        Payment payment = paymentRepository.findById(callback.getPaymentId())
+                .orElseThrow(() -> new ResourceNotFoundException("Payment not found with id: " + callback.getPaymentId()));
+        if (callback.getAmount().compareTo(payment.getAmount()) != 0) {
+            throw new IllegalArgumentException("Số tiền callback không khớp với thanh toán " + payment.getId());
+        }
+        
+        Payment.Status target = Payment.Status.valueOf(callback.getStatus());
+        LocalDateTime paidAt = target == Payment.Status.completed ? LocalDateTime.now() : null;
+        int updated = paymentRepository.completeIfPending(payment.getId(), target, callback.getTransactionId(), paidAt);
+        if (updated == 0) {
+            // Thanh toán đã kết thúc với giao dịch khác: trả về trạng thái hiện tại, không ghi đè
+            return paymentMapper.toResponse(payment);
+        }
+        
+        payment.setStatus(target);
+        payment.setTransactionId(callback.getTransactionId());
+        payment.setPaidAt(paidAt);
+        outboxService.record(
+                target == Payment.Status.completed ? PAYMENT_COMPLETED : PAYMENT_FAILED,
+                payment.getId(),
+                new PaymentEvent(
+                        payment.getId(),
+                        payment.getTicket().getId(),
+                        payment.getAmount(),
+                        payment.getMethod().name(),
+                        target.name(),
+                        callback.getTransactionId(),
+                        LocalDateTime.now()
+                )
+        );
+        return paymentMapper.toResponse(payment);
+    }
+    
+    private void rememberCallback(String transactionId) {
+        callbackOrder.offer(transactionId);
+        while (callbacksByTransaction.size() > dedupCacheSize) {
+            String eldest = callbackOrder.poll();
+            if (eldest == null) {
+                break;
+            }
+            callbacksByTransaction.remove(eldest);
+        }
+    }
+    
+    private PaymentResponse join(CompletableFuture<PaymentResponse> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
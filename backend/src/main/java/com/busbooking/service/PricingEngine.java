@@ -0,0 +1,134 @@
+package com.busbooking.service;
+
+import com.busbooking.model.TripSeat;
+import com.busbooking.model.Vehicle;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Tính giá vé. Toàn bộ phép tính dùng long theo đơn vị nhỏ nhất (VND không có đơn vị lẻ),
+ * chỉ đổi sang BigDecimal ở biên (đọc Route.basePrice, trả response, lưu Ticket.price).
+ *
+ * Giá gốc = basePrice x (1 + phụ thu loại ghế + phụ thu loại xe + phụ thu nhu cầu), làm tròn theo app.pricing.rounding
+ * Giá cuối = giá gốc - (giá gốc x % khuyến mãi + số tiền khuyến mãi), không âm, làm tròn tương tự
+ * Các tỉ lệ tính bằng basis point (1/10000).
+ */
+@Component
+@RequiredArgsConstructor
+public class PricingEngine {
+
+    public static final int BASIS_POINTS = 10_000;
+
+    private static final TripSeat.SeatType[] SEAT_TYPES = TripSeat.SeatType.values();
+
+    private final Environment environment;
+
+    @Value("${app.pricing.rounding:1000}")
+    private long rounding;
+
+    private int[] seatTypeBps;
+    private int[] vehicleTypeBps;
+
+    /**
+     * Khuyến mãi đã đổi sang basis point và đơn vị nhỏ nhất
+     */
+    public record Discount(long percentBps, long amount) {
+        public static final Discount NONE = new Discount(0, 0);
+
+        public static Discount of(PromotionRedemptionService.ActivePromotion promotion) {
+            if (promotion == null) {
+                return NONE;
+            }
+            return new Discount(toBasisPoints(promotion.discountPercentage()), toMinor(promotion.discountAmount()));
+        }
+    }
+
+    /**
+     * Bảng giá theo loại ghế (chỉ số = TripSeat.SeatType.ordinal()) cho một chuyến
+     */
+    public record PriceTable(long[] gross, long[] net) {
+        public long priceOf(TripSeat.SeatType seatType) {
+            return net[seatType.ordinal()];
+        }
+
+        public long grossOf(TripSeat.SeatType seatType) {
+            return gross[seatType.ordinal()];
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        seatTypeBps = new int[SEAT_TYPES.length];
+        for (TripSeat.SeatType type : SEAT_TYPES) {
+            seatTypeBps[type.ordinal()] = percentProperty("app.pricing.seat-surcharge-percent." + type);
+        }
+        Vehicle.VehicleType[] vehicleTypes = Vehicle.VehicleType.values();
+        vehicleTypeBps = new int[vehicleTypes.length];
+        for (Vehicle.VehicleType type : vehicleTypes) {
+            vehicleTypeBps[type.ordinal()] = percentProperty("app.pricing.vehicle-surcharge-percent." + type);
+        }
+        if (rounding <= 0) {
+            rounding = 1;
+        }
+    }
+
+    /**
+     * Tính bảng giá cho mọi loại ghế một lần; định giá cả sơ đồ ghế chỉ còn là tra mảng
+     */
+    public PriceTable priceTable(long basePrice, Vehicle.VehicleType vehicleType, int demandBps, Discount discount) {
+        long[] gross = new long[SEAT_TYPES.length];
+        long[] net = new long[SEAT_TYPES.length];
+        int vehicleBps = vehicleType != null ? vehicleTypeBps[vehicleType.ordinal()] : 0;
+        for (int i = 0; i < SEAT_TYPES.length; i++) {
+            gross[i] = gross(basePrice, seatTypeBps[i] + vehicleBps + demandBps);
+            net[i] = applyDiscount(gross[i], discount);
+        }
+        return new PriceTable(gross, net);
+    }
+
+    public long price(long basePrice, TripSeat.SeatType seatType, Vehicle.VehicleType vehicleType,
+                      int demandBps, Discount discount) {
+        int vehicleBps = vehicleType != null ? vehicleTypeBps[vehicleType.ordinal()] : 0;
+        return applyDiscount(gross(basePrice, seatTypeBps[seatType.ordinal()] + vehicleBps + demandBps), discount);
+    }
+
+    public long gross(long basePrice, int surchargeBps) {
+        long bps = Math.max(0, BASIS_POINTS + surchargeBps);
+        return round(basePrice * bps / BASIS_POINTS);
+    }
+
+    public long applyDiscount(long gross, Discount discount) {
+        if (discount.percentBps() == 0 && discount.amount() == 0) {
+            return gross;
+        }
+        long off = gross * discount.percentBps() / BASIS_POINTS + discount.amount();
+        return round(Math.max(0, gross - off));
+    }
+
+    private long round(long amount) {
+        return (amount + rounding / 2) / rounding * rounding;
+    }
+
+    private int percentProperty(String key) {
+        BigDecimal percent = environment.getProperty(key, BigDecimal.class, BigDecimal.ZERO);
+        return (int) toBasisPoints(percent);
+    }
+
+    public static long toMinor(BigDecimal amount) {
+        return amount == null ? 0 : amount.setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    public static BigDecimal toAmount(long minor) {
+        return BigDecimal.valueOf(minor);
+    }
+
+    public static long toBasisPoints(BigDecimal percent) {
+        return percent == null ? 0 : percent.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+}
@@ -0,0 +1,78 @@
+package com.busbooking.service;
+
+import com.busbooking.dto.response.TripQuoteResponse;
+import com.busbooking.exception.ResourceNotFoundException;
+import com.busbooking.model.Trip;
+import com.busbooking.model.TripSeat;
+import com.busbooking.repository.TripRepository;
+import com.busbooking.repository.TripSeatRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Định giá vé phía server (giá client gửi lên không được dùng)
+ */
+@Service
+@RequiredArgsConstructor
+public class PricingService {
+    
+    private final TripRepository tripRepository;
+    private final TripSeatRepository tripSeatRepository;
+    private final PricingEngine pricingEngine;
+    private final PromotionRedemptionService promotionRedemptionService;
+    private final DynamicPricingService dynamicPricingService;
+    
+    /**
+     * Báo giá mọi ghế của chuyến, có thể kèm mã khuyến mãi
+     */
+    @Transactional(readOnly = true)
+    public TripQuoteResponse quoteTrip(Integer tripId, String promotionCode) {
+        Trip trip = tripRepository.findById(tripId)
+                .orElseThrow(() -> new ResourceNotFoundException("Trip not found with id: " + tripId));
+        PromotionRedemptionService.ActivePromotion promotion = promotionCode != null && !promotionCode.isBlank()
+                ? promotionRedemptionService.resolveForRoute(promotionCode, trip.getRoute().getId())
+                : null;
+        
+        List<TripSeat> tripSeats = tripSeatRepository.findByTripId(tripId);
+        int booked = 0;
+        for (TripSeat seat : tripSeats) {
+            if (seat.getStatus() == TripSeat.SeatStatus.booked) {
+                booked++;
+            }
+        }
+        // Bảng giá chưa khuyến mãi lấy từ cache của DynamicPricingService; có khuyến mãi thì tính thêm một bảng
+        PricingEngine.PriceTable baseTable = dynamicPricingService.priceTable(trip, booked);
+        long basePrice = PricingEngine.toMinor(trip.getRoute().getBasePrice());
+        PricingEngine.PriceTable table = promotion == null ? baseTable : pricingEngine.priceTable(basePrice,
+                trip.getVehicle().getVehicleType(), dynamicPricingService.demandSurchargeBps(trip, booked),
+                PricingEngine.Discount.of(promotion));
+        
+        List<TripQuoteResponse.SeatTypePrice> seatTypes = new ArrayList<>(TripSeat.SeatType.values().length);
+        for (TripSeat.SeatType type : TripSeat.SeatType.values()) {
+            seatTypes.add(new TripQuoteResponse.SeatTypePrice(type.name(), table.grossOf(type), table.priceOf(type)));
+        }
+        
+        List<TripQuoteResponse.SeatPrice> seats = new ArrayList<>(tripSeats.size());
+        for (TripSeat seat : tripSeats) {
+            seats.add(new TripQuoteResponse.SeatPrice(seat.getId(), seat.getSeatNumber(), seat.getSeatType().name(),
+                    seat.getStatus().name(), table.priceOf(seat.getSeatType())));
+        }
+        return new TripQuoteResponse(tripId, promotion != null ? promotion.code() : null, basePrice, seatTypes, seats);
+    }
+    
+    /**
+     * Giá một vé, đổi về BigDecimal để lưu vào Ticket.price; phụ thu nhu cầu đếm ghế đã bán từ trip_seats
+     */
+    public BigDecimal priceTicket(Trip trip, TripSeat.SeatType seatType,
+                                  PromotionRedemptionService.ActivePromotion promotion) {
+        long basePrice = PricingEngine.toMinor(trip.getRoute().getBasePrice());
+        long price = pricingEngine.price(basePrice, seatType, trip.getVehicle().getVehicleType(),
+                dynamicPricingService.demandSurchargeBps(trip), PricingEngine.Discount.of(promotion));
+        return PricingEngine.toAmount(price);
+    }
+}
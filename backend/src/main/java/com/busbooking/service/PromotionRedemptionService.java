@@ -0,0 +1,358 @@
+package com.busbooking.service;
+
+import com.busbooking.exception.ResourceNotFoundException;
+import com.busbooking.model.Promotion;
+import com.busbooking.repository.PromotionRepository;
+import com.busbooking.repository.PromotionRouteRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Kiểm tra và sử dụng mã khuyến mãi lúc đặt vé.
+ * - Khuyến mãi chưa hết hạn được cache trong bộ nhớ theo code, id và tuyến (promotion_routes),
+ *   kiểm tra mã hay tìm khuyến mãi tốt nhất cho chuyến chỉ là tra map, không xuống DB
+ * - Khuyến mãi không gắn tuyến nào áp dụng cho mọi tuyến
+ * - Trừ lượt bằng một câu UPDATE có điều kiện used_count < max_uses trong transaction đặt vé,
+ *   nên không vượt max_uses kể cả khi nhiều người đặt cùng lúc
+ * - Mã đã hết lượt được đánh dấu để các yêu cầu sau bị từ chối ngay, không xuống DB
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PromotionRedemptionService {
+
+    private static final Comparator<ActivePromotion> BY_PERCENTAGE = Comparator
+            .comparing(ActivePromotion::percentage).reversed()
+            .thenComparing(ActivePromotion::amount, Comparator.reverseOrder())
+            .thenComparing(ActivePromotion::id);
+    private static final Comparator<ActivePromotion> BY_AMOUNT = Comparator
+            .comparing(ActivePromotion::amount).reversed()
+            .thenComparing(ActivePromotion::id);
+
+    private final PromotionRepository promotionRepository;
+    private final PromotionRouteRepository promotionRouteRepository;
+
+    private volatile Catalog catalog;
+    private final Set<Integer> exhausted = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Thông tin khuyến mãi đã cache (bất biến, không chứa used_count vì giá trị đó chỉ đúng trong DB)
+     */
+    public record ActivePromotion(Integer id, String code, BigDecimal discountPercentage, BigDecimal discountAmount,
+                                  LocalDate startDate, LocalDate endDate, Integer maxUses, List<Integer> routeIds) {
+
+        public boolean isActiveOn(LocalDate date) {
+            return (startDate == null || !date.isBefore(startDate)) && (endDate == null || !date.isAfter(endDate));
+        }
+
+        public boolean appliesTo(Integer routeId) {
+            return routeIds.isEmpty() || routeIds.contains(routeId);
+        }
+
+        /**
+         * Số tiền giảm cho giá vé (phần trăm cộng số tiền cố định, không vượt quá giá vé)
+         */
+        public BigDecimal discountFor(BigDecimal price) {
+            BigDecimal discount = price.multiply(percentage()).divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP)
+                    .add(amount());
+            return discount.min(price);
+        }
+
+        private BigDecimal percentage() {
+            return discountPercentage != null ? discountPercentage : BigDecimal.ZERO;
+        }
+
+        private BigDecimal amount() {
+            return discountAmount != null ? discountAmount : BigDecimal.ZERO;
+        }
+    }
+
+    /**
+     * Tra mã khuyến mãi và kiểm tra thời hạn, số lượt (không tốn truy vấn DB)
+     */
+    public ActivePromotion resolve(String code) {
+        ActivePromotion promotion = catalog().byCode().get(normalize(code));
+        if (promotion == null) {
+            throw new ResourceNotFoundException("Promotion not found with code: " + code);
+        }
+        return checkUsable(promotion, LocalDate.now());
+    }
+
+    public ActivePromotion resolve(Integer promotionId) {
+        ActivePromotion promotion = catalog().byId().get(promotionId);
+        if (promotion == null) {
+            throw new IllegalStateException("Mã khuyến mãi không tồn tại hoặc đã hết hạn");
+        }
+        return checkUsable(promotion, LocalDate.now());
+    }
+
+    /**
+     * Tra mã và kiểm tra mã có áp dụng cho tuyến của chuyến đang đặt
+     */
+    public ActivePromotion resolveForRoute(String code, Integer routeId) {
+        ActivePromotion promotion = resolve(code);
+        if (!promotion.appliesTo(routeId)) {
+            throw new IllegalStateException("Mã khuyến mãi không áp dụng cho tuyến này");
+        }
+        return promotion;
+    }
+
+    /**
+     * Các khuyến mãi dùng được cho tuyến, xếp theo số tiền giảm với giá vé đã cho.
+     * Trong byPercentage (chỉ giảm phần trăm) và byAmount (chỉ giảm tiền cố định) thứ tự sẵn có cũng là thứ tự
+     * số tiền giảm với mọi giá vé, nên mỗi danh sách chỉ cần xét limit khuyến mãi dùng được đầu tiên;
+     * chỉ danh sách combined (vừa phần trăm vừa tiền cố định, thường rất ít) phải xét hết.
+     */
+    public List<ActivePromotion> findApplicable(Integer routeId, BigDecimal price, int limit) {
+        Catalog current = catalog();
+        LocalDate today = LocalDate.now();
+        List<ActivePromotion> candidates = new ArrayList<>();
+        for (RouteIndex index : List.of(current.indexFor(routeId), current.global())) {
+            addUsable(index.byPercentage(), today, limit, candidates);
+            addUsable(index.byAmount(), today, limit, candidates);
+            addUsable(index.combined(), today, Integer.MAX_VALUE, candidates);
+        }
+        return candidates.stream()
+                .sorted(Comparator.comparing((ActivePromotion p) -> p.discountFor(price)).reversed()
+                        .thenComparing(ActivePromotion::id))
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * Dùng một lượt khuyến mãi. Phải gọi trong transaction đặt vé để lượt được trả lại nếu đặt vé thất bại.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void redeem(Integer promotionId) {
+        if (promotionRepository.redeem(promotionId, LocalDate.now()) == 0) {
+            exhausted.add(promotionId);
+            throw new IllegalStateException("Mã khuyến mãi đã hết lượt sử dụng hoặc hết hạn");
+        }
+    }
+
+    /**
+     * Trả lại một lượt (vé dùng khuyến mãi bị hủy)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void release(Integer promotionId) {
+        if (promotionRepository.release(promotionId) > 0) {
+            exhausted.remove(promotionId);
+        }
+    }
+
+    /**
+     * Cập nhật cache cho một khuyến mãi vừa tạo/sửa/xóa, chỉ dựng lại chỉ mục của các tuyến liên quan.
+     * Nếu đang trong transaction thì chờ commit xong mới cập nhật.
+     */
+    public void refresh(Integer promotionId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    applyRefresh(promotionId);
+                }
+            });
+        } else {
+            applyRefresh(promotionId);
+        }
+    }
+
+    /**
+     * Tải lại toàn bộ cache định kỳ để bỏ mã đã hết hạn và nhận thay đổi ngoài ứng dụng
+     */
+    @Scheduled(fixedDelayString = "${app.promotion.cache-refresh-ms:600000}")
+    public synchronized void reload() {
+        catalog = load();
+    }
+
+    private synchronized void applyRefresh(Integer promotionId) {
+        Catalog current = catalog;
+        if (current == null) {
+            catalog = load();
+            return;
+        }
+        ActivePromotion previous = current.byId().get(promotionId);
+        ActivePromotion updated = promotionRepository.findById(promotionId)
+                .filter(p -> p.getEndDate() == null || !p.getEndDate().isBefore(LocalDate.now()))
+                .map(p -> toActive(p, promotionRouteRepository.findRouteIdsByPromotionId(promotionId)))
+                .orElse(null);
+
+        Map<String, ActivePromotion> byCode = new HashMap<>(current.byCode());
+        Map<Integer, ActivePromotion> byId = new HashMap<>(current.byId());
+        if (previous != null) {
+            byCode.remove(normalize(previous.code()));
+            byId.remove(promotionId);
+        }
+        if (updated != null) {
+            byCode.put(normalize(updated.code()), updated);
+            byId.put(promotionId, updated);
+        }
+
+        // Chỉ dựng lại chỉ mục của các tuyến cũ và mới của khuyến mãi này
+        Set<Integer> affectedRoutes = new HashSet<>();
+        boolean globalAffected = false;
+        for (ActivePromotion p : new ActivePromotion[]{previous, updated}) {
+            if (p != null) {
+                affectedRoutes.addAll(p.routeIds());
+                globalAffected |= p.routeIds().isEmpty();
+            }
+        }
+        Map<Integer, RouteIndex> byRoute = new HashMap<>(current.byRoute());
+        for (Integer routeId : affectedRoutes) {
+            List<ActivePromotion> members = byId.values().stream()
+                    .filter(p -> p.routeIds().contains(routeId))
+                    .toList();
+            if (members.isEmpty()) {
+                byRoute.remove(routeId);
+            } else {
+                byRoute.put(routeId, RouteIndex.of(members));
+            }
+        }
+        RouteIndex global = globalAffected
+                ? RouteIndex.of(byId.values().stream().filter(p -> p.routeIds().isEmpty()).toList())
+                : current.global();
+
+        exhausted.remove(promotionId);
+        catalog = new Catalog(Map.copyOf(byCode), Map.copyOf(byId), Map.copyOf(byRoute), global);
+    }
+
+    private ActivePromotion checkUsable(ActivePromotion promotion, LocalDate today) {
+        if (!promotion.isActiveOn(today)) {
+            throw new IllegalStateException("Mã khuyến mãi chưa đến hoặc đã hết thời gian áp dụng");
+        }
+        if (exhausted.contains(promotion.id())) {
+            throw new IllegalStateException("Mã khuyến mãi đã hết lượt sử dụng");
+        }
+        return promotion;
+    }
+
+    private boolean isUsable(ActivePromotion promotion, LocalDate today) {
+        return promotion.isActiveOn(today) && !exhausted.contains(promotion.id());
+    }
+
+    private void addUsable(List<ActivePromotion> ranked, LocalDate today, int limit, List<ActivePromotion> target) {
+        int added = 0;
+        for (ActivePromotion promotion : ranked) {
+            if (added >= limit) {
+                return;
+            }
+            if (isUsable(promotion, today)) {
+                target.add(promotion);
+                added++;
+            }
+        }
+    }
+
+    private Catalog catalog() {
+        Catalog current = catalog;
+        if (current == null) {
+            synchronized (this) {
+                if (catalog == null) {
+                    catalog = load();
+                }
+                current = catalog;
+            }
+        }
+        return current;
+    }
+
+    private Catalog load() {
+        List<Promotion> promotions = promotionRepository.findNotExpired(LocalDate.now());
+        Map<Integer, List<Integer>> routesByPromotion = new HashMap<>();
+        if (!promotions.isEmpty()) {
+            List<Integer> ids = promotions.stream().map(Promotion::getId).toList();
+            for (Object[] link : promotionRouteRepository.findLinks(ids)) {
+                routesByPromotion.computeIfAbsent((Integer) link[0], id -> new ArrayList<>()).add((Integer) link[1]);
+            }
+        }
+
+        Map<String, ActivePromotion> byCode = new HashMap<>();
+        Map<Integer, ActivePromotion> byId = new HashMap<>();
+        Map<Integer, List<ActivePromotion>> membersByRoute = new HashMap<>();
+        List<ActivePromotion> globalMembers = new ArrayList<>();
+        Set<Integer> soldOut = ConcurrentHashMap.newKeySet();
+        for (Promotion p : promotions) {
+            ActivePromotion promotion = toActive(p, routesByPromotion.getOrDefault(p.getId(), List.of()));
+            byCode.put(normalize(p.getCode()), promotion);
+            byId.put(p.getId(), promotion);
+            if (promotion.routeIds().isEmpty()) {
+                globalMembers.add(promotion);
+            }
+            for (Integer routeId : promotion.routeIds()) {
+                membersByRoute.computeIfAbsent(routeId, id -> new ArrayList<>()).add(promotion);
+            }
+            if (p.getMaxUses() != null && p.getUsedCount() != null && p.getUsedCount() >= p.getMaxUses()) {
+                soldOut.add(p.getId());
+            }
+        }
+        Map<Integer, RouteIndex> byRoute = new HashMap<>();
+        membersByRoute.forEach((routeId, members) -> byRoute.put(routeId, RouteIndex.of(members)));
+
+        exhausted.retainAll(soldOut);
+        exhausted.addAll(soldOut);
+        log.debug("Loaded {} active promotions for {} routes", byId.size(), byRoute.size());
+        return new Catalog(Map.copyOf(byCode), Map.copyOf(byId), Map.copyOf(byRoute), RouteIndex.of(globalMembers));
+    }
+
+    private ActivePromotion toActive(Promotion p, List<Integer> routeIds) {
+        return new ActivePromotion(p.getId(), p.getCode(), p.getDiscountPercentage(), p.getDiscountAmount(),
+                p.getStartDate(), p.getEndDate(), p.getMaxUses(), List.copyOf(routeIds));
+    }
+
+    private String normalize(String code) {
+        return code == null ? "" : code.trim().toUpperCase();
+    }
+
+    /**
+     * Khuyến mãi của một tuyến: chỉ giảm phần trăm (xếp giảm dần theo phần trăm), chỉ giảm tiền cố định
+     * (xếp giảm dần theo số tiền) và loại kết hợp cả hai (số tiền giảm phụ thuộc giá vé nên không xếp sẵn)
+     */
+    private record RouteIndex(List<ActivePromotion> byPercentage, List<ActivePromotion> byAmount,
+                              List<ActivePromotion> combined) {
+        private static final RouteIndex EMPTY = new RouteIndex(List.of(), List.of(), List.of());
+
+        private static RouteIndex of(List<ActivePromotion> members) {
+            if (members.isEmpty()) {
+                return EMPTY;
+            }
+            List<ActivePromotion> byPercentage = members.stream()
+                    .filter(p -> p.percentage().signum() > 0 && p.amount().signum() <= 0)
+                    .sorted(BY_PERCENTAGE)
+                    .toList();
+            List<ActivePromotion> byAmount = members.stream()
+                    .filter(p -> p.percentage().signum() <= 0)
+                    .sorted(BY_AMOUNT)
+                    .toList();
+            List<ActivePromotion> combined = members.stream()
+                    .filter(p -> p.percentage().signum() > 0 && p.amount().signum() > 0)
+                    .toList();
+            return new RouteIndex(byPercentage, byAmount, combined);
+        }
+    }
+
+    private record Catalog(Map<String, ActivePromotion> byCode, Map<Integer, ActivePromotion> byId,
+                           Map<Integer, RouteIndex> byRoute, RouteIndex global) {
+
+        private RouteIndex indexFor(Integer routeId) {
+            return byRoute.getOrDefault(routeId, RouteIndex.EMPTY);
+        }
+    }
+}
@@ -1,52 +1,157 @@
 package com.busbooking.service;
 
 import com.busbooking.dto.request.PromotionRequest;
+import com.busbooking.dto.response.PromotionOfferResponse;
 import com.busbooking.dto.response.PromotionResponse;
 import com.busbooking.exception.ResourceNotFoundException;
+import com.busbooking.exception.StaleVersionException;
 import com.busbooking.mapper.PromotionMapper;
 import com.busbooking.model.Promotion;
+import com.busbooking.model.Route;
+import com.busbooking.model.Trip;
 import com.busbooking.repository.PromotionRepository;
+import com.busbooking.repository.PromotionRouteRepository;
+import com.busbooking.repository.RouteRepository;
+import com.busbooking.repository.TripRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class PromotionService {
+    private static final String INSERT_ROUTE_SQL =
+            "INSERT INTO promotion_routes (promotion_id, route_id) VALUES (?, ?)";
+
     private final PromotionRepository promotionRepository;
+    private final PromotionRouteRepository promotionRouteRepository;
+    private final RouteRepository routeRepository;
+    private final TripRepository tripRepository;
     private final PromotionMapper promotionMapper;
+    private final PromotionRedemptionService promotionRedemptionService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TripSeatService tripSeatService;
+    private final PricingEngine pricingEngine;
 
     public List<PromotionResponse> getAllPromotions() {
-        return promotionRepository.findAll().stream()
-                .map(promotionMapper::toResponse)
+        List<Promotion> promotions = promotionRepository.findAll();
+        Map<Integer, List<Integer>> routesByPromotion = new HashMap<>();
+        if (!promotions.isEmpty()) {
+            List<Integer> ids = promotions.stream().map(Promotion::getId).toList();
+            for (Object[] link : promotionRouteRepository.findLinks(ids)) {
+                routesByPromotion.computeIfAbsent((Integer) link[0], id -> new ArrayList<>()).add((Integer) link[1]);
+            }
+        }
+        return promotions.stream()
+                .map(p -> toResponse(p, routesByPromotion.getOrDefault(p.getId(), List.of())))
                 .collect(Collectors.toList());
     }
 
     public PromotionResponse getPromotionById(Integer id) {
         Promotion p = promotionRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Promotion not found with id: " + id));
-        return promotionMapper.toResponse(p);
+        return toResponse(p, promotionRouteRepository.findRouteIdsByPromotionId(id));
+    }
+
+    /**
+     * Kiểm tra mã lúc thanh toán (tra cache, không trừ lượt)
+     */
+    public PromotionResponse validateCode(String code) {
+        PromotionRedemptionService.ActivePromotion p = promotionRedemptionService.resolve(code);
+        return new PromotionResponse(p.id(), p.code(), p.discountPercentage(), p.discountAmount(),
+                p.startDate(), p.endDate(), p.maxUses(), null, null, p.routeIds(), null);
+    }
+
+    /**
+     * Các khuyến mãi tốt nhất cho một chuyến (theo tuyến của chuyến), xếp theo số tiền giảm trên giá vé
+     * thấp nhất hiện tại của chuyến (đã gồm phụ thu loại xe, loại ghế và nhu cầu), giảm giá tính như lúc đặt vé
+     */
+    public List<PromotionOfferResponse> getBestPromotionsForTrip(Integer tripId, int limit) {
+        Trip trip = tripRepository.findById(tripId)
+                .orElseThrow(() -> new ResourceNotFoundException("Trip not found with id: " + tripId));
+        long gross = tripSeatService.fromPrice(trip);
+        BigDecimal price = PricingEngine.toAmount(gross);
+        return promotionRedemptionService.findApplicable(trip.getRoute().getId(), price, limit).stream()
+                .map(p -> {
+                    long net = pricingEngine.applyDiscount(gross, PricingEngine.Discount.of(p));
+                    return new PromotionOfferResponse(p.id(), p.code(),
+                            PricingEngine.toAmount(gross - net), PricingEngine.toAmount(net));
+                })
+                .collect(Collectors.toList());
     }
 
+    @Transactional
     public PromotionResponse createPromotion(PromotionRequest request) {
         Promotion p = promotionMapper.toEntity(request);
         Promotion saved = promotionRepository.save(p);
-        return promotionMapper.toResponse(saved);
+        List<Integer> routeIds = request.getRouteIds() != null ? saveRoutes(saved, request.getRouteIds()) : List.of();
+        promotionRedemptionService.refresh(saved.getId());
+        return toResponse(saved, routeIds);
     }
 
+    /**
+     * Cập nhật khuyến mãi trên đúng version client đã đọc; xung đột trả 409, không tự chạy lại
+     */
+    @Transactional
     public PromotionResponse updatePromotion(Integer id, PromotionRequest request) {
         Promotion p = promotionRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Promotion not found with id: " + id));
+        if (!Objects.equals(request.getVersion(), p.getVersion())) {
+            throw new StaleVersionException("Promotion", id, request.getVersion(), p.getVersion());
+        }
         promotionMapper.updateEntity(p, request);
-        Promotion updated = promotionRepository.save(p);
-        return promotionMapper.toResponse(updated);
+        Promotion updated = promotionRepository.saveAndFlush(p);
+        List<Integer> routeIds = request.getRouteIds() != null
+                ? saveRoutes(updated, request.getRouteIds())
+                : promotionRouteRepository.findRouteIdsByPromotionId(id);
+        promotionRedemptionService.refresh(id);
+        return toResponse(updated, routeIds);
     }
 
+    @Transactional
     public void deletePromotion(Integer id) {
         Promotion p = promotionRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Promotion not found with id: " + id));
+        promotionRouteRepository.deleteByPromotionId(id);
         promotionRepository.delete(p);
+        promotionRedemptionService.refresh(id);
+    }
+
+    private List<Integer> saveRoutes(Promotion promotion, List<Integer> requestedRouteIds) {
+        promotionRouteRepository.deleteByPromotionId(promotion.getId());
+        List<Integer> routeIds = new ArrayList<>(new LinkedHashSet<>(requestedRouteIds));
+        if (routeIds.isEmpty()) {
+            return routeIds;
+        }
+        // Kiểm tra tuyến bằng một câu SELECT và ghi liên kết bằng một JDBC batch, không theo từng tuyến
+        Set<Integer> existing = routeRepository.findAllById(routeIds).stream()
+                .map(Route::getId)
+                .collect(Collectors.toSet());
+        for (Integer routeId : routeIds) {
+            if (!existing.contains(routeId)) {
+                throw new ResourceNotFoundException("Route not found with id: " + routeId);
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_ROUTE_SQL, routeIds.stream()
+                .map(routeId -> new Object[]{promotion.getId(), routeId})
+                .toList());
+        return routeIds;
+    }
+
+    private PromotionResponse toResponse(Promotion p, List<Integer> routeIds) {
+        PromotionResponse response = promotionMapper.toResponse(p);
+        response.setRouteIds(routeIds);
+        return response;
     }
 }
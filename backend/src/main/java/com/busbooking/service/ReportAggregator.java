@@ -0,0 +1,288 @@
+package com.busbooking.service;
+
+import com.busbooking.dto.event.TicketEvent;
+import com.busbooking.model.OutboxEvent;
+import com.busbooking.model.Ticket;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cập nhật bảng reports theo kiểu cộng dồn từ sự kiện vé trong booking_outbox.
+ * - Mỗi sự kiện ghi phần cộng/trừ doanh thu và số khách của chuyến vào report_deltas (khóa chính là id sự kiện)
+ *   trước khi relay đánh dấu xong, nên tắt đột ngột không mất số liệu và giao lại không cộng hai lần
+ * - Định kỳ gộp các delta chưa áp dụng theo chuyến, cộng vào reports (một dòng mỗi chuyến/loại/ngày khởi hành),
+ *   tính lại empty_seat_ratio và đánh dấu delta đã áp dụng, tất cả trong một transaction
+ * - Dashboard chỉ đọc reports, không quét tickets
+ * - flush() không chờ: đang có flush/rebuild khác trong instance thì bỏ lượt, không giữ thread scheduler dùng chung
+ * Khi số liệu lệch (vé bị xóa trực tiếp...) dùng rebuild() cho khoảng ngày bị ảnh hưởng.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReportAggregator implements BookingEventHandler {
+
+    private static final String ADD_TOTAL_SQL =
+            "INSERT INTO reports (trip_id, report_type, value, report_date) " +
+            "SELECT t.id, ?, ?, DATE(t.departure_time) FROM trips t WHERE t.id = ? " +
+            "ON DUPLICATE KEY UPDATE value = reports.value + VALUES(value)";
+
+    private static final String EMPTY_SEAT_RATIO_SQL =
+            "INSERT INTO reports (trip_id, report_type, value, report_date) " +
+            "SELECT r.trip_id, 'empty_seat_ratio', GREATEST(0, 1 - r.value / v.total_seats), r.report_date " +
+            "FROM reports r JOIN trips t ON t.id = r.trip_id JOIN vehicles v ON v.id = t.vehicle_id " +
+            "WHERE r.trip_id = ? AND r.report_type = 'passenger_count' AND v.total_seats > 0 " +
+            "ON DUPLICATE KEY UPDATE value = VALUES(value)";
+
+    // Giao lại cùng sự kiện thì giữ nguyên delta đã ghi
+    private static final String RECORD_DELTA_SQL =
+            "INSERT INTO report_deltas (event_id, trip_id, revenue, passengers) VALUES (?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE event_id = event_id";
+
+    // SKIP LOCKED để flush trên nhiều instance không áp dụng cùng một delta hai lần
+    private static final String PENDING_DELTAS_SQL =
+            "SELECT event_id, trip_id, revenue, passengers FROM report_deltas " +
+            "WHERE applied_at IS NULL ORDER BY event_id LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    private static final String MARK_APPLIED_SQL =
+            "UPDATE report_deltas SET applied_at = ? WHERE event_id = ?";
+
+    // Giữ delta đã áp dụng bằng thời gian outbox còn có thể giao lại sự kiện
+    private static final String PURGE_DELTAS_SQL =
+            "DELETE FROM report_deltas WHERE applied_at < ?";
+
+    // Hàng rào của rebuild: sự kiện vé chưa có delta đã áp dụng; delta của chúng được đánh dấu áp dụng nếu vé
+    // đã nằm trong snapshot rebuild đọc
+    private static final String UNAPPLIED_EVENTS_SQL =
+            "SELECT o.id, o.payload FROM booking_outbox o LEFT JOIN report_deltas d ON d.event_id = o.id " +
+            "WHERE o.event_type IN (?, ?) AND (d.event_id IS NULL OR d.applied_at IS NULL)";
+
+    private static final String TRIPS_IN_RANGE_SQL =
+            "SELECT id FROM trips WHERE departure_time >= ? AND departure_time < ?";
+
+    // Delta chưa ghi (relay chưa xử lý xong) thì ghi sẵn dòng rỗng đã áp dụng để lần giao sau không cộng nữa
+    private static final String FENCE_DELTA_SQL =
+            "INSERT INTO report_deltas (event_id, trip_id, revenue, passengers, applied_at) VALUES (?, ?, 0, 0, ?) " +
+            "ON DUPLICATE KEY UPDATE applied_at = COALESCE(applied_at, VALUES(applied_at))";
+
+    private static final String DELETE_RANGE_SQL =
+            "DELETE FROM reports WHERE trip_id IN " +
+            "(SELECT id FROM trips WHERE departure_time >= ? AND departure_time < ?)";
+
+    // Đọc thường (không khóa) để cùng snapshot với UNAPPLIED_EVENTS_SQL; INSERT ... SELECT sẽ đọc bản mới nhất
+    private static final String REBUILD_TOTALS_SQL =
+            "SELECT t.id, DATE(t.departure_time), COALESCE(SUM(tk.price), 0), COUNT(*) " +
+            "FROM trips t JOIN tickets tk ON tk.trip_id = t.id AND tk.status <> 'cancelled' " +
+            "WHERE t.departure_time >= ? AND t.departure_time < ? GROUP BY t.id, DATE(t.departure_time)";
+
+    private static final String INSERT_TOTAL_SQL =
+            "INSERT INTO reports (trip_id, report_type, value, report_date) VALUES (?, ?, ?, ?)";
+
+    private static final String REBUILD_RATIO_SQL =
+            "INSERT INTO reports (trip_id, report_type, value, report_date) " +
+            "SELECT r.trip_id, 'empty_seat_ratio', GREATEST(0, 1 - r.value / v.total_seats), r.report_date " +
+            "FROM reports r JOIN trips t ON t.id = r.trip_id JOIN vehicles v ON v.id = t.vehicle_id " +
+            "WHERE r.report_type = 'passenger_count' AND v.total_seats > 0 " +
+            "AND t.departure_time >= ? AND t.departure_time < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final OutboxService outboxService;
+
+    @Value("${app.report.flush-batch-size:5000}")
+    private int flushBatchSize;
+
+    @Value("${app.report.delta-retention-days:7}")
+    private int deltaRetentionDays;
+
+    private final Lock lock = new ReentrantLock();
+    private TransactionTemplate transactionTemplate;
+    private TransactionTemplate rebuildTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        // REPEATABLE READ: các câu đọc của rebuild thấy cùng một snapshot (vé và sự kiện outbox ghi cùng transaction)
+        rebuildTemplate = new TransactionTemplate(transactionManager);
+        rebuildTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    @Override
+    public boolean supports(String eventType) {
+        return OutboxService.TICKET_CREATED.equals(eventType)
+                || OutboxService.TICKET_STATUS_CHANGED.equals(eventType);
+    }
+
+    /**
+     * Ghi delta của sự kiện xuống report_deltas; relay chỉ đánh dấu sự kiện xong sau khi câu này thành công
+     */
+    @Override
+    public void handle(OutboxEvent event) {
+        TicketEvent ticket = outboxService.readPayload(event, TicketEvent.class);
+        boolean counted = counts(ticket.getStatus());
+        boolean wasCounted = OutboxService.TICKET_STATUS_CHANGED.equals(event.getEventType())
+                && counts(ticket.getPreviousStatus());
+        if (counted == wasCounted || ticket.getTripId() == null) {
+            return;
+        }
+
+        int sign = counted ? 1 : -1;
+        BigDecimal price = ticket.getPrice() != null ? ticket.getPrice() : BigDecimal.ZERO;
+        jdbcTemplate.update(RECORD_DELTA_SQL, event.getId(), ticket.getTripId(),
+                sign > 0 ? price : price.negate(), sign);
+    }
+
+    /**
+     * Cộng các delta chưa áp dụng vào reports theo lô; lỗi thì cả lô rollback và được thử lại ở lần sau
+     */
+    @Scheduled(fixedDelayString = "${app.report.flush-interval-ms:10000}")
+    public void flush() {
+        if (!lock.tryLock()) {
+            log.debug("Report flush or rebuild already running, skipping");
+            return;
+        }
+        try {
+            int applied;
+            do {
+                Integer count = transactionTemplate.execute(status -> applyPendingDeltas());
+                applied = count != null ? count : 0;
+            } while (applied == flushBatchSize);
+        } catch (RuntimeException e) {
+            log.warn("Flushing report totals failed, will retry: {}", e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Xóa delta đã áp dụng quá app.report.delta-retention-days (mỗi ngày lúc 3h30 sáng)
+     */
+    @Scheduled(cron = "${app.report.delta-purge-cron:0 30 3 * * *}")
+    public void purgeAppliedDeltas() {
+        Timestamp before = Timestamp.valueOf(LocalDateTime.now().minusDays(deltaRetentionDays));
+        Integer deleted = transactionTemplate.execute(status -> jdbcTemplate.update(PURGE_DELTAS_SQL, before));
+        log.info("Purged {} applied report deltas", deleted);
+    }
+
+    private int applyPendingDeltas() {
+        List<Long> eventIds = new ArrayList<>();
+        Map<Integer, Delta> byTrip = new LinkedHashMap<>();
+        jdbcTemplate.query(PENDING_DELTAS_SQL, rs -> {
+            eventIds.add(rs.getLong("event_id"));
+            byTrip.merge(rs.getInt("trip_id"),
+                    new Delta(rs.getBigDecimal("revenue"), rs.getInt("passengers")), Delta::plus);
+        }, flushBatchSize);
+        if (eventIds.isEmpty()) {
+            return 0;
+        }
+
+        List<Object[]> totals = new ArrayList<>(byTrip.size() * 2);
+        List<Object[]> trips = new ArrayList<>(byTrip.size());
+        byTrip.forEach((tripId, delta) -> {
+            if (!delta.isZero()) {
+                totals.add(new Object[]{"revenue", delta.revenue(), tripId});
+                totals.add(new Object[]{"passenger_count", delta.passengers(), tripId});
+                trips.add(new Object[]{tripId});
+            }
+        });
+        jdbcTemplate.batchUpdate(ADD_TOTAL_SQL, totals);
+        jdbcTemplate.batchUpdate(EMPTY_SEAT_RATIO_SQL, trips);
+
+        Timestamp appliedAt = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(MARK_APPLIED_SQL, eventIds.stream()
+                .map(eventId -> new Object[]{appliedAt, eventId})
+                .toList());
+        log.debug("Applied {} report deltas to {} trips", eventIds.size(), byTrip.size());
+        return eventIds.size();
+    }
+
+    /**
+     * Tính lại reports cho các chuyến khởi hành trong [from, to] từ bảng tickets.
+     * Chỉ dùng để sửa số liệu, dashboard không bao giờ cần gọi.
+     * Hàng rào chống cộng hai lần: sự kiện vé thấy được trong snapshot đã nằm trong số liệu tính lại, nên delta
+     * của chúng (kể cả delta relay chưa kịp ghi) được đánh dấu đã áp dụng trong cùng transaction; sự kiện
+     * commit sau snapshot vẫn được flush cộng như bình thường.
+     */
+    public int rebuild(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Ngày kết thúc phải sau ngày bắt đầu");
+        }
+        Timestamp start = Timestamp.valueOf(from.atStartOfDay());
+        Timestamp end = Timestamp.valueOf(to.plusDays(1).atStartOfDay());
+        lock.lock();
+        try {
+            Integer rows = rebuildTemplate.execute(status -> rebuildRange(start, end));
+            log.info("Rebuilt reports for trips departing {} - {}: {} rows", from, to, rows);
+            return rows != null ? rows : 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int rebuildRange(Timestamp start, Timestamp end) {
+        // Đọc thường trước mọi câu ghi: snapshot được tạo ở câu đọc đầu tiên
+        Set<Integer> tripIds = new HashSet<>(jdbcTemplate.queryForList(TRIPS_IN_RANGE_SQL, Integer.class, start, end));
+        Map<Long, Integer> fencedEvents = new LinkedHashMap<>();
+        jdbcTemplate.query(UNAPPLIED_EVENTS_SQL, rs -> {
+            OutboxEvent event = new OutboxEvent();
+            event.setId(rs.getLong("id"));
+            event.setPayload(rs.getString("payload"));
+            Integer tripId = outboxService.readPayload(event, TicketEvent.class).getTripId();
+            if (tripId != null && tripIds.contains(tripId)) {
+                fencedEvents.put(event.getId(), tripId);
+            }
+        }, OutboxService.TICKET_CREATED, OutboxService.TICKET_STATUS_CHANGED);
+        List<Object[]> totals = new ArrayList<>();
+        jdbcTemplate.query(REBUILD_TOTALS_SQL, rs -> {
+            int tripId = rs.getInt(1);
+            Date reportDate = rs.getDate(2);
+            totals.add(new Object[]{tripId, "revenue", rs.getBigDecimal(3), reportDate});
+            totals.add(new Object[]{tripId, "passenger_count", rs.getLong(4), reportDate});
+        }, start, end);
+
+        // Khóa delta trước reports (cùng thứ tự với flush) để không deadlock với flush ở instance khác
+        Timestamp appliedAt = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(FENCE_DELTA_SQL, fencedEvents.entrySet().stream()
+                .map(entry -> new Object[]{entry.getKey(), entry.getValue(), appliedAt})
+                .toList());
+        jdbcTemplate.update(DELETE_RANGE_SQL, start, end);
+        jdbcTemplate.batchUpdate(INSERT_TOTAL_SQL, totals);
+        return totals.size() + jdbcTemplate.update(REBUILD_RATIO_SQL, start, end);
+    }
+
+    private boolean counts(String status) {
+        return status != null && !Ticket.Status.cancelled.name().equals(status)
+                && !TicketEvent.STATUS_DELETED.equals(status);
+    }
+
+    private record Delta(BigDecimal revenue, int passengers) {
+        private Delta plus(Delta other) {
+            return new Delta(revenue.add(other.revenue), passengers + other.passengers);
+        }
+
+        private boolean isZero() {
+            return passengers == 0 && revenue.signum() == 0;
+        }
+    }
+}
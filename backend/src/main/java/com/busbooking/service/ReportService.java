@@ -0,0 +1,46 @@
+package com.busbooking.service;
+
+import com.busbooking.dto.response.DailyReportResponse;
+import com.busbooking.dto.response.ReportResponse;
+import com.busbooking.model.Report;
+import com.busbooking.repository.ReportRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Đọc báo cáo đã tính sẵn (ReportAggregator cập nhật bảng reports)
+ */
+@Service
+@RequiredArgsConstructor
+public class ReportService {
+    
+    private final ReportRepository reportRepository;
+    private final ReportAggregator reportAggregator;
+    
+    public List<ReportResponse> getReportsByTrip(Integer tripId) {
+        return reportRepository.findByTripId(tripId);
+    }
+    
+    public List<ReportResponse> getReports(LocalDate from, LocalDate to, Report.ReportType type) {
+        validateRange(from, to);
+        return reportRepository.findByDateRange(from, to, type);
+    }
+    
+    public List<DailyReportResponse> getDailySummary(LocalDate from, LocalDate to) {
+        validateRange(from, to);
+        return reportRepository.summarizeByDate(from, to);
+    }
+    
+    public int rebuild(LocalDate from, LocalDate to) {
+        return reportAggregator.rebuild(from, to);
+    }
+    
+    private void validateRange(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Ngày kết thúc phải sau ngày bắt đầu");
+        }
+    }
+}
@@ -6,11 +6,11 @@ import com.busbooking.dto.response.ScheduleResponse;
 import com.busbooking.exception.ResourceNotFoundException;
 import com.busbooking.mapper.RouteMapper;
 import com.busbooking.model.Route;
-import com.busbooking.model.Trip;
 import com.busbooking.repository.RouteRepository;
 import com.busbooking.repository.TripRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -23,18 +23,21 @@ public class RouteService {
     private final TripRepository tripRepository;
     private final RouteMapper routeMapper;
     
+    @Transactional(readOnly = true)
     public List<RouteResponse> getAllRoutes() {
         return routeRepository.findAll().stream()
                 .map(routeMapper::toResponse)
                 .collect(Collectors.toList());
     }
     
+    @Transactional(readOnly = true)
     public RouteResponse getRouteById(Integer id) {
         Route route = routeRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Route not found with id: " + id));
         return routeMapper.toResponse(route);
     }
     
+    @Transactional(readOnly = true)
     public List<RouteResponse> searchRoutes(String from, String to) {
         List<Route> routes;
         if (from != null && to != null) {
@@ -97,20 +100,28 @@ public class RouteService {
         return routeMapper.toResponse(updatedRoute);
     }
     
+    @Transactional(readOnly = true)
     public List<ScheduleResponse> getSchedules() {
         List<Route> routes = routeRepository.findAll();
         
+        // Số chuyến và loại xe của mọi tuyến lấy bằng một truy vấn gom nhóm thay vì tải chuyến của từng tuyến
+        Map<Integer, Integer> tripCounts = new HashMap<>();
+        Map<Integer, Set<String>> vehicleTypesByRoute = new HashMap<>();
+        for (Object[] row : tripRepository.countTripsByRouteAndVehicleType()) {
+            Integer routeId = (Integer) row[0];
+            tripCounts.merge(routeId, ((Long) row[3]).intValue(), Integer::sum);
+            // Chỉ lấy các loại xe đang hoạt động phục vụ tuyến này
+            if (Boolean.TRUE.equals(row[2])) {
+                vehicleTypesByRoute.computeIfAbsent(routeId, id -> new HashSet<>())
+                        .add(getVehicleTypeLabel(row[1].toString()));
+            }
+        }
+        
         return routes.stream().map(route -> {
-            List<Trip> trips = tripRepository.findByRouteId(route.getId());
-            
-            // Lấy các loại xe duy nhất phục vụ tuyến này
-            Set<String> vehicleTypes = trips.stream()
-                    .filter(trip -> trip.getVehicle() != null && trip.getVehicle().getIsActive())
-                    .map(trip -> getVehicleTypeLabel(trip.getVehicle().getVehicleType().name()))
-                    .collect(Collectors.toSet());
+            Set<String> vehicleTypes = vehicleTypesByRoute.get(route.getId());
             
             // Nếu không có chuyến nào hoặc không có xe active, để "---"
-            if (vehicleTypes.isEmpty()) {
+            if (vehicleTypes == null) {
                 vehicleTypes = new HashSet<>();
                 vehicleTypes.add("---");
             }
@@ -123,7 +134,7 @@ public class RouteService {
                     route.getBasePrice(),
                     route.getEstimatedDuration(),
                     vehicleTypes,
-                    trips.size()
+                    tripCounts.getOrDefault(route.getId(), 0)
             );
         }).collect(Collectors.toList());
     }
@@ -0,0 +1,342 @@
+package com.busbooking.service;
+
+import com.busbooking.exception.ResourceNotFoundException;
+import com.busbooking.model.Seat;
+import com.busbooking.model.SeatLayout;
+import com.busbooking.model.Vehicle;
+import com.busbooking.repository.SeatRepository;
+import com.busbooking.repository.VehicleRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Parse và cache sơ đồ ghế của xe.
+ * - Vehicle.seatsLayout dạng JSON: {"rows": 10, "columns": 4, "type": "standard", "floors": 1,
+ *   "seats": [{"number": "A1", "type": "vip"}, ...]} ("floors" và "seats" không bắt buộc)
+ * - Nếu xe đã có ghế mẫu trong bảng seats thì ghế mẫu là nguồn chính, JSON chỉ cung cấp số cột/tầng;
+ *   JSON cũ bị hỏng khi đó chỉ ghi cảnh báo và dùng mặc định, không làm hỏng sơ đồ ghế
+ * - Kết quả được cache theo vehicleId và intern theo nội dung, xóa cache khi xe hoặc ghế mẫu thay đổi.
+ *   Đọc trong transaction thì chỉ đưa vào cache sau khi commit; mỗi lần xóa tăng generation của xe,
+ *   kết quả đọc trước lần xóa đó không được đưa vào cache nữa
+ * - Metrics: cache.gets{cache=seat-layout, result=hit|miss}, cache.size{cache=seat-layout}
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SeatLayoutService {
+
+    private static final int MAX_SEATS = 100;
+
+    private static final String INSERT_SEAT_SQL =
+            "INSERT INTO seats (vehicle_id, seat_number, seat_type, status) VALUES (?, ?, ?, ?)";
+
+    private final SeatRepository seatRepository;
+    private final VehicleRepository vehicleRepository;
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Integer, CachedLayout> layoutsByVehicle = new ConcurrentHashMap<>();
+    private final Map<SeatLayout, SeatLayout> internedLayouts = new ConcurrentHashMap<>();
+    private final Map<Integer, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    private Counter cacheHits;
+    private Counter cacheMisses;
+
+    @PostConstruct
+    public void registerMetrics() {
+        cacheHits = meterRegistry.counter("cache.gets", "cache", "seat-layout", "result", "hit");
+        cacheMisses = meterRegistry.counter("cache.gets", "cache", "seat-layout", "result", "miss");
+        meterRegistry.gaugeMapSize("cache.size", Tags.of("cache", "seat-layout"), layoutsByVehicle);
+    }
+
+    /**
+     * Lấy sơ đồ ghế của xe (đọc DB một lần, các lần sau lấy từ cache)
+     */
+    public SeatLayout getLayout(Vehicle vehicle) {
+        return resolve(vehicle).layout();
+    }
+
+    public SeatLayout getLayout(Integer vehicleId) {
+        CachedLayout cached = layoutsByVehicle.get(vehicleId);
+        if (cached != null) {
+            cacheHits.increment();
+            return cached.layout();
+        }
+        Vehicle vehicle = vehicleRepository.findById(vehicleId)
+                .orElseThrow(() -> new ResourceNotFoundException("Vehicle not found with id: " + vehicleId));
+        return getLayout(vehicle);
+    }
+
+    /**
+     * Lấy sơ đồ ghế dùng để tạo trip_seats. Nếu xe chưa có ghế mẫu nhưng có sơ đồ JSON
+     * thì tạo ghế mẫu trước, để vé (tickets.seat_id) luôn trỏ được tới ghế mẫu.
+     */
+    @Transactional
+    public SeatLayout getTemplateLayout(Vehicle vehicle) {
+        CachedLayout cached = resolve(vehicle);
+        if (!cached.fromTemplates() && cached.layout().getTotalSeats() > 0) {
+            generateSeats(vehicle);
+            return resolve(vehicle).layout();
+        }
+        return cached.layout();
+    }
+
+    /**
+     * Kiểm tra JSON sơ đồ ghế hợp lệ và khớp với tổng số ghế của xe
+     */
+    public void validate(String seatsLayout, Integer totalSeats) {
+        if (seatsLayout == null || seatsLayout.isBlank()) {
+            return;
+        }
+        SeatLayout layout = parse(seatsLayout, null);
+        if (totalSeats != null && layout.getTotalSeats() != totalSeats) {
+            throw new IllegalArgumentException(
+                    "Sơ đồ ghế có " + layout.getTotalSeats() + " ghế, không khớp với tổng số ghế của xe (" + totalSeats + ")");
+        }
+    }
+
+    /**
+     * Tạo ghế mẫu (bảng seats) cho xe từ sơ đồ JSON, chỉ khi xe chưa có ghế mẫu
+     */
+    @Transactional
+    public int generateSeats(Integer vehicleId) {
+        Vehicle vehicle = vehicleRepository.findById(vehicleId)
+                .orElseThrow(() -> new ResourceNotFoundException("Vehicle not found with id: " + vehicleId));
+        if (!seatRepository.findByVehicleId(vehicleId).isEmpty()) {
+            throw new IllegalStateException("Xe đã có ghế mẫu, không thể tạo lại từ sơ đồ");
+        }
+        return generateSeats(vehicle);
+    }
+
+    private int generateSeats(Vehicle vehicle) {
+        if (vehicle.getSeatsLayout() == null || vehicle.getSeatsLayout().isBlank()) {
+            throw new IllegalArgumentException("Xe chưa có sơ đồ ghế");
+        }
+
+        // Một JDBC batch thay vì mỗi ghế một câu INSERT (id IDENTITY nên Hibernate không gộp batch được)
+        SeatLayout layout = parse(vehicle.getSeatsLayout(), vehicle.getVehicleType());
+        List<Object[]> rows = new ArrayList<>(layout.getTotalSeats());
+        for (SeatLayout.Slot slot : layout.getSeats()) {
+            rows.add(new Object[]{vehicle.getId(), slot.getSeatNumber(),
+                    slot.getSeatType().name(), Seat.Status.available.name()});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SEAT_SQL, rows);
+        evict(vehicle.getId());
+        return rows.size();
+    }
+
+    public void evict(Integer vehicleId) {
+        if (vehicleId == null) {
+            return;
+        }
+        invalidate(vehicleId);
+        // Request khác có thể đọc bản cũ (thay đổi chưa commit) và cache lại trước khi commit: xóa lần nữa sau commit
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(vehicleId);
+                }
+            });
+        }
+    }
+
+    private void invalidate(Integer vehicleId) {
+        generationOf(vehicleId).incrementAndGet();
+        layoutsByVehicle.remove(vehicleId);
+    }
+
+    private CachedLayout resolve(Vehicle vehicle) {
+        Integer vehicleId = vehicle.getId();
+        CachedLayout cached = layoutsByVehicle.get(vehicleId);
+        if (cached != null) {
+            cacheHits.increment();
+            return cached;
+        }
+        cacheMisses.increment();
+        long generation = generationOf(vehicleId).get();
+        List<Seat> templates = new ArrayList<>(seatRepository.findByVehicleId(vehicleId));
+        SeatLayout layout = intern(buildLayout(vehicle, templates));
+        CachedLayout loaded = new CachedLayout(layout, !templates.isEmpty());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Dữ liệu đọc trong transaction có thể là thay đổi chưa commit (hoặc sẽ rollback)
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cacheIfCurrent(vehicleId, generation, loaded);
+                }
+            });
+        } else {
+            cacheIfCurrent(vehicleId, generation, loaded);
+        }
+        return loaded;
+    }
+
+    /**
+     * Chỉ cache nếu không có lần xóa nào kể từ lúc bắt đầu đọc
+     */
+    private void cacheIfCurrent(Integer vehicleId, long generation, CachedLayout loaded) {
+        layoutsByVehicle.compute(vehicleId,
+                (id, existing) -> generationOf(id).get() == generation ? loaded : existing);
+    }
+
+    private AtomicLong generationOf(Integer vehicleId) {
+        return generations.computeIfAbsent(vehicleId, id -> new AtomicLong());
+    }
+
+    private SeatLayout intern(SeatLayout layout) {
+        SeatLayout existing = internedLayouts.putIfAbsent(layout, layout);
+        return existing != null ? existing : layout;
+    }
+
+    private SeatLayout buildLayout(Vehicle vehicle, List<Seat> templates) {
+        String json = vehicle.getSeatsLayout();
+        boolean hasJson = json != null && !json.isBlank();
+
+        if (templates.isEmpty()) {
+            return hasJson ? parse(json, vehicle.getVehicleType()) : SeatLayout.EMPTY;
+        }
+
+        // Ghế mẫu đã có: giữ thứ tự theo id, vị trí suy ra từ số cột của sơ đồ (mặc định 4)
+        int columns = 4;
+        int floors = 1;
+        if (hasJson) {
+            try {
+                JsonNode root = readTree(json);
+                columns = Math.max(1, root.path("columns").asInt(columns));
+                floors = Math.max(1, root.path("floors").asInt(floors));
+            } catch (IllegalArgumentException e) {
+                log.warn("Vehicle {} has invalid seats_layout, using seat templates with default geometry: {}",
+                        vehicle.getId(), e.getMessage());
+            }
+        }
+        templates.sort(Comparator.comparing(Seat::getId));
+        List<SeatLayout.Slot> slots = new ArrayList<>(templates.size());
+        for (int i = 0; i < templates.size(); i++) {
+            Seat seat = templates.get(i);
+            int floor = floorOf(seat.getSeatNumber(), floors);
+            slots.add(new SeatLayout.Slot(seat.getSeatNumber(), seat.getSeatType(), floor, i / columns, i % columns));
+        }
+        int rows = (templates.size() + columns - 1) / columns;
+        return new SeatLayout(rows, columns, floors, slots);
+    }
+
+    private SeatLayout parse(String json, Vehicle.VehicleType vehicleType) {
+        JsonNode root = readTree(json);
+        int rows = root.path("rows").asInt(0);
+        int columns = root.path("columns").asInt(0);
+        int floors = root.path("floors").asInt(1);
+        if (rows <= 0 || columns <= 0 || floors <= 0) {
+            throw new IllegalArgumentException("Sơ đồ ghế không hợp lệ: rows, columns, floors phải lớn hơn 0");
+        }
+        if (rows * columns * floors > MAX_SEATS) {
+            throw new IllegalArgumentException("Sơ đồ ghế không hợp lệ: tối đa " + MAX_SEATS + " ghế");
+        }
+
+        Seat.SeatType defaultType = defaultSeatType(root.path("type").asText(null), vehicleType);
+        JsonNode explicitSeats = root.path("seats");
+        List<SeatLayout.Slot> slots = new ArrayList<>();
+        Set<String> seatNumbers = new HashSet<>();
+
+        if (explicitSeats.isArray() && !explicitSeats.isEmpty()) {
+            int perFloor = rows * columns;
+            if (explicitSeats.size() > perFloor * floors) {
+                throw new IllegalArgumentException("Sơ đồ ghế không hợp lệ: số ghế vượt quá rows x columns x floors");
+            }
+            for (int i = 0; i < explicitSeats.size(); i++) {
+                JsonNode node = explicitSeats.get(i);
+                String number = node.path("number").asText("").trim();
+                if (number.isEmpty() || number.length() > 10) {
+                    throw new IllegalArgumentException("Sơ đồ ghế không hợp lệ: số ghế thứ " + (i + 1) + " trống hoặc quá 10 ký tự");
+                }
+                Seat.SeatType type = node.hasNonNull("type") ? seatType(node.get("type").asText()) : defaultType;
+                int floor = i / perFloor;
+                int index = i % perFloor;
+                addSlot(slots, seatNumbers, new SeatLayout.Slot(number, type, floor, index / columns, index % columns));
+            }
+        } else {
+            for (int floor = 0; floor < floors; floor++) {
+                char prefix = (char) ('A' + floor);
+                for (int row = 0; row < rows; row++) {
+                    for (int column = 0; column < columns; column++) {
+                        String number = prefix + String.valueOf(row * columns + column + 1);
+                        addSlot(slots, seatNumbers, new SeatLayout.Slot(number, defaultType, floor, row, column));
+                    }
+                }
+            }
+        }
+        return new SeatLayout(rows, columns, floors, slots);
+    }
+
+    private void addSlot(List<SeatLayout.Slot> slots, Set<String> seatNumbers, SeatLayout.Slot slot) {
+        if (!seatNumbers.add(slot.getSeatNumber())) {
+            throw new IllegalArgumentException("Sơ đồ ghế không hợp lệ: trùng số ghế " + slot.getSeatNumber());
+        }
+        slots.add(slot);
+    }
+
+    private JsonNode readTree(String json) {
+        try {
+            JsonNode root = objectMapper.readTree(json);
+            if (root == null || !root.isObject()) {
+                throw new IllegalArgumentException("Sơ đồ ghế không hợp lệ: phải là JSON object");
+            }
+            return root;
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Sơ đồ ghế không hợp lệ: " + e.getOriginalMessage());
+        }
+    }
+
+    private Seat.SeatType defaultSeatType(String layoutType, Vehicle.VehicleType vehicleType) {
+        String type = layoutType != null ? layoutType : (vehicleType != null ? vehicleType.name() : null);
+        if (type == null) {
+            return Seat.SeatType.standard;
+        }
+        return switch (type) {
+            case "sleeper", "bed" -> Seat.SeatType.bed;
+            case "vip" -> Seat.SeatType.vip;
+            default -> Seat.SeatType.standard;
+        };
+    }
+
+    private Seat.SeatType seatType(String type) {
+        try {
+            return Seat.SeatType.valueOf(type);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Sơ đồ ghế không hợp lệ: loại ghế '" + type + "' không tồn tại");
+        }
+    }
+
+    private int floorOf(String seatNumber, int floors) {
+        if (floors <= 1 || seatNumber.isEmpty()) {
+            return 0;
+        }
+        int floor = Character.toUpperCase(seatNumber.charAt(0)) - 'A';
+        return floor >= 0 && floor < floors ? floor : 0;
+    }
+
+    private record CachedLayout(SeatLayout layout, boolean fromTemplates) {
+    }
+}
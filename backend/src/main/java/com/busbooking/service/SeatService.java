@@ -20,6 +20,7 @@ public class SeatService {
     private final SeatRepository seatRepository;
     private final VehicleRepository vehicleRepository;
     private final SeatMapper seatMapper;
+    private final SeatLayoutService seatLayoutService;
 
     public List<SeatResponse> getAllSeats() {
         return seatRepository.findAll().stream()
@@ -33,12 +34,20 @@ public class SeatService {
         return seatMapper.toResponse(s);
     }
 
+    /**
+     * Tạo ghế mẫu cho xe từ sơ đồ ghế (Vehicle.seatsLayout)
+     */
+    public int generateSeatsFromLayout(Integer vehicleId) {
+        return seatLayoutService.generateSeats(vehicleId);
+    }
+
     public SeatResponse createSeat(SeatRequest request) {
         Vehicle v = vehicleRepository.findById(request.getVehicleId())
                 .orElseThrow(() -> new ResourceNotFoundException("Vehicle not found with id: " + request.getVehicleId()));
         Seat s = seatMapper.toEntity(request);
         s.setVehicle(v);
         Seat saved = seatRepository.save(s);
+        seatLayoutService.evict(v.getId());
         return seatMapper.toResponse(saved);
     }
 
@@ -47,9 +56,12 @@ public class SeatService {
                 .orElseThrow(() -> new ResourceNotFoundException("Seat not found with id: " + id));
         Vehicle v = vehicleRepository.findById(request.getVehicleId())
                 .orElseThrow(() -> new ResourceNotFoundException("Vehicle not found with id: " + request.getVehicleId()));
+        Integer oldVehicleId = s.getVehicle() != null ? s.getVehicle().getId() : null;
         seatMapper.updateEntity(s, request);
         s.setVehicle(v);
         Seat updated = seatRepository.save(s);
+        seatLayoutService.evict(oldVehicleId);
+        seatLayoutService.evict(v.getId());
         return seatMapper.toResponse(updated);
     }
 
@@ -57,5 +69,6 @@ public class SeatService {
         Seat s = seatRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Seat not found with id: " + id));
         seatRepository.delete(s);
+        seatLayoutService.evict(s.getVehicle().getId());
     }
 }
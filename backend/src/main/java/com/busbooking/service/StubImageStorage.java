@@ -0,0 +1,107 @@
+package com.busbooking.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Storage giả lập thay Cloudinary cho local/load test (app.image-storage.type=stub):
+ * chép ảnh vào thư mục cục bộ, có thể giả độ trễ mạng bằng app.image-storage.stub.latency-ms
+ */
+@Service
+@ConditionalOnProperty(name = "app.image-storage.type", havingValue = "stub")
+@Slf4j
+public class StubImageStorage implements ImageStorage {
+    
+    private static final String URL_PREFIX = "stub://";
+    
+    @Value("${app.image-storage.stub.dir:${java.io.tmpdir}/bus-booking-stub-images}")
+    private String directory;
+    
+    @Value("${app.image-storage.stub.latency-ms:0}")
+    private long latencyMs;
+    
+    private Path root;
+    
+    @PostConstruct
+    public void init() throws IOException {
+        root = Files.createDirectories(Paths.get(directory));
+    }
+    
+    @Override
+    public String store(Path image, String folder) throws IOException {
+        simulateLatency();
+        String key = folder + "/" + UUID.randomUUID() + ".jpg";
+        Path target = root.resolve(key);
+        Files.createDirectories(target.getParent());
+        Files.copy(image, target);
+        log.debug("[stub-storage] stored {} ({} bytes)", key, Files.size(target));
+        return URL_PREFIX + key;
+    }
+    
+    @Override
+    public void delete(String imageUrl) throws IOException {
+        String key = keyOf(imageUrl);
+        if (key != null) {
+            deleteBatch(List.of(key));
+        }
+    }
+    
+    @Override
+    public String keyOf(String imageUrl) {
+        return imageUrl != null && imageUrl.startsWith(URL_PREFIX) ? imageUrl.substring(URL_PREFIX.length()) : null;
+    }
+    
+    @Override
+    public List<StoredImage> list(Collection<String> folders) throws IOException {
+        List<StoredImage> images = new ArrayList<>();
+        for (String folder : folders) {
+            Path dir = root.resolve(folder);
+            if (!Files.isDirectory(dir)) {
+                continue;
+            }
+            try (Stream<Path> files = Files.list(dir)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    images.add(new StoredImage(root.relativize(file).toString(),
+                            Files.getLastModifiedTime(file).toInstant()));
+                }
+            }
+        }
+        return images;
+    }
+    
+    @Override
+    public void deleteBatch(List<String> keys) throws IOException {
+        simulateLatency();
+        for (String key : keys) {
+            Path target = root.resolve(key).normalize();
+            if (target.startsWith(root)) {
+                Files.deleteIfExists(target);
+            }
+        }
+    }
+    
+    private void simulateLatency() throws IOException {
+        if (latencyMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(latencyMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while storing image", e);
+        }
+    }
+}
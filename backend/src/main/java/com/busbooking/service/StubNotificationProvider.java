@@ -0,0 +1,37 @@
+package com.busbooking.service;
+
+import com.busbooking.dto.event.NotificationMessage;
+import com.busbooking.model.Notification;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Provider giả lập cho local/test: chỉ ghi log và đếm số tin đã gửi
+ */
+@Slf4j
+public class StubNotificationProvider implements NotificationProvider {
+    
+    private final Notification.Type channel;
+    private final AtomicLong sentCount = new AtomicLong();
+    
+    public StubNotificationProvider(Notification.Type channel) {
+        this.channel = channel;
+    }
+    
+    @Override
+    public Notification.Type channel() {
+        return channel;
+    }
+    
+    @Override
+    public void sendBatch(List<NotificationMessage> messages) {
+        sentCount.addAndGet(messages.size());
+        log.debug("[stub-{}] sent {} notifications", channel, messages.size());
+    }
+    
+    public long getSentCount() {
+        return sentCount.get();
+    }
+}
@@ -0,0 +1,37 @@
+package com.busbooking.service;
+
+import com.busbooking.dto.event.PaymentEvent;
+import com.busbooking.model.OutboxEvent;
+import com.busbooking.repository.TicketRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Xác nhận vé (booked -> confirmed) sau khi thanh toán thành công, chạy ngoài luồng callback
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TicketConfirmationHandler implements BookingEventHandler {
+    
+    private final TicketRepository ticketRepository;
+    private final OutboxService outboxService;
+    
+    @Override
+    public boolean supports(String eventType) {
+        return PaymentService.PAYMENT_COMPLETED.equals(eventType);
+    }
+    
+    @Override
+    @Transactional
+    public void handle(OutboxEvent event) {
+        PaymentEvent payment = outboxService.readPayload(event, PaymentEvent.class);
+        int updated = ticketRepository.confirmIfBooked(payment.getTicketId());
+        if (updated == 0) {
+            log.debug("Ticket {} was not in booked state, payment {} left it unchanged",
+                    payment.getTicketId(), payment.getPaymentId());
+        }
+    }
+}
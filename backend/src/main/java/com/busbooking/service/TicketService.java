@@ -1,23 +1,41 @@
 package com.busbooking.service;
 
+import com.busbooking.dto.event.TicketEvent;
 import com.busbooking.dto.request.TicketRequest;
 import com.busbooking.dto.response.TicketResponse;
 import com.busbooking.exception.ResourceNotFoundException;
+import com.busbooking.exception.SeatAlreadyBookedException;
 import com.busbooking.mapper.TicketMapper;
 import com.busbooking.model.Ticket;
+import com.busbooking.model.TripSeat;
+import com.busbooking.repository.PromotionRepository;
 import com.busbooking.repository.TicketRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class TicketService {
     
+    // Tên unique key trong dtbtuthemvao.sql, MySQL báo trong thông điệp "Duplicate entry ... for key ..."
+    private static final String ACTIVE_SEAT_KEY = "uk_tickets_active_seat";
+    
+    // Khóa ngoại tickets.user_id (không đặt tên trong bus_booking.sql), thông điệp có "FOREIGN KEY (`user_id`)"
+    private static final Pattern USER_FOREIGN_KEY = Pattern.compile("FOREIGN KEY\\s*\\(`?user_id`?\\)", Pattern.CASE_INSENSITIVE);
+    
     private final TicketRepository ticketRepository;
     private final TicketMapper ticketMapper;
+    private final OutboxService outboxService;
+    private final PromotionRepository promotionRepository;
+    private final PromotionRedemptionService promotionRedemptionService;
+    private final PricingService pricingService;
     
     public List<TicketResponse> getAllTickets() {
         return ticketRepository.findAll().stream()
@@ -43,23 +61,120 @@ public class TicketService {
                 .collect(Collectors.toList());
     }
     
+    /**
+     * Tạo vé. Tác vụ phụ (thông báo, hóa đơn, báo cáo) không chạy ở đây mà được ghi vào
+     * booking_outbox trong cùng transaction, OutboxRelay xử lý sau khi commit.
+     * Không kiểm tra ghế trống trước: unique key uk_tickets_active_seat (trip_id, ghế của vé chưa hủy)
+     * bảo đảm mỗi ghế chỉ có một vé hiệu lực dù nhiều request đặt cùng lúc, request thua nhận 409.
+     */
+    @Transactional
     public TicketResponse createTicket(TicketRequest request) {
         Ticket ticket = ticketMapper.toEntity(request);
-        Ticket savedTicket = ticketRepository.save(ticket);
+        if (!ticket.getSeat().getVehicle().getId().equals(ticket.getTrip().getVehicle().getId())) {
+            throw new IllegalArgumentException("Ghế không thuộc xe của chuyến này");
+        }
+        PromotionRedemptionService.ActivePromotion promotion = resolvePromotion(ticket, request);
+        // Giá vé luôn do server tính, không dùng giá client gửi lên
+        ticket.setPrice(pricingService.priceTicket(ticket.getTrip(),
+                TripSeat.SeatType.valueOf(ticket.getSeat().getSeatType().name()), promotion));
+        // INSERT chạy trước khi trừ lượt để vé trùng ghế thất bại ngay, không giữ khóa dòng khuyến mãi
+        Ticket savedTicket = saveOrConflict(ticket);
+        if (promotion != null) {
+            promotionRedemptionService.redeem(promotion.id());
+        }
+        outboxService.record(OutboxService.TICKET_CREATED, savedTicket.getId(), toEvent(savedTicket, null));
         return ticketMapper.toResponse(savedTicket);
     }
     
+    @Transactional
     public TicketResponse updateTicketStatus(Integer id, String status) {
         Ticket ticket = ticketRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Ticket not found with id: " + id));
+        Ticket.Status previousStatus = ticket.getStatus();
         ticket.setStatus(Ticket.Status.valueOf(status));
-        Ticket updatedTicket = ticketRepository.save(ticket);
+        if (ticket.getPromotion() != null && previousStatus != ticket.getStatus()) {
+            // Vé bị hủy trả lại lượt khuyến mãi, vé được khôi phục dùng lại lượt
+            if (ticket.getStatus() == Ticket.Status.cancelled) {
+                promotionRedemptionService.release(ticket.getPromotion().getId());
+            } else if (previousStatus == Ticket.Status.cancelled) {
+                promotionRedemptionService.redeem(ticket.getPromotion().getId());
+            }
+        }
+        // Khôi phục vé đã hủy có thể trùng ghế với vé khác đã bán sau đó
+        Ticket updatedTicket = saveOrConflict(ticket);
+        if (previousStatus != updatedTicket.getStatus()) {
+            outboxService.record(OutboxService.TICKET_STATUS_CHANGED, updatedTicket.getId(),
+                    toEvent(updatedTicket, previousStatus));
+        }
         return ticketMapper.toResponse(updatedTicket);
     }
     
+    /**
+     * Xóa vé. Vé chưa hủy được trả lại lượt khuyến mãi và ghi sự kiện đổi trạng thái sang "deleted"
+     * để báo cáo trừ doanh thu như khi hủy vé
+     */
+    @Transactional
     public void deleteTicket(Integer id) {
         Ticket ticket = ticketRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Ticket not found with id: " + id));
+        if (ticket.getPromotion() != null && ticket.getStatus() != Ticket.Status.cancelled) {
+            promotionRedemptionService.release(ticket.getPromotion().getId());
+        }
+        TicketEvent event = toEvent(ticket, ticket.getStatus());
+        event.setStatus(TicketEvent.STATUS_DELETED);
+        outboxService.record(OutboxService.TICKET_STATUS_CHANGED, ticket.getId(), event);
         ticketRepository.delete(ticket);
     }
+    
+    /**
+     * Ghi vé; vi phạm uk_tickets_active_seat (ghế đã có vé chưa hủy) chuyển thành SeatAlreadyBookedException,
+     * vi phạm khóa ngoại user_id (user được gắn bằng tham chiếu, không đọc trước) thành ResourceNotFoundException
+     */
+    private Ticket saveOrConflict(Ticket ticket) {
+        try {
+            return ticketRepository.saveAndFlush(ticket);
+        } catch (DataIntegrityViolationException e) {
+            String message = e.getMostSpecificCause().getMessage();
+            if (message != null && message.contains(ACTIVE_SEAT_KEY)) {
+                throw new SeatAlreadyBookedException(ticket.getTrip().getId(), ticket.getSeat().getId());
+            }
+            if (message != null && USER_FOREIGN_KEY.matcher(message).find()) {
+                throw new ResourceNotFoundException("User not found with id: " + ticket.getUser().getId());
+            }
+            throw e;
+        }
+    }
+    
+    /**
+     * Kiểm tra khuyến mãi (theo mã hoặc id, đúng tuyến của chuyến) qua cache; lượt được trừ sau khi ghi vé
+     */
+    private PromotionRedemptionService.ActivePromotion resolvePromotion(Ticket ticket, TicketRequest request) {
+        Integer routeId = ticket.getTrip().getRoute().getId();
+        String code = request.getPromotionCode();
+        PromotionRedemptionService.ActivePromotion promotion = null;
+        if (code != null && !code.isBlank()) {
+            promotion = promotionRedemptionService.resolveForRoute(code, routeId);
+            ticket.setPromotion(promotionRepository.getReferenceById(promotion.id()));
+        } else if (ticket.getPromotion() != null) {
+            promotion = promotionRedemptionService.resolve(ticket.getPromotion().getId());
+            if (!promotion.appliesTo(routeId)) {
+                throw new IllegalStateException("Mã khuyến mãi không áp dụng cho tuyến này");
+            }
+        }
+        return promotion;
+    }
+    
+    private TicketEvent toEvent(Ticket ticket, Ticket.Status previousStatus) {
+        return new TicketEvent(
+                ticket.getId(),
+                ticket.getUser().getId(),
+                ticket.getTrip().getId(),
+                ticket.getSeat().getId(),
+                ticket.getPromotion() != null ? ticket.getPromotion().getId() : null,
+                ticket.getPrice(),
+                ticket.getStatus().name(),
+                previousStatus != null ? previousStatus.name() : null,
+                LocalDateTime.now()
+        );
+    }
 }
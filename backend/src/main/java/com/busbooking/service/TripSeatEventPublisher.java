@@ -0,0 +1,254 @@
+package com.busbooking.service;
+
+import com.busbooking.dto.response.TripSeatResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Đẩy thay đổi trạng thái ghế (SSE) tới các client đang theo dõi một chuyến xe.
+ * - Mỗi subscriber có hàng đợi riêng có giới hạn, client chậm bị ngắt thay vì làm nghẽn client khác
+ * - Việc ghi ra socket chạy trên một pool nhỏ thread thường (app.seat-events.dispatch-threads), không giữ
+ *   thread Tomcat cho mỗi kết nối. Không dùng virtual thread: SseEmitter.send() giữ khóa synchronized
+ *   trong lúc ghi socket nên virtual thread bị ghim vào carrier, client chậm sẽ chiếm hết carrier thread
+ * - Lần ghi bị treo quá app.seat-events.write-timeout-ms (client không đọc, TCP window đầy) thì subscriber bị ngắt
+ *   và pool được bù một thread cho tới khi lần ghi đó trả về, để client treo không chặn việc gửi cho các chuyến khác.
+ *   Thread đang kẹt trong socket không giải phóng được từ bên ngoài, nó chỉ thoát khi Tomcat hết hạn ghi.
+ * - Sự kiện chỉ được phát sau khi transaction commit
+ */
+@Component
+@Slf4j
+public class TripSeatEventPublisher {
+
+    private static final String EVENT_NAME = "seat-status";
+    private static final long STALLED = -1;
+
+    private final Map<Integer, Set<Subscriber>> subscribersByTrip = new ConcurrentHashMap<>();
+    private final AtomicInteger stalledWriters = new AtomicInteger();
+    private ThreadPoolExecutor dispatcher;
+    private ScheduledExecutorService watchdog;
+
+    @Value("${app.seat-events.timeout-ms:1800000}")
+    private long emitterTimeoutMs; // 30 phút, client EventSource sẽ tự kết nối lại
+
+    @Value("${app.seat-events.max-pending:256}")
+    private int maxPendingPerSubscriber;
+
+    @Value("${app.seat-events.dispatch-threads:4}")
+    private int dispatchThreads;
+
+    @Value("${app.seat-events.write-timeout-ms:5000}")
+    private long writeTimeoutMs;
+
+    @Value("${app.seat-events.max-stalled-writers:32}")
+    private int maxStalledWriters;
+
+    @PostConstruct
+    public void init() {
+        // Mỗi subscriber có tối đa một tác vụ drain trong hàng đợi nên hàng đợi của pool không vượt số subscriber.
+        // Số thread chỉ vượt dispatchThreads khi bù cho lần ghi bị treo (resizeDispatcher)
+        AtomicInteger threadIndex = new AtomicInteger();
+        dispatcher = new ThreadPoolExecutor(dispatchThreads, dispatchThreads + maxStalledWriters,
+                60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "seat-events-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "seat-events-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long checkIntervalMs = Math.max(writeTimeoutMs / 2, 50);
+        watchdog.scheduleWithFixedDelay(this::dropStalledWriters, checkIntervalMs, checkIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Đăng ký nhận thay đổi trạng thái ghế của một chuyến xe
+     */
+    public SseEmitter subscribe(Integer tripId) {
+        return subscribe(tripId, new SseEmitter(emitterTimeoutMs));
+    }
+
+    SseEmitter subscribe(Integer tripId, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(tripId, emitter);
+
+        subscribersByTrip.computeIfAbsent(tripId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(ex -> remove(subscriber));
+        return emitter;
+    }
+
+    /**
+     * Phát thay đổi trạng thái ghế. Nếu đang trong transaction thì chờ commit xong mới gửi.
+     */
+    public void publish(TripSeatResponse seat) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    fanOut(seat);
+                }
+            });
+        } else {
+            fanOut(seat);
+        }
+    }
+
+    public int countSubscribers(Integer tripId) {
+        Set<Subscriber> subscribers = subscribersByTrip.get(tripId);
+        return subscribers == null ? 0 : subscribers.size();
+    }
+
+    private void fanOut(TripSeatResponse seat) {
+        Set<Subscriber> subscribers = subscribersByTrip.get(seat.getTripId());
+        if (subscribers == null) {
+            return;
+        }
+        for (Subscriber subscriber : subscribers) {
+            subscriber.enqueue(seat);
+        }
+    }
+
+    /**
+     * Ngắt các subscriber có lần ghi kéo dài quá writeTimeoutMs và bù thread cho pool
+     */
+    private void dropStalledWriters() {
+        long now = System.currentTimeMillis();
+        for (Set<Subscriber> subscribers : subscribersByTrip.values()) {
+            for (Subscriber subscriber : subscribers) {
+                long startedAt = subscriber.writeStartedAt.get();
+                // Đổi sang STALLED bằng CAS: lần ghi vừa xong (drain đã đặt về 0) thì không bị tính là treo
+                if (startedAt > 0 && now - startedAt > writeTimeoutMs
+                        && subscriber.writeStartedAt.compareAndSet(startedAt, STALLED)) {
+                    log.debug("Seat-status write stalled for trip {}, dropping subscriber", subscriber.tripId);
+                    stalledWriters.incrementAndGet();
+                    resizeDispatcher();
+                    subscriber.close();
+                }
+            }
+        }
+    }
+
+    private synchronized void resizeDispatcher() {
+        dispatcher.setCorePoolSize(dispatchThreads + Math.min(stalledWriters.get(), maxStalledWriters));
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscribersByTrip.computeIfPresent(subscriber.tripId, (id, subscribers) -> {
+            subscribers.remove(subscriber);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribersByTrip.values().forEach(subscribers -> subscribers.forEach(s -> s.emitter.complete()));
+        subscribersByTrip.clear();
+        watchdog.shutdownNow();
+        dispatcher.shutdownNow();
+    }
+
+    private final class Subscriber {
+        private final Integer tripId;
+        private final SseEmitter emitter;
+        private final Queue<TripSeatResponse> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pendingCount = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        // Thời điểm bắt đầu lần ghi đang chạy, 0 khi không ghi, STALLED khi watchdog đã bù thread cho lần ghi này
+        private final AtomicLong writeStartedAt = new AtomicLong();
+
+        private Subscriber(Integer tripId, SseEmitter emitter) {
+            this.tripId = tripId;
+            this.emitter = emitter;
+        }
+
+        private void enqueue(TripSeatResponse seat) {
+            if (closed.get()) {
+                return;
+            }
+            if (pendingCount.incrementAndGet() > maxPendingPerSubscriber) {
+                // Client quá chậm: ngắt kết nối, client sẽ kết nối lại và tải lại sơ đồ ghế
+                log.debug("Dropping slow seat-status subscriber for trip {}", tripId);
+                close();
+                return;
+            }
+            pending.offer(seat);
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                dispatcher.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                TripSeatResponse seat;
+                while (!closed.get() && (seat = pending.poll()) != null) {
+                    pendingCount.decrementAndGet();
+                    writeStartedAt.set(System.currentTimeMillis());
+                    try {
+                        emitter.send(SseEmitter.event().name(EVENT_NAME).data(seat));
+                    } finally {
+                        finishWrite();
+                    }
+                }
+            } catch (IOException | IllegalStateException ex) {
+                closed.set(true);
+                remove(this);
+                emitter.completeWithError(ex);
+                return;
+            } finally {
+                draining.set(false);
+            }
+            // Có sự kiện mới đến trong lúc đang kết thúc vòng lặp
+            if (!closed.get() && !pending.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+
+        private void finishWrite() {
+            if (writeStartedAt.getAndSet(0) == STALLED) {
+                // Lần ghi bị treo đã trả về: bỏ thread bù
+                stalledWriters.decrementAndGet();
+                resizeDispatcher();
+            }
+        }
+
+        /**
+         * Ngừng nhận sự kiện và đóng kết nối. complete() không chờ khóa ghi của SseEmitter
+         * nên gọi được cả khi một thread khác đang kẹt trong send()
+         */
+        private void close() {
+            if (closed.compareAndSet(false, true)) {
+                remove(this);
+                pending.clear();
+                emitter.complete();
+            }
+        }
+    }
+}
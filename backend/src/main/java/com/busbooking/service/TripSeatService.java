@@ -2,27 +2,49 @@ package com.busbooking.service;
 
 import com.busbooking.dto.response.TripSeatResponse;
 import com.busbooking.exception.ResourceNotFoundException;
-import com.busbooking.model.Seat;
+import com.busbooking.mapper.SeatMapEncoder;
+import com.busbooking.model.SeatLayout;
 import com.busbooking.model.Trip;
 import com.busbooking.model.TripSeat;
-import com.busbooking.model.Vehicle;
-import com.busbooking.repository.SeatRepository;
 import com.busbooking.repository.TripRepository;
 import com.busbooking.repository.TripSeatRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class TripSeatService {
     
+    private static final int COUNT_CHUNK_SIZE = 500;
+    
+    // Dùng chung với JdbcTuningBenchmark để benchmark đo đúng câu INSERT production
+    public static final String INSERT_SQL =
+            "INSERT INTO trip_seats (trip_id, seat_number, seat_type, status, created_at, version) VALUES (?, ?, ?, ?, ?, 0)";
+    
     private final TripSeatRepository tripSeatRepository;
     private final TripRepository tripRepository;
-    private final SeatRepository seatRepository;
+    private final SeatLayoutService seatLayoutService;
+    private final TripSeatEventPublisher seatEventPublisher;
+    private final SeatMapEncoder seatMapEncoder;
+    private final DynamicPricingService dynamicPricingService;
+    private final MeterRegistry meterRegistry;
+    private final JdbcTemplate jdbcTemplate;
+    private final OptimisticRetry optimisticRetry;
     
     /**
      * Tạo ghế cho trip mới từ template của vehicle
@@ -32,37 +54,66 @@ public class TripSeatService {
         Trip trip = tripRepository.findById(tripId)
                 .orElseThrow(() -> new ResourceNotFoundException("Trip not found with id: " + tripId));
         
-        Vehicle vehicle = trip.getVehicle();
-        List<Seat> vehicleSeats = seatRepository.findByVehicleId(vehicle.getId());
+        // Sơ đồ ghế của xe được cache và dùng chung cho mọi chuyến của xe
+        SeatLayout layout = seatLayoutService.getTemplateLayout(trip.getVehicle());
+        if (layout.getTotalSeats() == 0) {
+            throw new IllegalArgumentException("Xe chưa có ghế mẫu hoặc sơ đồ ghế, không tạo được ghế cho chuyến");
+        }
         
-        // Copy tất cả ghế từ vehicle sang trip_seats
-        List<TripSeat> tripSeats = vehicleSeats.stream()
-                .map(seat -> {
-                    TripSeat tripSeat = new TripSeat();
-                    tripSeat.setTrip(trip);
-                    tripSeat.setSeatNumber(seat.getSeatNumber());
-                    tripSeat.setSeatType(TripSeat.SeatType.valueOf(seat.getSeatType().name()));
-                    tripSeat.setStatus(TripSeat.SeatStatus.available);
-                    return tripSeat;
-                })
-                .collect(Collectors.toList());
+        // Id IDENTITY khiến Hibernate không gộp INSERT; ghi thẳng bằng JDBC batch
+        // (rewriteBatchedStatements trong profile prod gộp thành một câu INSERT nhiều dòng)
+        Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(layout.getTotalSeats());
+        for (SeatLayout.Slot slot : layout.getSeats()) {
+            rows.add(new Object[]{trip.getId(), slot.getSeatNumber(),
+                    TripSeat.SeatType.valueOf(slot.getSeatType().name()).name(),
+                    TripSeat.SeatStatus.available.name(), createdAt});
+        }
         
-        tripSeatRepository.saveAll(tripSeats);
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
     }
     
     /**
      * Lấy tất cả ghế của một chuyến xe
      */
+    @Transactional(readOnly = true)
     public List<TripSeatResponse> getSeatsByTripId(Integer tripId) {
         List<TripSeat> tripSeats = tripSeatRepository.findByTripId(tripId);
+        if (tripSeats.isEmpty()) {
+            return List.of();
+        }
+        // Giá theo nhu cầu tính từ chính danh sách ghế vừa đọc, không thêm truy vấn
+        int booked = 0;
+        for (TripSeat seat : tripSeats) {
+            if (seat.getStatus() == TripSeat.SeatStatus.booked) {
+                booked++;
+            }
+        }
+        PricingEngine.PriceTable prices = dynamicPricingService.priceTable(tripSeats.get(0).getTrip(), booked);
         return tripSeats.stream()
-                .map(this::toResponse)
+                .map(seat -> {
+                    TripSeatResponse response = toResponse(seat);
+                    response.setPrice(prices.priceOf(seat.getSeatType()));
+                    return response;
+                })
                 .collect(Collectors.toList());
     }
     
+    /**
+     * Lấy sơ đồ ghế dạng nhị phân gọn (xem SeatMapEncoder)
+     */
+    @Transactional(readOnly = true)
+    public byte[] getCompactSeatMap(Integer tripId, String knownLayoutId) {
+        Trip trip = tripRepository.findById(tripId)
+                .orElseThrow(() -> new ResourceNotFoundException("Trip not found with id: " + tripId));
+        List<TripSeat> tripSeats = tripSeatRepository.findByTripId(tripId);
+        return seatMapEncoder.encode(tripId, trip.getVehicle().getId(), tripSeats, knownLayoutId);
+    }
+    
     /**
      * Lấy danh sách ghế trống
      */
+    @Transactional(readOnly = true)
     public List<TripSeatResponse> getAvailableSeats(Integer tripId) {
         List<TripSeat> availableSeats = tripSeatRepository.findAvailableSeatsByTripId(tripId);
         return availableSeats.stream()
@@ -73,51 +124,164 @@ public class TripSeatService {
     /**
      * Đếm số ghế trống
      */
+    @Transactional(readOnly = true)
     public Long countAvailableSeats(Integer tripId) {
         return tripSeatRepository.countAvailableSeatsByTripId(tripId);
     }
     
     /**
-     * Đặt ghế
+     * Đếm ghế trống, ghế đã bán (booked) và các loại ghế có trên nhiều chuyến, mỗi truy vấn tối đa
+     * COUNT_CHUNK_SIZE id để IN (...) không phình theo số chuyến (chuyến không có trong map: SeatCounts.NONE)
+     */
+    public Map<Integer, SeatCounts> countSeats(Collection<Integer> tripIds) {
+        if (tripIds.isEmpty()) {
+            return Map.of();
+        }
+        List<Integer> ids = new ArrayList<>(tripIds);
+        Map<Integer, SeatCounts> counts = new HashMap<>(ids.size() * 2);
+        for (int from = 0; from < ids.size(); from += COUNT_CHUNK_SIZE) {
+            List<Integer> chunk = ids.subList(from, Math.min(ids.size(), from + COUNT_CHUNK_SIZE));
+            for (Object[] row : tripSeatRepository.countSeatsByTripIdsStatusAndType(chunk)) {
+                long count = (Long) row[3];
+                Set<TripSeat.SeatType> seatTypes = EnumSet.of((TripSeat.SeatType) row[2]);
+                SeatCounts delta = new SeatCounts(row[1] == TripSeat.SeatStatus.available ? count : 0,
+                        row[1] == TripSeat.SeatStatus.booked ? count : 0, seatTypes);
+                counts.merge((Integer) row[0], delta, SeatCounts::plus);
+            }
+        }
+        return counts;
+    }
+    
+    /**
+     * Giá thấp nhất hiện tại (chưa khuyến mãi, đã gồm phụ thu theo nhu cầu) của chuyến, đếm ghế bằng một truy vấn
+     */
+    public long fromPrice(Trip trip) {
+        return fromPrice(trip, countSeats(List.of(trip.getId())).getOrDefault(trip.getId(), SeatCounts.NONE));
+    }
+    
+    /**
+     * Như fromPrice(trip) với số ghế caller đã đếm (countSeats). Chỉ xét các loại ghế xe thực sự có
+     * (chuyến chưa có trip_seats thì lấy từ sơ đồ ghế của xe), cùng nguồn với giá thu khi đặt vé
+     */
+    public long fromPrice(Trip trip, SeatCounts counts) {
+        PricingEngine.PriceTable prices = dynamicPricingService.priceTable(trip, (int) counts.booked());
+        Set<TripSeat.SeatType> seatTypes = counts.seatTypes();
+        if (seatTypes.isEmpty()) {
+            seatTypes = seatLayoutService.getLayout(trip.getVehicle()).getSeats().stream()
+                    .map(slot -> TripSeat.SeatType.valueOf(slot.getSeatType().name()))
+                    .collect(Collectors.toSet());
+        }
+        return seatTypes.stream().mapToLong(prices::priceOf).min().orElse(0);
+    }
+    
+    /**
+     * Số ghế trống, số ghế đã bán (booked) và các loại ghế có trên một chuyến, đếm từ trip_seats.
+     * Ghế admin khóa không trống cũng không tính là đã bán
+     */
+    public record SeatCounts(long available, long booked, Set<TripSeat.SeatType> seatTypes) {
+        
+        public static final SeatCounts NONE = new SeatCounts(0, 0, Set.of());
+        
+        private SeatCounts plus(SeatCounts other) {
+            Set<TripSeat.SeatType> types = EnumSet.noneOf(TripSeat.SeatType.class);
+            types.addAll(seatTypes);
+            types.addAll(other.seatTypes);
+            return new SeatCounts(available + other.available, booked + other.booked, types);
+        }
+    }
+    
+    /**
+     * Đặt ghế. Không khóa dòng: hai request cùng đặt một ghế thì request ghi sau bị xung đột version,
+     * chạy lại thấy ghế đã booked và nhận lỗi ghế đã được đặt
      */
-    @Transactional
     public TripSeatResponse bookSeat(Integer tripSeatId) {
-        TripSeat tripSeat = tripSeatRepository.findById(tripSeatId)
-                .orElseThrow(() -> new ResourceNotFoundException("Trip seat not found with id: " + tripSeatId));
+        return optimisticRetry.execute("trip_seat.book", () -> doBookSeat(tripSeatId));
+    }
+    
+    private TripSeatResponse doBookSeat(Integer tripSeatId) {
+        TripSeat tripSeat = findForOperation(tripSeatId, "book");
         
         if (tripSeat.getStatus() != TripSeat.SeatStatus.available) {
+            recordOperation("book", "conflict");
             throw new IllegalStateException("Ghế đã được đặt hoặc bị khóa");
         }
         
         tripSeat.setStatus(TripSeat.SeatStatus.booked);
-        TripSeat updated = tripSeatRepository.save(tripSeat);
-        return toResponse(updated);
+        TripSeat updated = tripSeatRepository.saveAndFlush(tripSeat);
+        TripSeatResponse response = toResponse(updated);
+        seatEventPublisher.publish(response);
+        recordOperation("book", "success");
+        return response;
     }
     
     /**
-     * Hủy đặt ghế (trả lại ghế về available)
+     * Hủy đặt ghế hoặc mở khóa ghế (trả lại ghế về available). Khi chạy lại do xung đột version, ghế phải còn
+     * đúng trạng thái đã thấy ở lần đọc đầu: nếu ghế vừa bị khóa thì đã được mở rồi đặt lại, lần chạy lại
+     * không được hủy luôn vé mới đặt
      */
-    @Transactional
     public TripSeatResponse cancelSeat(Integer tripSeatId) {
-        TripSeat tripSeat = tripSeatRepository.findById(tripSeatId)
-                .orElseThrow(() -> new ResourceNotFoundException("Trip seat not found with id: " + tripSeatId));
+        AtomicReference<TripSeat.SeatStatus> observed = new AtomicReference<>();
+        return optimisticRetry.execute("trip_seat.cancel", () -> doCancelSeat(tripSeatId, observed));
+    }
+    
+    private TripSeatResponse doCancelSeat(Integer tripSeatId, AtomicReference<TripSeat.SeatStatus> observed) {
+        TripSeat tripSeat = findForOperation(tripSeatId, "cancel");
+        
+        TripSeat.SeatStatus status = tripSeat.getStatus();
+        if (status == TripSeat.SeatStatus.available) {
+            recordOperation("cancel", "conflict");
+            throw new IllegalStateException("Ghế đang trống, không có gì để hủy");
+        }
+        if (!observed.compareAndSet(null, status) && observed.get() != status) {
+            recordOperation("cancel", "conflict");
+            throw new IllegalStateException("Ghế vừa được thay đổi bởi thao tác khác, vui lòng tải lại");
+        }
         
         tripSeat.setStatus(TripSeat.SeatStatus.available);
-        TripSeat updated = tripSeatRepository.save(tripSeat);
-        return toResponse(updated);
+        TripSeat updated = tripSeatRepository.saveAndFlush(tripSeat);
+        TripSeatResponse response = toResponse(updated);
+        seatEventPublisher.publish(response);
+        recordOperation("cancel", "success");
+        return response;
     }
     
     /**
-     * Khóa ghế (không cho đặt)
+     * Khóa ghế (không cho đặt). Chỉ khóa ghế đang trống: ghế đã đặt (kể cả vừa được đặt trước lần chạy lại)
+     * phải hủy vé trước, không để thao tác khóa ghi đè mất vé
      */
-    @Transactional
     public TripSeatResponse lockSeat(Integer tripSeatId) {
-        TripSeat tripSeat = tripSeatRepository.findById(tripSeatId)
-                .orElseThrow(() -> new ResourceNotFoundException("Trip seat not found with id: " + tripSeatId));
+        return optimisticRetry.execute("trip_seat.lock", () -> doLockSeat(tripSeatId));
+    }
+    
+    private TripSeatResponse doLockSeat(Integer tripSeatId) {
+        TripSeat tripSeat = findForOperation(tripSeatId, "lock");
+        
+        if (tripSeat.getStatus() != TripSeat.SeatStatus.available) {
+            recordOperation("lock", "conflict");
+            throw new IllegalStateException("Chỉ khóa được ghế đang trống");
+        }
         
         tripSeat.setStatus(TripSeat.SeatStatus.locked);
-        TripSeat updated = tripSeatRepository.save(tripSeat);
-        return toResponse(updated);
+        TripSeat updated = tripSeatRepository.saveAndFlush(tripSeat);
+        TripSeatResponse response = toResponse(updated);
+        seatEventPublisher.publish(response);
+        recordOperation("lock", "success");
+        return response;
+    }
+    
+    private TripSeat findForOperation(Integer tripSeatId, String operation) {
+        return tripSeatRepository.findById(tripSeatId)
+                .orElseThrow(() -> {
+                    recordOperation(operation, "not_found");
+                    return new ResourceNotFoundException("Trip seat not found with id: " + tripSeatId);
+                });
+    }
+    
+    /**
+     * Đếm kết quả thao tác ghế: trip.seat.operations{operation=book|cancel|lock, outcome=success|conflict|not_found}
+     */
+    private void recordOperation(String operation, String outcome) {
+        meterRegistry.counter("trip.seat.operations", "operation", operation, "outcome", outcome).increment();
     }
     
     private TripSeatResponse toResponse(TripSeat tripSeat) {
@@ -126,7 +290,8 @@ public class TripSeatService {
                 tripSeat.getTrip().getId(),
                 tripSeat.getSeatNumber(),
                 tripSeat.getSeatType().name(),
-                tripSeat.getStatus().name()
+                tripSeat.getStatus().name(),
+                null
         );
     }
 }
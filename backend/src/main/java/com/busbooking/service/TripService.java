@@ -4,6 +4,7 @@ import com.busbooking.dto.request.TripRequest;
 import com.busbooking.dto.response.ScheduleGroupResponse;
 import com.busbooking.dto.response.TripResponse;
 import com.busbooking.exception.ResourceNotFoundException;
+import com.busbooking.exception.StaleVersionException;
 import com.busbooking.mapper.TripMapper;
 import com.busbooking.model.Driver;
 import com.busbooking.model.Route;
@@ -12,7 +13,9 @@ import com.busbooking.repository.DriverRepository;
 import com.busbooking.repository.RouteRepository;
 import com.busbooking.repository.TripRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -21,6 +24,7 @@ import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class TripService {
     
     private final TripRepository tripRepository;
@@ -28,52 +32,43 @@ public class TripService {
     private final DriverRepository driverRepository;
     private final RouteRepository routeRepository;
     private final TripSeatService tripSeatService;
+    private final DynamicPricingService dynamicPricingService;
     
+    @Transactional(readOnly = true)
     public List<TripResponse> getAllTrips() {
-        return tripRepository.findAll().stream()
-                .map(trip -> {
-                    TripResponse response = tripMapper.toResponse(trip);
-                    response.setAvailableSeats(tripSeatService.countAvailableSeats(trip.getId()));
-                    return response;
-                })
-                .collect(Collectors.toList());
+        return toResponses(tripRepository.findAll());
     }
     
+    @Transactional(readOnly = true)
     public TripResponse getTripById(Integer id) {
         Trip trip = tripRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Trip not found with id: " + id));
         TripResponse response = tripMapper.toResponse(trip);
-        response.setAvailableSeats(tripSeatService.countAvailableSeats(trip.getId()));
+        setAvailability(response, trip);
         return response;
     }
     
+    @Transactional(readOnly = true)
     public List<TripResponse> getTripsByRoute(Integer routeId) {
-        return tripRepository.findByRouteId(routeId).stream()
-                .map(trip -> {
-                    TripResponse response = tripMapper.toResponse(trip);
-                    response.setAvailableSeats(tripSeatService.countAvailableSeats(trip.getId()));
-                    return response;
-                })
-                .collect(Collectors.toList());
+        return toResponses(tripRepository.findByRouteId(routeId));
     }
     
+    @Transactional(readOnly = true)
     public List<TripResponse> getTripsByStatus(String status) {
         Trip.Status tripStatus = Trip.Status.valueOf(status);
-        return tripRepository.findByStatus(tripStatus).stream()
-                .map(trip -> {
-                    TripResponse response = tripMapper.toResponse(trip);
-                    response.setAvailableSeats(tripSeatService.countAvailableSeats(trip.getId()));
-                    return response;
-                })
-                .collect(Collectors.toList());
+        return toResponses(tripRepository.findByStatus(tripStatus));
     }
     
+    @Transactional(readOnly = true)
     public List<TripResponse> getTripsInDateRange(LocalDateTime start, LocalDateTime end) {
-        return tripRepository.findByDepartureTimeBetween(start, end).stream()
-                .map(tripMapper::toResponse)
-                .collect(Collectors.toList());
+        return toResponses(tripRepository.findByDepartureTimeBetween(start, end));
     }
     
+    /**
+     * Tạo chuyến và ghế của chuyến trong cùng transaction: không tạo được ghế (xe chưa có sơ đồ ghế,
+     * sơ đồ hỏng...) thì không tạo chuyến, lỗi trả về cho client thay vì để lại chuyến không có ghế
+     */
+    @Transactional
     public TripResponse createTrip(TripRequest request) {
         // Kiểm tra driver có đang hoạt động không
         Driver driver = driverRepository.findById(request.getDriverId())
@@ -109,19 +104,22 @@ public class TripService {
         Trip savedTrip = tripRepository.save(trip);
         
         // Tự động tạo ghế cho chuyến xe mới
-        try {
-            tripSeatService.createSeatsForTrip(savedTrip.getId());
-        } catch (Exception e) {
-            // Log error nhưng không fail transaction
-            System.err.println("Error creating seats for trip: " + e.getMessage());
-        }
+        tripSeatService.createSeatsForTrip(savedTrip.getId());
         
         return tripMapper.toResponse(savedTrip);
     }
     
+    /**
+     * Cập nhật chuyến xe (thay toàn bộ các trường) trên đúng version client đã đọc.
+     * Không tự chạy lại khi xung đột: chạy lại sẽ ghi đè thay đổi của người khác, client nhận 409 và tải lại.
+     */
+    @Transactional
     public TripResponse updateTrip(Integer id, TripRequest request) {
         Trip trip = tripRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Trip not found with id: " + id));
+        if (!Objects.equals(request.getVersion(), trip.getVersion())) {
+            throw new StaleVersionException("Trip", id, request.getVersion(), trip.getVersion());
+        }
         
         // Kiểm tra nếu chuyến xe đang chạy hoặc đã hoàn thành thì không cho phép sửa
         if (trip.getStatus() == Trip.Status.ongoing || trip.getStatus() == Trip.Status.completed) {
@@ -160,15 +158,14 @@ public class TripService {
         
         tripMapper.updateEntity(trip, request);
         trip.setArrivalTime(arrivalTime); // Cập nhật thời gian kết thúc
-        Trip updatedTrip = tripRepository.save(trip);
+        Trip updatedTrip = tripRepository.saveAndFlush(trip);
         return tripMapper.toResponse(updatedTrip);
     }
     
+    @Transactional(readOnly = true)
     public List<ScheduleGroupResponse> getScheduleRoutes() {
         // Chỉ lấy các chuyến đã lên lịch
-        List<Trip> scheduledTrips = tripRepository.findAll().stream()
-                .filter(trip -> Trip.Status.scheduled.equals(trip.getStatus()))
-                .collect(Collectors.toList());
+        List<Trip> scheduledTrips = tripRepository.findByStatus(Trip.Status.scheduled);
         
         // Nhóm trips theo điểm đi (fromLocation)
         Map<String, List<Trip>> tripsByFromLocation = scheduledTrips.stream()
@@ -212,6 +209,34 @@ public class TripService {
                 .collect(Collectors.toList());
     }
     
+    /**
+     * Map danh sách chuyến kèm số ghế trống và giá thấp nhất; số ghế trống/đã bán đếm theo từng khối id (TripSeatService)
+     */
+    private List<TripResponse> toResponses(List<Trip> trips) {
+        Map<Integer, TripSeatService.SeatCounts> countsByTrip = tripSeatService.countSeats(
+                trips.stream().map(Trip::getId).toList());
+        return trips.stream()
+                .map(trip -> {
+                    TripResponse response = tripMapper.toResponse(trip);
+                    setAvailability(response, trip, countsByTrip.getOrDefault(trip.getId(), TripSeatService.SeatCounts.NONE));
+                    return response;
+                })
+                .collect(Collectors.toList());
+    }
+    
+    private void setAvailability(TripResponse response, Trip trip) {
+        setAvailability(response, trip, tripSeatService.countSeats(List.of(trip.getId()))
+                .getOrDefault(trip.getId(), TripSeatService.SeatCounts.NONE));
+    }
+    
+    /**
+     * Giá thấp nhất tính theo số ghế đã bán đếm từ trip_seats, cùng nguồn với giá thu khi đặt vé
+     */
+    private void setAvailability(TripResponse response, Trip trip, TripSeatService.SeatCounts counts) {
+        response.setAvailableSeats(counts.available());
+        response.setFromPrice(tripSeatService.fromPrice(trip, counts));
+    }
+    
     private String formatDuration(Integer minutes) {
         int hours = minutes / 60;
         int mins = minutes % 60;
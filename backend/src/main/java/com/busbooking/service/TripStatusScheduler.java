@@ -2,19 +2,25 @@ package com.busbooking.service;
 
 import com.busbooking.model.Trip;
 import com.busbooking.repository.TripRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Service tự động cập nhật trạng thái chuyến xe
  * - scheduled -> ongoing: Khi đến giờ khởi hành
  * - ongoing -> completed: Khi đến giờ dự kiến đến
+ * Metrics: trip.status.scheduler (thời gian mỗi lần chạy), trip.status.transitions{from, to}
  */
 @Service
 @RequiredArgsConstructor
@@ -22,6 +28,8 @@ import java.util.List;
 public class TripStatusScheduler {
     
     private final TripRepository tripRepository;
+    private final NotificationService notificationService;
+    private final MeterRegistry meterRegistry;
     
     /**
      * Chạy mỗi phút để kiểm tra và cập nhật trạng thái
@@ -29,18 +37,37 @@ public class TripStatusScheduler {
     @Scheduled(fixedRate = 60000) // 60 seconds = 1 minute
     @Transactional
     public void updateTripStatuses() {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        int[] transitions = new int[2];
+        // Đo tới khi transaction kết thúc (gồm cả flush các UPDATE lúc commit); chỉ đếm chuyển trạng thái đã commit
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                boolean committed = status == STATUS_COMMITTED;
+                sample.stop(meterRegistry.timer("trip.status.scheduler", "outcome", committed ? "committed" : "rolled_back"));
+                if (committed) {
+                    countTransitions(Trip.Status.scheduled, Trip.Status.ongoing, transitions[0]);
+                    countTransitions(Trip.Status.ongoing, Trip.Status.completed, transitions[1]);
+                }
+            }
+        });
+        
         LocalDateTime now = LocalDateTime.now();
         
         // 1. Cập nhật scheduled -> ongoing
         List<Trip> scheduledTrips = tripRepository.findByStatus(Trip.Status.scheduled);
+        List<Integer> departedTripIds = new ArrayList<>();
         for (Trip trip : scheduledTrips) {
             if (trip.getDepartureTime() != null && 
                 !trip.getDepartureTime().isAfter(now)) {
                 trip.setStatus(Trip.Status.ongoing);
                 tripRepository.save(trip);
                 log.info("Trip {} changed from scheduled to ongoing", trip.getId());
+                departedTripIds.add(trip.getId());
             }
         }
+        transitions[0] = departedTripIds.size();
+        notificationService.enqueueDepartureAlerts(departedTripIds);
         
         // 2. Cập nhật ongoing -> completed
         List<Trip> ongoingTrips = tripRepository.findByStatus(Trip.Status.ongoing);
@@ -50,7 +77,12 @@ public class TripStatusScheduler {
                 trip.setStatus(Trip.Status.completed);
                 tripRepository.save(trip);
                 log.info("Trip {} changed from ongoing to completed", trip.getId());
+                transitions[1]++;
             }
         }
     }
+    
+    private void countTransitions(Trip.Status from, Trip.Status to, int count) {
+        meterRegistry.counter("trip.status.transitions", "from", from.name(), "to", to.name()).increment(count);
+    }
 }
@@ -4,6 +4,7 @@ import com.busbooking.dto.request.VehicleRequest;
 import com.busbooking.dto.response.VehicleResponse;
 import com.busbooking.exception.ResourceNotFoundException;
 import com.busbooking.mapper.VehicleMapper;
+import com.busbooking.model.SeatLayout;
 import com.busbooking.model.Vehicle;
 import com.busbooking.repository.VehicleRepository;
 import lombok.RequiredArgsConstructor;
@@ -17,6 +18,7 @@ import java.util.stream.Collectors;
 public class VehicleService {
     private final VehicleRepository vehicleRepository;
     private final VehicleMapper vehicleMapper;
+    private final SeatLayoutService seatLayoutService;
 
     public List<VehicleResponse> getAllVehicles() {
         return vehicleRepository.findAll().stream()
@@ -36,7 +38,12 @@ public class VehicleService {
         return vehicleMapper.toResponse(v);
     }
 
+    public SeatLayout getSeatLayout(Integer id) {
+        return seatLayoutService.getLayout(id);
+    }
+
     public VehicleResponse createVehicle(VehicleRequest request) {
+        seatLayoutService.validate(request.getSeatsLayout(), request.getTotalSeats());
         Vehicle v = vehicleMapper.toEntity(request);
         Vehicle saved = vehicleRepository.save(v);
         return vehicleMapper.toResponse(saved);
@@ -46,11 +53,14 @@ public class VehicleService {
         Vehicle v = vehicleRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Vehicle not found with id: " + id));
         
+        seatLayoutService.validate(request.getSeatsLayout(), v.getTotalSeats());
+        
         // Chỉ cho phép cập nhật biển số xe và sơ đồ ghế
         v.setLicensePlate(request.getLicensePlate());
         v.setSeatsLayout(request.getSeatsLayout());
         
         Vehicle updated = vehicleRepository.save(v);
+        seatLayoutService.evict(id);
         return vehicleMapper.toResponse(updated);
     }
     
@@ -67,5 +77,6 @@ public class VehicleService {
         Vehicle v = vehicleRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Vehicle not found with id: " + id));
         vehicleRepository.delete(v);
+        seatLayoutService.evict(id);
     }
 }
@@ -0,0 +1,165 @@
+package com.busbooking.config;
+
+import com.busbooking.dto.request.RouteRequest;
+import com.busbooking.model.Route;
+import com.busbooking.repository.RouteRepository;
+import com.busbooking.service.RouteService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Định tuyến đọc/ghi với hai database H2: replica là bản sao của primary (SCRIPT/RUNSCRIPT) có estimated_duration
+ * của tuyến đánh dấu khác, nên giá trị đọc được cho biết câu đọc đã chạy trên database nào.
+ */
+@SpringBootTest(properties = {
+        "app.datasource.replica.url=jdbc:h2:mem:bus_booking_replica_${random.uuid};MODE=MySQL;DATABASE_TO_LOWER=TRUE;"
+                + "CASE_INSENSITIVE_IDENTIFIERS=TRUE;DB_CLOSE_DELAY=-1;NON_KEYWORDS=VALUE",
+        "spring.jpa.open-in-view=false",
+        "spring.datasource.hikari.connection-timeout=4000",
+        "app.datasource.replica.hikari.maximum-pool-size=3"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ReadWriteRoutingIntegrationTest {
+
+    private static final int PRIMARY_DURATION = 180;
+    private static final int REPLICA_DURATION = 999;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private RouteService routeService;
+
+    @Autowired
+    private RouteRepository routeRepository;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private HikariDataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private HikariDataSource replicaDataSource;
+
+    private Route route;
+
+    @BeforeEach
+    void replicate() throws Exception {
+        route = new Route();
+        route.setFromLocation("Hà Nội");
+        route.setToLocation("Hải Phòng " + System.nanoTime());
+        route.setDistanceKm(BigDecimal.valueOf(120));
+        route.setBasePrice(BigDecimal.valueOf(150000));
+        route.setEstimatedDuration(PRIMARY_DURATION);
+        route = routeRepository.save(route);
+
+        Path script = Files.createTempFile("replica", ".sql");
+        try {
+            new JdbcTemplate(primaryDataSource).execute("SCRIPT TO '" + script + "'");
+            JdbcTemplate replica = new JdbcTemplate(replicaDataSource);
+            replica.execute("DROP ALL OBJECTS");
+            replica.execute("RUNSCRIPT FROM '" + script + "'");
+            replica.update("UPDATE routes SET estimated_duration = ? WHERE id = ?", REPLICA_DURATION, route.getId());
+        } finally {
+            Files.deleteIfExists(script);
+        }
+        ReadWriteRoutingDataSource.clear();
+    }
+
+    @AfterEach
+    void clearRequestState() {
+        ReadWriteRoutingDataSource.clear();
+    }
+
+    @Test
+    void readOnlyServiceCallsUseReplica() {
+        assertThat(routeService.getRouteById(route.getId()).getEstimatedDuration()).isEqualTo(REPLICA_DURATION);
+        assertThat(routeService.getAllRoutes())
+                .anySatisfy(found -> assertThat(found.getEstimatedDuration()).isEqualTo(REPLICA_DURATION));
+    }
+
+    @Test
+    void writesGoToPrimary() {
+        routeService.updateRoute(route.getId(), request(240));
+
+        assertThat(durationIn(primaryDataSource)).isEqualTo(240);
+        assertThat(durationIn(replicaDataSource)).isEqualTo(REPLICA_DURATION);
+    }
+
+    @Test
+    void userIsPinnedToPrimaryAfterWrite() throws Exception {
+        assertThat(durationOverHttp("alice")).isEqualTo(REPLICA_DURATION);
+
+        mockMvc.perform(put("/routes/{id}", route.getId())
+                        .with(user("alice").roles("ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request(300))))
+                .andExpect(status().isOk());
+
+        // Người vừa ghi đọc từ primary, người khác vẫn đọc replica (chưa được sao chép)
+        assertThat(durationOverHttp("alice")).isEqualTo(300);
+        assertThat(durationOverHttp("bob")).isEqualTo(REPLICA_DURATION);
+        assertThat(durationIn(replicaDataSource)).isEqualTo(REPLICA_DURATION);
+    }
+
+    @Test
+    void replicaPoolInheritsPrimaryHikariSettings() {
+        assertThat(replicaDataSource.getConnectionTimeout()).isEqualTo(4000);
+        assertThat(replicaDataSource.getMaximumPoolSize()).isEqualTo(3);
+        assertThat(primaryDataSource.getConnectionTimeout()).isEqualTo(4000);
+        assertThat(primaryDataSource.getMaximumPoolSize()).isNotEqualTo(3);
+    }
+
+    @Test
+    void openInViewIsRejected() {
+        assertThatThrownBy(() -> new ReplicaDataSourceConfig().dataSource(primaryDataSource, replicaDataSource, true))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("spring.jpa.open-in-view");
+    }
+
+    private int durationOverHttp(String username) throws Exception {
+        String body = mockMvc.perform(get("/routes/{id}", route.getId()).with(user(username).roles("CUSTOMER")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return JsonPath.read(body, "$.data.estimatedDuration");
+    }
+
+    private Integer durationIn(HikariDataSource dataSource) {
+        Map<String, Object> row = new JdbcTemplate(dataSource)
+                .queryForMap("SELECT estimated_duration FROM routes WHERE id = ?", route.getId());
+        return ((Number) row.get("estimated_duration")).intValue();
+    }
+
+    private RouteRequest request(int duration) {
+        return new RouteRequest(route.getFromLocation(), route.getToLocation(),
+                route.getDistanceKm(), route.getBasePrice(), duration);
+    }
+}
@@ -0,0 +1,49 @@
+package com.busbooking.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+class AuthControllerQueryBudgetTest extends QueryBudgetTestSupport {
+
+    private static final String PASSWORD = "secret123";
+
+    @Test
+    void register() throws Exception {
+        perform(register("budget_reg_" + data.next()));
+        assertWithinBudgetCold(register("budget_reg_" + data.next()));
+    }
+
+    @Test
+    void login() throws Exception {
+        String username = "budget_login_" + data.next();
+        perform(register(username));
+        assertWithinBudget(post("/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        {"username": "%s", "password": "%s"}
+                        """.formatted(username, PASSWORD)));
+    }
+
+    @Test
+    void logout() throws Exception {
+        assertWithinBudget(post("/auth/logout"));
+    }
+
+    @Test
+    void getCurrentUser() throws Exception {
+        assertWithinBudget(get("/auth/me"));
+    }
+
+    private static MockHttpServletRequestBuilder register(String username) {
+        return post("/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        {"username": "%s", "password": "%s", "email": "%s@test.local",
+                         "role": "customer", "fullName": "Khách đăng ký"}
+                        """.formatted(username, PASSWORD, username));
+    }
+}
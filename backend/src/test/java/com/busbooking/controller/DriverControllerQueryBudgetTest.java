@@ -0,0 +1,60 @@
+package com.busbooking.controller;
+
+import com.busbooking.model.Driver;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+class DriverControllerQueryBudgetTest extends QueryBudgetTestSupport {
+
+    @Test
+    void getAllDrivers() throws Exception {
+        assertWithinBudget(get("/drivers"));
+    }
+
+    @Test
+    void getActiveDrivers() throws Exception {
+        assertWithinBudget(get("/drivers/active"));
+    }
+
+    @Test
+    void getDriverById() throws Exception {
+        assertWithinBudget(get("/drivers/{id}", data.getTrips().get(0).getDriver().getId()));
+    }
+
+    @Test
+    void createDriver() throws Exception {
+        perform(post("/drivers").contentType(MediaType.APPLICATION_JSON).content(body(data.next())));
+        assertWithinBudgetCold(post("/drivers").contentType(MediaType.APPLICATION_JSON).content(body(data.next())));
+    }
+
+    @Test
+    void updateDriver() throws Exception {
+        Driver driver = data.newDriver();
+        assertWithinBudgetCold(put("/drivers/{id}", driver.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body(data.next())));
+    }
+
+    @Test
+    void toggleDriverStatus() throws Exception {
+        assertWithinBudgetCold(patch("/drivers/{id}/toggle-status", data.newDriver().getId()));
+    }
+
+    @Test
+    void deleteDriver() throws Exception {
+        assertWithinBudgetCold(delete("/drivers/{id}", data.newDriver().getId()));
+    }
+
+    private static String body(int n) {
+        return """
+                {"fullName": "Nguyễn Văn Lái", "licenseNumber": "DRV-%d", "phone": "0922%06d", "experienceYears": 4}
+                """.formatted(n, n);
+    }
+}
@@ -0,0 +1,131 @@
+package com.busbooking.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.test.context.support.WithAnonymousUser;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Upload nền qua POST /upload/image/async với StubImageStorage (profile test):
+ * job đi từ queued/processing tới completed (ảnh nằm trong thư mục stub) hoặc failed.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ImageUploadControllerAsyncTest {
+
+    private static final long POLL_TIMEOUT_MS = 10_000;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Value("${app.image-storage.stub.dir:${java.io.tmpdir}/bus-booking-stub-images}")
+    private String stubDirectory;
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void asyncUploadCompletesIntoStubStorage() throws Exception {
+        String body = mockMvc.perform(multipart("/upload/image/async")
+                        .file(new MockMultipartFile("file", "bus.png", "image/png", png(2400, 1200)))
+                        .param("folder", "vehicles"))
+                .andExpect(status().isAccepted())
+                .andReturn().getResponse().getContentAsString();
+        String jobId = JsonPath.read(body, "$.data.jobId");
+        assertThat((String) JsonPath.read(body, "$.data.status")).isIn("queued", "processing", "completed");
+        assertThat((String) JsonPath.read(body, "$.data.folder")).isEqualTo("vehicles");
+
+        String job = awaitFinished(jobId);
+        assertThat((String) JsonPath.read(job, "$.data.status")).isEqualTo("completed");
+        assertThat((String) JsonPath.read(job, "$.data.completedAt")).isNotNull();
+        String url = JsonPath.read(job, "$.data.url");
+        assertThat(url).startsWith("stub://vehicles/");
+
+        Path stored = Paths.get(stubDirectory).resolve(url.substring("stub://".length()));
+        assertThat(stored).exists();
+        BufferedImage image = ImageIO.read(stored.toFile());
+        assertThat(Math.max(image.getWidth(), image.getHeight())).isLessThanOrEqualTo(1600);
+        Files.deleteIfExists(stored);
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void asyncUploadOfUndecodableImageFails() throws Exception {
+        String body = mockMvc.perform(multipart("/upload/image/async")
+                        .file(new MockMultipartFile("file", "broken.png", "image/png", new byte[]{1, 2, 3, 4})))
+                .andExpect(status().isAccepted())
+                .andReturn().getResponse().getContentAsString();
+
+        String job = awaitFinished(JsonPath.read(body, "$.data.jobId"));
+        assertThat((String) JsonPath.read(job, "$.data.status")).isEqualTo("failed");
+        assertThat((String) JsonPath.read(job, "$.data.error")).isNotBlank();
+        assertThat((Object) JsonPath.read(job, "$.data.url")).isNull();
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void unknownJobIsNotFound() throws Exception {
+        mockMvc.perform(get("/upload/jobs/{jobId}", "missing")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(roles = "CUSTOMER")
+    void asyncUploadRequiresAdmin() throws Exception {
+        mockMvc.perform(multipart("/upload/image/async")
+                        .file(new MockMultipartFile("file", "bus.png", "image/png", png(10, 10))))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/upload/jobs/{jobId}", "missing")).andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithAnonymousUser
+    void asyncUploadRejectsAnonymous() throws Exception {
+        mockMvc.perform(multipart("/upload/image/async")
+                        .file(new MockMultipartFile("file", "bus.png", "image/png", png(10, 10))))
+                .andExpect(status().is4xxClientError());
+        mockMvc.perform(get("/upload/jobs/{jobId}", "missing")).andExpect(status().is4xxClientError());
+    }
+
+    /**
+     * Chờ job rời trạng thái queued/processing, trả body của GET /upload/jobs/{jobId}
+     */
+    private String awaitFinished(String jobId) throws Exception {
+        long deadline = System.currentTimeMillis() + POLL_TIMEOUT_MS;
+        while (true) {
+            String body = mockMvc.perform(get("/upload/jobs/{jobId}", jobId))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            String status = JsonPath.read(body, "$.data.status");
+            if (!List.of("queued", "processing").contains(status)) {
+                return body;
+            }
+            assertThat(System.currentTimeMillis()).as("job %s vẫn %s", jobId, status).isLessThan(deadline);
+            Thread.sleep(50);
+        }
+    }
+
+    private static byte[] png(int width, int height) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB), "png", out);
+        return out.toByteArray();
+    }
+}
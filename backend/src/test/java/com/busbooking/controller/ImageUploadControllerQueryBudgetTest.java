@@ -0,0 +1,43 @@
+package com.busbooking.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+
+class ImageUploadControllerQueryBudgetTest extends QueryBudgetTestSupport {
+
+    @Test
+    void uploadImage() throws Exception {
+        assertWithinBudgetCold(multipart("/upload/image").file(image()).param("folder", "budget"));
+    }
+
+    @Test
+    void uploadImageAsync() throws Exception {
+        assertWithinBudgetCold(multipart("/upload/image/async").file(image()).param("folder", "budget"));
+    }
+
+    @Test
+    void getUploadJob() throws Exception {
+        String jobId = performAndRead(multipart("/upload/image/async").file(image()), "$.data.jobId");
+        assertWithinBudget(get("/upload/jobs/{jobId}", jobId));
+    }
+
+    @Test
+    void deleteImage() throws Exception {
+        String url = performAndRead(multipart("/upload/image").file(image()).param("folder", "budget"), "$.data.url");
+        assertWithinBudgetCold(delete("/upload/image").param("url", url));
+    }
+
+    private static MockMultipartFile image() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(40, 20, BufferedImage.TYPE_INT_RGB), "png", out);
+        return new MockMultipartFile("file", "bus.png", "image/png", out.toByteArray());
+    }
+}
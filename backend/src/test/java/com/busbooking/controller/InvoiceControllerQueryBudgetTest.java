@@ -0,0 +1,35 @@
+package com.busbooking.controller;
+
+import com.busbooking.model.Payment;
+import org.junit.jupiter.api.Test;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+class InvoiceControllerQueryBudgetTest extends QueryBudgetTestSupport {
+
+    @Test
+    void getInvoiceById() throws Exception {
+        Integer invoiceId = invoiceOf(data.completedPayment(data.getTickets().get(0)));
+        assertWithinBudget(get("/invoices/{id}", invoiceId));
+    }
+
+    @Test
+    void getInvoiceByPayment() throws Exception {
+        Payment payment = data.completedPayment(data.getTickets().get(1));
+        invoiceOf(payment);
+        assertWithinBudget(get("/invoices/payment/{paymentId}", payment.getId()));
+    }
+
+    @Test
+    void generateInvoices() throws Exception {
+        data.completedPayment(data.getTickets().get(2));
+        data.completedPayment(data.getTickets().get(3));
+        assertWithinBudgetCold(post("/invoices/generate"));
+    }
+
+    private Integer invoiceOf(Payment payment) throws Exception {
+        perform(post("/invoices/generate"));
+        return performAndRead(get("/invoices/payment/{paymentId}", payment.getId()), "$.data.id");
+    }
+}
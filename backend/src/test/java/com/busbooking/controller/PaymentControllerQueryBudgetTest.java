@@ -0,0 +1,72 @@
+package com.busbooking.controller;
+
+import com.busbooking.dto.request.PaymentCallbackRequest;
+import com.busbooking.model.Ticket;
+import com.busbooking.security.PaymentCallbackSigner;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+
+import java.math.BigDecimal;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+class PaymentControllerQueryBudgetTest extends QueryBudgetTestSupport {
+
+    @Autowired
+    private PaymentCallbackSigner callbackSigner;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void getPaymentById() throws Exception {
+        Integer paymentId = createPayment(data.getTickets().get(0));
+        assertWithinBudget(get("/payments/{id}", paymentId));
+    }
+
+    @Test
+    void getPaymentsByTicket() throws Exception {
+        Ticket ticket = data.getTickets().get(0);
+        createPayment(ticket);
+        assertWithinBudget(get("/payments/ticket/{ticketId}", ticket.getId()));
+    }
+
+    @Test
+    void createPayment() throws Exception {
+        createPayment(data.getTickets().get(1));
+        assertWithinBudgetCold(post("/payments")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        {"ticketId": %d, "method": "cash"}
+                        """.formatted(data.getTickets().get(1).getId())));
+    }
+
+    @Test
+    void handleCallback() throws Exception {
+        Ticket ticket = data.getTickets().get(2);
+        Integer paymentId = createPayment(ticket);
+        PaymentCallbackRequest callback = new PaymentCallbackRequest(
+                paymentId, "BUDGETCB" + data.next(), "completed", ticket.getPrice());
+        assertWithinBudgetCold(post("/payments/callback")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(PaymentCallbackSigner.HEADER, callbackSigner.sign(callback))
+                .content(objectMapper.writeValueAsString(callback)));
+    }
+
+    @Test
+    void fakeCallback() throws Exception {
+        Integer paymentId = createPayment(data.getTickets().get(3));
+        assertWithinBudgetCold(post("/payments/{id}/fake-callback", paymentId).param("duplicates", "3"));
+    }
+
+    private Integer createPayment(Ticket ticket) throws Exception {
+        return performAndRead(post("/payments")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        {"ticketId": %d, "method": "cash"}
+                        """.formatted(ticket.getId())), "$.data.id");
+    }
+}
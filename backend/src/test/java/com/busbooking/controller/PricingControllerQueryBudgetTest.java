@@ -0,0 +1,19 @@
+package com.busbooking.controller;
+
+import org.junit.jupiter.api.Test;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+class PricingControllerQueryBudgetTest extends QueryBudgetTestSupport {
+
+    @Test
+    void quoteTrip() throws Exception {
+        assertWithinBudget(get("/pricing/trip/{tripId}/quote", data.getTrips().get(0).getId()));
+    }
+
+    @Test
+    void quoteTripWithPromotion() throws Exception {
+        assertWithinBudget(get("/pricing/trip/{tripId}/quote", data.getTrips().get(0).getId())
+                .param("promotionCode", data.getPromotion().getCode()));
+    }
+}
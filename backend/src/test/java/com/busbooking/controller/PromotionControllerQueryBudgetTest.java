@@ -0,0 +1,64 @@
+package com.busbooking.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+class PromotionControllerQueryBudgetTest extends QueryBudgetTestSupport {
+
+    @Test
+    void getAllPromotions() throws Exception {
+        assertWithinBudget(get("/promotions"));
+    }
+
+    @Test
+    void validateCode() throws Exception {
+        assertWithinBudget(get("/promotions/validate").param("code", data.getPromotion().getCode()));
+    }
+
+    @Test
+    void getBestForTrip() throws Exception {
+        assertWithinBudget(get("/promotions/trip/{tripId}/best", data.getTrips().get(0).getId()));
+    }
+
+    @Test
+    void getPromotionById() throws Exception {
+        assertWithinBudget(get("/promotions/{id}", data.getPromotion().getId()));
+    }
+
+    @Test
+    void createPromotion() throws Exception {
+        perform(create("BUDGETNEW" + data.next()));
+        assertWithinBudgetCold(create("BUDGETNEW" + data.next()));
+    }
+
+    @Test
+    void updatePromotion() throws Exception {
+        String code = "BUDGETUPD" + data.next();
+        Integer id = performAndRead(create(code), "$.data.id");
+        Integer version = performAndRead(get("/promotions/{id}", id), "$.data.version");
+        assertWithinBudgetCold(put("/promotions/{id}", id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body(code, 20, version)));
+    }
+
+    private MockHttpServletRequestBuilder create(String code) {
+        return post("/promotions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body(code, 15, null));
+    }
+
+    private String body(String code, int percentage, Integer version) {
+        return """
+                {"code": "%s", "discountPercentage": %d, "startDate": "%s", "endDate": "%s",
+                 "maxUses": 100, "routeIds": [%d], "version": %s}
+                """.formatted(code, percentage, LocalDate.now().minusDays(1), LocalDate.now().plusDays(10),
+                data.getFirstRoute().getId(), version);
+    }
+}
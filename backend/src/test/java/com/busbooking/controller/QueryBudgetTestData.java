@@ -0,0 +1,219 @@
+package com.busbooking.controller;
+
+import com.busbooking.model.Driver;
+import com.busbooking.model.Payment;
+import com.busbooking.model.Promotion;
+import com.busbooking.model.Route;
+import com.busbooking.model.Seat;
+import com.busbooking.model.Ticket;
+import com.busbooking.model.Trip;
+import com.busbooking.model.TripSeat;
+import com.busbooking.model.User;
+import com.busbooking.model.Vehicle;
+import com.busbooking.repository.DriverRepository;
+import com.busbooking.repository.PaymentRepository;
+import com.busbooking.repository.PromotionRepository;
+import com.busbooking.repository.RouteRepository;
+import com.busbooking.repository.SeatRepository;
+import com.busbooking.repository.TicketRepository;
+import com.busbooking.repository.TripRepository;
+import com.busbooking.repository.TripSeatRepository;
+import com.busbooking.repository.UserRepository;
+import com.busbooking.repository.VehicleRepository;
+import com.busbooking.service.PromotionRedemptionService;
+import com.busbooking.service.TripSeatService;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.test.context.TestComponent;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Dữ liệu dùng chung cho các test ngân sách SQL: đủ nhiều tuyến, xe, tài xế, chuyến và vé
+ * để một truy vấn N+1 vượt ngân sách của endpoint. Chỉ nạp một lần cho cả context.
+ */
+@TestComponent
+@RequiredArgsConstructor
+@Getter
+public class QueryBudgetTestData {
+
+    static final int ROUTES = 3;
+    static final int TRIPS_PER_ROUTE = 3;
+    static final int TICKETS_ON_FIRST_TRIP = 5;
+    static final String SEATS_LAYOUT = "{\"rows\": 3, \"columns\": 4}";
+
+    private final RouteRepository routeRepository;
+    private final VehicleRepository vehicleRepository;
+    private final DriverRepository driverRepository;
+    private final UserRepository userRepository;
+    private final TripRepository tripRepository;
+    private final SeatRepository seatRepository;
+    private final TripSeatRepository tripSeatRepository;
+    private final TicketRepository ticketRepository;
+    private final PromotionRepository promotionRepository;
+    private final PaymentRepository paymentRepository;
+    private final TripSeatService tripSeatService;
+    private final PromotionRedemptionService promotionRedemptionService;
+
+    private final List<Trip> trips = new ArrayList<>();
+    private final List<User> users = new ArrayList<>();
+    private final List<Ticket> tickets = new ArrayList<>();
+    @Getter(AccessLevel.NONE)
+    private final AtomicInteger sequence = new AtomicInteger(100);
+    private User admin;
+    private Promotion promotion;
+    private Route firstRoute;
+    private boolean seeded;
+
+    public synchronized void seed() {
+        if (seeded) {
+            return;
+        }
+        promotion = new Promotion();
+        promotion.setCode("BUDGET10");
+        promotion.setDiscountPercentage(BigDecimal.TEN);
+        promotion.setStartDate(LocalDate.now().minusDays(1));
+        promotion.setEndDate(LocalDate.now().plusDays(30));
+        promotion.setMaxUses(1000);
+        promotion = promotionRepository.save(promotion);
+
+        admin = new User();
+        admin.setUsername("budget_admin");
+        admin.setPassword("$2a$10$budget");
+        admin.setEmail("budget_admin@test.local");
+        admin.setRole(User.Role.admin);
+        admin.setFullName("Quản trị viên");
+        admin = userRepository.save(admin);
+
+        for (int u = 1; u <= TICKETS_ON_FIRST_TRIP; u++) {
+            User user = new User();
+            user.setUsername("budget_user_" + u);
+            user.setPassword("$2a$10$budget");
+            user.setEmail("budget_user_" + u + "@test.local");
+            user.setRole(User.Role.customer);
+            user.setFullName("Khách hàng " + u);
+            users.add(userRepository.save(user));
+        }
+
+        LocalDateTime departure = LocalDate.now().plusDays(2).atTime(6, 0);
+        for (int r = 0; r < ROUTES; r++) {
+            Route route = new Route();
+            route.setFromLocation(r % 2 == 0 ? "Hà Nội" : "Đà Nẵng");
+            route.setToLocation("Điểm đến " + r);
+            route.setDistanceKm(BigDecimal.valueOf(100 + r * 50));
+            route.setBasePrice(BigDecimal.valueOf(200000 + r * 50000));
+            route.setEstimatedDuration(180 + r * 30);
+            route = routeRepository.save(route);
+            if (firstRoute == null) {
+                firstRoute = route;
+            }
+            for (int t = 0; t < TRIPS_PER_ROUTE; t++) {
+                int index = r * TRIPS_PER_ROUTE + t;
+                Vehicle vehicle = new Vehicle();
+                vehicle.setLicensePlate("29B-" + (10000 + index));
+                vehicle.setModel("Thaco");
+                vehicle.setTotalSeats(12);
+                vehicle.setSeatsLayout(SEATS_LAYOUT);
+                vehicle.setVehicleType(Vehicle.VehicleType.values()[index % Vehicle.VehicleType.values().length]);
+                vehicle = vehicleRepository.save(vehicle);
+
+                Driver driver = new Driver();
+                driver.setFullName("Tài xế " + index);
+                driver.setLicenseNumber("LIC-" + index);
+                driver.setPhone("0900000" + String.format("%03d", index));
+                driver.setExperienceYears(5);
+                driver = driverRepository.save(driver);
+
+                LocalDateTime start = departure.plusHours(index);
+                Trip trip = new Trip();
+                trip.setRoute(route);
+                trip.setVehicle(vehicle);
+                trip.setDriver(driver);
+                trip.setDepartureTime(start);
+                trip.setArrivalTime(start.plusMinutes(route.getEstimatedDuration()));
+                trip.setStatus(Trip.Status.scheduled);
+                trip = tripRepository.save(trip);
+                tripSeatService.createSeatsForTrip(trip.getId());
+                trips.add(trip);
+            }
+        }
+
+        Trip first = trips.get(0);
+        List<Seat> seats = seatRepository.findByVehicleId(first.getVehicle().getId());
+        for (int i = 0; i < TICKETS_ON_FIRST_TRIP; i++) {
+            Ticket ticket = new Ticket();
+            ticket.setUser(users.get(i));
+            ticket.setTrip(first);
+            ticket.setSeat(seats.get(i));
+            ticket.setPromotion(i == 0 ? promotion : null);
+            ticket.setPrice(first.getRoute().getBasePrice());
+            ticket.setBookingMethod(Ticket.BookingMethod.online);
+            ticket.setStatus(Ticket.Status.booked);
+            tickets.add(ticketRepository.save(ticket));
+        }
+        promotionRedemptionService.reload();
+        seeded = true;
+    }
+
+    /**
+     * Số chưa dùng, để tạo biển số, mã khuyến mãi, tên đăng nhập... không trùng giữa các test
+     */
+    public int next() {
+        return sequence.incrementAndGet();
+    }
+
+    /**
+     * Xe mới chưa chạy chuyến nào (chưa có ghế mẫu)
+     */
+    public Vehicle newVehicle() {
+        Vehicle vehicle = new Vehicle();
+        vehicle.setLicensePlate("51B-" + (20000 + next()));
+        vehicle.setModel("Hyundai");
+        vehicle.setTotalSeats(12);
+        vehicle.setSeatsLayout(SEATS_LAYOUT);
+        vehicle.setVehicleType(Vehicle.VehicleType.standard);
+        return vehicleRepository.save(vehicle);
+    }
+
+    public Driver newDriver() {
+        int n = next();
+        Driver driver = new Driver();
+        driver.setFullName("Tài xế mới " + n);
+        driver.setLicenseNumber("NEW-" + n);
+        driver.setPhone("0911" + String.format("%06d", n));
+        driver.setExperienceYears(3);
+        return driverRepository.save(driver);
+    }
+
+    /**
+     * Thanh toán đã hoàn tất (chưa có hóa đơn) cho vé
+     */
+    public Payment completedPayment(Ticket ticket) {
+        Payment payment = new Payment();
+        payment.setTicket(ticket);
+        payment.setAmount(ticket.getPrice());
+        payment.setMethod(Payment.Method.VNPay);
+        payment.setStatus(Payment.Status.completed);
+        payment.setTransactionId("BUDGET" + UUID.randomUUID().toString().replace("-", "").substring(0, 16));
+        payment.setPaidAt(LocalDateTime.now());
+        return paymentRepository.save(payment);
+    }
+
+    /**
+     * Ghế mẫu (bảng seats) của xe chạy chuyến, theo thứ tự tạo
+     */
+    public List<Seat> seatsOf(Trip trip) {
+        return seatRepository.findByVehicleId(trip.getVehicle().getId());
+    }
+
+    public List<TripSeat> tripSeatsOf(Trip trip) {
+        return tripSeatRepository.findByTripId(trip.getId());
+    }
+}
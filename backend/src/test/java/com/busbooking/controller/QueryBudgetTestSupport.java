@@ -0,0 +1,112 @@
+package com.busbooking.controller;
+
+import com.busbooking.config.QueryBudget;
+import com.busbooking.security.JwtTokenProvider;
+import com.jayway.jsonpath.JsonPath;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.web.method.HandlerMethod;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Chạy request qua MockMvc (đủ filter đếm SQL) và so số câu SQL đã chạy với @QueryBudget của endpoint.
+ * Số câu SQL lấy từ histogram http.server.requests.sql.statements do SqlStatementMetricsFilter ghi;
+ * test chạy tuần tự nên phần tăng thêm của tổng histogram chính là số câu SQL của request vừa chạy.
+ * - Request mang JWT của admin thật nên câu tải người dùng của JwtAuthenticationFilter cũng được tính
+ * - app.sql-budget.mode=fail: câu SQL vượt ngân sách bị chặn và request trả lỗi, không chỉ ghi log
+ */
+@SpringBootTest(properties = {
+        "app.sql-budget.mode=fail",
+        "app.payment.callback-secret=query-budget-test",
+        "app.payment.fake-gateway.enabled=true"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(QueryBudgetTestData.class)
+abstract class QueryBudgetTestSupport {
+
+    @Autowired
+    protected MockMvc mockMvc;
+
+    @Autowired
+    protected QueryBudgetTestData data;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    @BeforeEach
+    void seed() {
+        data.seed();
+    }
+
+    /**
+     * Chạy request với JWT của admin (không đo)
+     */
+    protected MvcResult perform(MockHttpServletRequestBuilder request) throws Exception {
+        return mockMvc.perform(authenticated(request)).andReturn();
+    }
+
+    /**
+     * Chạy request chuẩn bị dữ liệu (không đo) và đọc một giá trị trong body JSON của kết quả
+     */
+    protected <T> T performAndRead(MockHttpServletRequestBuilder request, String jsonPath) throws Exception {
+        MvcResult result = perform(request);
+        assertThat(result.getResponse().getStatus())
+                .as("HTTP status, body: %s", result.getResponse().getContentAsString())
+                .isBetween(200, 299);
+        return JsonPath.read(result.getResponse().getContentAsString(), jsonPath);
+    }
+
+    /**
+     * Chạy request một lần để làm nóng cache (sơ đồ ghế, giá theo nhu cầu, khuyến mãi) rồi đo lần thứ hai
+     */
+    protected int assertWithinBudget(MockHttpServletRequestBuilder request) throws Exception {
+        perform(request);
+        return assertWithinBudgetCold(request);
+    }
+
+    /**
+     * Đo ngay lần chạy này (dùng cho request ghi, không chạy lặp được)
+     */
+    protected int assertWithinBudgetCold(MockHttpServletRequestBuilder request) throws Exception {
+        double before = totalStatements();
+        MvcResult result = perform(request);
+        int statements = (int) (totalStatements() - before);
+
+        assertThat(result.getResponse().getStatus())
+                .as("HTTP status, body: %s", result.getResponse().getContentAsString())
+                .isBetween(200, 299);
+        QueryBudget budget = ((HandlerMethod) result.getHandler()).getMethodAnnotation(QueryBudget.class);
+        assertThat(budget).as("@QueryBudget trên %s", result.getHandler()).isNotNull();
+        assertThat(statements)
+                .as("Số câu SQL của %s %s (ngân sách %d)", result.getRequest().getMethod(),
+                        result.getRequest().getRequestURI(), budget.value())
+                .isPositive()
+                .isLessThanOrEqualTo(budget.value());
+        return statements;
+    }
+
+    private MockHttpServletRequestBuilder authenticated(MockHttpServletRequestBuilder request) {
+        return request.header("Authorization", "Bearer " + tokenProvider.generateTokenFromUsername(
+                data.getAdmin().getUsername()));
+    }
+
+    private double totalStatements() {
+        return meterRegistry.find("http.server.requests.sql.statements").summaries().stream()
+                .mapToDouble(DistributionSummary::totalAmount)
+                .sum();
+    }
+}
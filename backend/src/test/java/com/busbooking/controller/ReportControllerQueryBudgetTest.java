@@ -0,0 +1,37 @@
+package com.busbooking.controller;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+class ReportControllerQueryBudgetTest extends QueryBudgetTestSupport {
+
+    private final LocalDate from = LocalDate.now();
+    private final LocalDate to = LocalDate.now().plusDays(7);
+
+    @Test
+    void getReports() throws Exception {
+        assertWithinBudget(get("/reports")
+                .param("from", from.toString())
+                .param("to", to.toString())
+                .param("type", "revenue"));
+    }
+
+    @Test
+    void getDailySummary() throws Exception {
+        assertWithinBudget(get("/reports/daily").param("from", from.toString()).param("to", to.toString()));
+    }
+
+    @Test
+    void getReportsByTrip() throws Exception {
+        assertWithinBudget(get("/reports/trip/{tripId}", data.getTrips().get(0).getId()));
+    }
+
+    @Test
+    void rebuild() throws Exception {
+        assertWithinBudget(post("/reports/rebuild").param("from", from.toString()).param("to", to.toString()));
+    }
+}
@@ -0,0 +1,60 @@
+package com.busbooking.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+class RouteControllerQueryBudgetTest extends QueryBudgetTestSupport {
+
+    @Test
+    void getAllRoutes() throws Exception {
+        assertWithinBudget(get("/routes"));
+    }
+
+    @Test
+    void getSchedules() throws Exception {
+        assertWithinBudget(get("/routes/schedules"));
+    }
+
+    @Test
+    void getRouteById() throws Exception {
+        assertWithinBudget(get("/routes/{id}", data.getFirstRoute().getId()));
+    }
+
+    @Test
+    void searchRoutes() throws Exception {
+        assertWithinBudget(get("/routes/search").param("from", "Hà Nội"));
+    }
+
+    @Test
+    void createRoute() throws Exception {
+        perform(create("Tuyến mới " + data.next()));
+        assertWithinBudgetCold(create("Tuyến mới " + data.next()));
+    }
+
+    @Test
+    void updateRoute() throws Exception {
+        String to = "Tuyến sửa " + data.next();
+        Integer id = performAndRead(create(to), "$.data.id");
+        assertWithinBudgetCold(put("/routes/{id}", id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body(to, 240)));
+    }
+
+    private static MockHttpServletRequestBuilder create(String to) {
+        return post("/routes")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body(to, 180));
+    }
+
+    private static String body(String to, int duration) {
+        return """
+                {"fromLocation": "Hà Nội", "toLocation": "%s", "distanceKm": 150,
+                 "basePrice": 250000, "estimatedDuration": %d}
+                """.formatted(to, duration);
+    }
+}
@@ -0,0 +1,63 @@
+package com.busbooking.controller;
+
+import com.busbooking.model.Vehicle;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+class SeatControllerQueryBudgetTest extends QueryBudgetTestSupport {
+
+    @Test
+    void getAllSeats() throws Exception {
+        assertWithinBudget(get("/seats"));
+    }
+
+    @Test
+    void getSeatById() throws Exception {
+        assertWithinBudget(get("/seats/{id}", data.seatsOf(data.getTrips().get(0)).get(0).getId()));
+    }
+
+    @Test
+    void createSeat() throws Exception {
+        Vehicle vehicle = data.newVehicle();
+        perform(create(vehicle, "Z1"));
+        assertWithinBudgetCold(create(vehicle, "Z2"));
+    }
+
+    @Test
+    void generateFromLayout() throws Exception {
+        assertWithinBudgetCold(post("/seats/vehicle/{vehicleId}/generate", data.newVehicle().getId()));
+    }
+
+    @Test
+    void updateSeat() throws Exception {
+        Vehicle vehicle = data.newVehicle();
+        Integer id = performAndRead(create(vehicle, "Z1"), "$.data.id");
+        assertWithinBudgetCold(put("/seats/{id}", id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body(vehicle, "Z1", "vip")));
+    }
+
+    @Test
+    void deleteSeat() throws Exception {
+        Integer id = performAndRead(create(data.newVehicle(), "Z1"), "$.data.id");
+        assertWithinBudgetCold(delete("/seats/{id}", id));
+    }
+
+    private static MockHttpServletRequestBuilder create(Vehicle vehicle, String seatNumber) {
+        return post("/seats")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body(vehicle, seatNumber, "standard"));
+    }
+
+    private static String body(Vehicle vehicle, String seatNumber, String seatType) {
+        return """
+                {"vehicleId": %d, "seatNumber": "%s", "seatType": "%s", "status": "available"}
+                """.formatted(vehicle.getId(), seatNumber, seatType);
+    }
+}
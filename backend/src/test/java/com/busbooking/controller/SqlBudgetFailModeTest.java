@@ -0,0 +1,55 @@
+package com.busbooking.controller;
+
+import com.busbooking.config.QueryBudget;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * app.sql-budget.mode=fail chặn câu SQL vượt ngân sách, kể cả câu chạy bằng JdbcTemplate
+ * (Statement thường lẫn PreparedStatement) chứ không chỉ câu của Hibernate.
+ */
+@Import(SqlBudgetFailModeTest.BudgetProbeController.class)
+class SqlBudgetFailModeTest extends QueryBudgetTestSupport {
+
+    @Test
+    void jdbcTemplateStatementsAreCountedWithinBudget() throws Exception {
+        // Tải người dùng của JWT + một Statement + một PreparedStatement
+        assertThat(assertWithinBudgetCold(get("/budget-probe").param("lookups", "1"))).isEqualTo(3);
+    }
+
+    @Test
+    void statementOverBudgetFailsTheRequest() throws Exception {
+        MvcResult result = perform(get("/budget-probe").param("lookups", "2"));
+
+        assertThat(result.getResponse().getStatus()).isEqualTo(500);
+        assertThat(result.getResponse().getContentAsString()).contains("Vượt ngân sách 3 câu SQL");
+    }
+
+    @RestController
+    static class BudgetProbeController {
+
+        private final JdbcTemplate jdbcTemplate;
+
+        BudgetProbeController(JdbcTemplate jdbcTemplate) {
+            this.jdbcTemplate = jdbcTemplate;
+        }
+
+        @QueryBudget(3)
+        @GetMapping("/budget-probe")
+        Integer probe(@RequestParam int lookups) {
+            int total = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM routes", Integer.class);
+            for (int i = 0; i < lookups; i++) {
+                total += jdbcTemplate.queryForObject("SELECT COUNT(*) FROM trips WHERE id > ?", Integer.class, i);
+            }
+            return total;
+        }
+    }
+}
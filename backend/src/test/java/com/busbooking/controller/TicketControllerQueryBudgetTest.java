@@ -0,0 +1,74 @@
+package com.busbooking.controller;
+
+import com.busbooking.model.Seat;
+import com.busbooking.model.Trip;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+class TicketControllerQueryBudgetTest extends QueryBudgetTestSupport {
+
+    @Test
+    void getAllTickets() throws Exception {
+        assertWithinBudget(get("/tickets"));
+    }
+
+    @Test
+    void getTicketById() throws Exception {
+        assertWithinBudget(get("/tickets/{id}", data.getTickets().get(0).getId()));
+    }
+
+    @Test
+    void getTicketsByUser() throws Exception {
+        assertWithinBudget(get("/tickets/user/{userId}", data.getUsers().get(0).getId()));
+    }
+
+    @Test
+    void getTicketsByTrip() throws Exception {
+        assertWithinBudget(get("/tickets/trip/{tripId}", data.getTrips().get(0).getId()));
+    }
+
+    @Test
+    void createTicket() throws Exception {
+        Trip trip = data.getTrips().get(4);
+        List<Seat> seats = data.seatsOf(trip);
+        perform(createTicket(trip, seats.get(0), "BUDGET10"));
+        assertWithinBudgetCold(createTicket(trip, seats.get(1), "BUDGET10"));
+    }
+
+    @Test
+    void updateTicketStatus() throws Exception {
+        Trip trip = data.getTrips().get(5);
+        List<Seat> seats = data.seatsOf(trip);
+        Integer warmup = performAndRead(createTicket(trip, seats.get(0), "BUDGET10"), "$.data.id");
+        perform(patch("/tickets/{id}/status", warmup).param("status", "cancelled"));
+        Integer id = performAndRead(createTicket(trip, seats.get(1), "BUDGET10"), "$.data.id");
+        assertWithinBudgetCold(patch("/tickets/{id}/status", id).param("status", "cancelled"));
+    }
+
+    @Test
+    void deleteTicket() throws Exception {
+        Trip trip = data.getTrips().get(6);
+        List<Seat> seats = data.seatsOf(trip);
+        Integer warmup = performAndRead(createTicket(trip, seats.get(0), "BUDGET10"), "$.data.id");
+        perform(delete("/tickets/{id}", warmup));
+        Integer id = performAndRead(createTicket(trip, seats.get(1), "BUDGET10"), "$.data.id");
+        assertWithinBudgetCold(delete("/tickets/{id}", id));
+    }
+
+    private MockHttpServletRequestBuilder createTicket(Trip trip, Seat seat, String promotionCode) {
+        return post("/tickets")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        {"userId": %d, "tripId": %d, "seatId": %d, "promotionCode": "%s",
+                         "bookingMethod": "online", "status": "booked"}
+                        """.formatted(data.getUsers().get(1).getId(), trip.getId(), seat.getId(), promotionCode));
+    }
+}
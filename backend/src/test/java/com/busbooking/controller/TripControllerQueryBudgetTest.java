@@ -0,0 +1,84 @@
+package com.busbooking.controller;
+
+import com.busbooking.model.Driver;
+import com.busbooking.model.Trip;
+import com.busbooking.model.Vehicle;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+class TripControllerQueryBudgetTest extends QueryBudgetTestSupport {
+
+    @Test
+    void getAllTrips() throws Exception {
+        assertWithinBudget(get("/trips"));
+    }
+
+    @Test
+    void getTripById() throws Exception {
+        Trip trip = data.getTrips().get(0);
+        assertWithinBudget(get("/trips/{id}", trip.getId()));
+    }
+
+    @Test
+    void getTripsByRoute() throws Exception {
+        assertWithinBudget(get("/trips/route/{routeId}", data.getFirstRoute().getId()));
+    }
+
+    @Test
+    void getTripsByStatus() throws Exception {
+        assertWithinBudget(get("/trips/status/{status}", "scheduled"));
+    }
+
+    @Test
+    void searchTrips() throws Exception {
+        LocalDate from = LocalDate.now();
+        assertWithinBudget(get("/trips/search")
+                .param("start", from.atStartOfDay().toString())
+                .param("end", from.plusDays(7).atStartOfDay().toString()));
+    }
+
+    @Test
+    void getScheduleRoutes() throws Exception {
+        assertWithinBudget(get("/trips/schedule-routes"));
+    }
+
+    @Test
+    void createTrip() throws Exception {
+        perform(create(data.newVehicle(), data.newDriver(), LocalDate.now().plusDays(20).atTime(7, 0)));
+        assertWithinBudgetCold(create(data.newVehicle(), data.newDriver(), LocalDate.now().plusDays(21).atTime(7, 0)));
+    }
+
+    @Test
+    void updateTrip() throws Exception {
+        Vehicle vehicle = data.newVehicle();
+        Driver driver = data.newDriver();
+        LocalDateTime departure = LocalDate.now().plusDays(22).atTime(7, 0);
+        Integer id = performAndRead(create(vehicle, driver, departure), "$.data.id");
+        Integer version = performAndRead(get("/trips/{id}", id), "$.data.version");
+        assertWithinBudgetCold(put("/trips/{id}", id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body(vehicle, driver, departure.plusHours(1), version)));
+    }
+
+    private MockHttpServletRequestBuilder create(Vehicle vehicle, Driver driver, LocalDateTime departure) {
+        return post("/trips")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body(vehicle, driver, departure, null));
+    }
+
+    private String body(Vehicle vehicle, Driver driver, LocalDateTime departure, Integer version) {
+        return """
+                {"routeId": %d, "vehicleId": %d, "driverId": %d, "departureTime": "%s", "arrivalTime": "%s",
+                 "status": "scheduled", "version": %s}
+                """.formatted(data.getFirstRoute().getId(), vehicle.getId(), driver.getId(),
+                departure, departure.plusHours(3), version);
+    }
+}
@@ -0,0 +1,70 @@
+package com.busbooking.controller;
+
+import com.busbooking.mapper.SeatMapEncoder;
+import com.busbooking.model.Trip;
+import com.busbooking.model.TripSeat;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+class TripSeatControllerQueryBudgetTest extends QueryBudgetTestSupport {
+
+    @Test
+    void getSeatsByTrip() throws Exception {
+        assertWithinBudget(get("/trip-seats/trip/{tripId}", data.getTrips().get(0).getId()));
+    }
+
+    @Test
+    void getCompactSeatMap() throws Exception {
+        assertWithinBudget(get("/trip-seats/trip/{tripId}", data.getTrips().get(0).getId())
+                .accept(SeatMapEncoder.MEDIA_TYPE));
+    }
+
+    @Test
+    void streamSeatStatus() throws Exception {
+        assertWithinBudget(get("/trip-seats/trip/{tripId}/stream", data.getTrips().get(0).getId()));
+    }
+
+    @Test
+    void createSeatsForTrip() throws Exception {
+        assertWithinBudget(post("/trip-seats/trip/{tripId}/create", data.getTrips().get(7).getId()));
+    }
+
+    @Test
+    void getAvailableSeats() throws Exception {
+        assertWithinBudget(get("/trip-seats/trip/{tripId}/available", data.getTrips().get(0).getId()));
+    }
+
+    @Test
+    void countAvailableSeats() throws Exception {
+        assertWithinBudget(get("/trip-seats/trip/{tripId}/available-count", data.getTrips().get(0).getId()));
+    }
+
+    @Test
+    void bookSeat() throws Exception {
+        List<TripSeat> seats = data.tripSeatsOf(data.getTrips().get(1));
+        perform(patch("/trip-seats/{id}/book", seats.get(0).getId()));
+        assertWithinBudgetCold(patch("/trip-seats/{id}/book", seats.get(1).getId()));
+    }
+
+    @Test
+    void cancelSeat() throws Exception {
+        List<TripSeat> seats = data.tripSeatsOf(data.getTrips().get(2));
+        perform(patch("/trip-seats/{id}/book", seats.get(0).getId()));
+        perform(patch("/trip-seats/{id}/book", seats.get(1).getId()));
+        perform(patch("/trip-seats/{id}/cancel", seats.get(0).getId()));
+        assertWithinBudgetCold(patch("/trip-seats/{id}/cancel", seats.get(1).getId()));
+    }
+
+    @Test
+    void lockSeat() throws Exception {
+        Trip trip = data.getTrips().get(3);
+        List<TripSeat> seats = data.tripSeatsOf(trip);
+        perform(patch("/trip-seats/{id}/lock", seats.get(0).getId()));
+        assertWithinBudgetCold(patch("/trip-seats/{id}/lock", seats.get(1).getId()));
+    }
+}
@@ -0,0 +1,64 @@
+package com.busbooking.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+class UserControllerQueryBudgetTest extends QueryBudgetTestSupport {
+
+    @Test
+    void getAllUsers() throws Exception {
+        assertWithinBudget(get("/users"));
+    }
+
+    @Test
+    void getUser() throws Exception {
+        assertWithinBudget(get("/users/{id}", data.getUsers().get(0).getId()));
+    }
+
+    @Test
+    void createUser() throws Exception {
+        perform(create("budget_new_" + data.next()));
+        assertWithinBudgetCold(create("budget_new_" + data.next()));
+    }
+
+    @Test
+    void updateUser() throws Exception {
+        String username = "budget_upd_" + data.next();
+        Integer id = performAndRead(create(username), "$.data.id");
+        assertWithinBudgetCold(put("/users/{id}", id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body(username, "Tên đã sửa")));
+    }
+
+    @Test
+    void toggleUserStatus() throws Exception {
+        Integer id = performAndRead(create("budget_tgl_" + data.next()), "$.data.id");
+        assertWithinBudgetCold(patch("/users/{id}/toggle-status", id));
+    }
+
+    @Test
+    void deleteUser() throws Exception {
+        Integer id = performAndRead(create("budget_del_" + data.next()), "$.data.id");
+        assertWithinBudgetCold(delete("/users/{id}", id));
+    }
+
+    private MockHttpServletRequestBuilder create(String username) {
+        return post("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body(username, "Khách mới"));
+    }
+
+    private static String body(String username, String fullName) {
+        return """
+                {"username": "%s", "password": "secret123", "email": "%s@test.local",
+                 "role": "customer", "fullName": "%s", "phone": "0987654321"}
+                """.formatted(username, username, fullName);
+    }
+}
@@ -0,0 +1,19 @@
+package com.busbooking.controller;
+
+import org.junit.jupiter.api.Test;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+class UtilControllerQueryBudgetTest extends QueryBudgetTestSupport {
+
+    @Test
+    void encodePassword() throws Exception {
+        assertWithinBudget(post("/util/encode-password").param("password", "secret123"));
+    }
+
+    @Test
+    void verifyPassword() throws Exception {
+        String hash = performAndRead(post("/util/encode-password").param("password", "secret123"), "$.data.bcryptHash");
+        assertWithinBudget(post("/util/verify-password").param("plainText", "secret123").param("hash", hash));
+    }
+}
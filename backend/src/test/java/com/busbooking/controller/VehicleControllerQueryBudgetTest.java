@@ -0,0 +1,63 @@
+package com.busbooking.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+class VehicleControllerQueryBudgetTest extends QueryBudgetTestSupport {
+
+    @Test
+    void getAllVehicles() throws Exception {
+        assertWithinBudget(get("/vehicles"));
+    }
+
+    @Test
+    void getActiveVehicles() throws Exception {
+        assertWithinBudget(get("/vehicles/active"));
+    }
+
+    @Test
+    void getVehicleById() throws Exception {
+        assertWithinBudget(get("/vehicles/{id}", data.getTrips().get(0).getVehicle().getId()));
+    }
+
+    @Test
+    void getVehicleLayout() throws Exception {
+        assertWithinBudget(get("/vehicles/{id}/layout", data.getTrips().get(0).getVehicle().getId()));
+    }
+
+    @Test
+    void createVehicle() throws Exception {
+        perform(post("/vehicles").contentType(MediaType.APPLICATION_JSON).content(body(data.next())));
+        assertWithinBudgetCold(post("/vehicles").contentType(MediaType.APPLICATION_JSON).content(body(data.next())));
+    }
+
+    @Test
+    void updateVehicle() throws Exception {
+        assertWithinBudgetCold(put("/vehicles/{id}", data.newVehicle().getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body(data.next())));
+    }
+
+    @Test
+    void toggleVehicleStatus() throws Exception {
+        assertWithinBudgetCold(patch("/vehicles/{id}/toggle-status", data.newVehicle().getId()));
+    }
+
+    @Test
+    void deleteVehicle() throws Exception {
+        assertWithinBudgetCold(delete("/vehicles/{id}", data.newVehicle().getId()));
+    }
+
+    private static String body(int n) {
+        return """
+                {"licensePlate": "30A-%05d", "model": "Samco", "totalSeats": 12,
+                 "seatsLayout": "{\\"rows\\": 3, \\"columns\\": 4}", "vehicleType": "vip"}
+                """.formatted(30000 + n);
+    }
+}
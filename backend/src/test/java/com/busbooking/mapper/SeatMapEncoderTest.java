@@ -0,0 +1,58 @@
+package com.busbooking.mapper;
+
+import com.busbooking.model.TripSeat;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SeatMapEncoderTest {
+
+    private static final int LAYOUT_ID_OFFSET = 10;
+    private static final int LAYOUT_ID_BYTES = 16;
+
+    private final SeatMapEncoder encoder = new SeatMapEncoder();
+
+    @Test
+    void knownLayoutIdSkipsLayout() {
+        List<TripSeat> seats = List.of(seat(1, "A01"), seat(2, "A02"));
+        byte[] full = encoder.encode(7, 3, seats, null);
+        String layoutId = HexFormat.of().formatHex(
+                Arrays.copyOfRange(full, LAYOUT_ID_OFFSET, LAYOUT_ID_OFFSET + LAYOUT_ID_BYTES));
+
+        byte[] compact = encoder.encode(7, 3, seats, layoutId.toUpperCase());
+
+        assertThat(full[1]).isEqualTo((byte) 1);
+        assertThat(compact[1]).isEqualTo((byte) 0);
+        assertThat(compact.length).isLessThan(full.length);
+    }
+
+    @Test
+    void differentLayoutsGetDifferentIds() {
+        byte[] first = encoder.encode(7, 3, List.of(seat(1, "A01"), seat(2, "A02")), null);
+        byte[] second = encoder.encode(7, 3, List.of(seat(1, "A02"), seat(2, "A01")), null);
+
+        assertThat(Arrays.copyOfRange(first, LAYOUT_ID_OFFSET, LAYOUT_ID_OFFSET + LAYOUT_ID_BYTES))
+                .isNotEqualTo(Arrays.copyOfRange(second, LAYOUT_ID_OFFSET, LAYOUT_ID_OFFSET + LAYOUT_ID_BYTES));
+    }
+
+    @Test
+    void seatNumberLongerThanLengthByteIsRejected() {
+        List<TripSeat> seats = List.of(seat(1, "A".repeat(256)));
+
+        assertThatThrownBy(() -> encoder.encode(7, 3, seats, null))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private TripSeat seat(int id, String number) {
+        TripSeat seat = new TripSeat();
+        seat.setId(id);
+        seat.setSeatNumber(number);
+        seat.setSeatType(TripSeat.SeatType.standard);
+        return seat;
+    }
+}
@@ -0,0 +1,76 @@
+package com.busbooking.service;
+
+import com.busbooking.dto.response.TripSeatResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Client không đọc (send() bị treo) không được chặn việc gửi sự kiện cho chuyến khác, kể cả khi pool chỉ có một thread.
+ */
+class TripSeatEventPublisherTest {
+
+    private final TripSeatEventPublisher publisher = new TripSeatEventPublisher();
+    private final CountDownLatch releaseStalled = new CountDownLatch(1);
+
+    @BeforeEach
+    void init() {
+        ReflectionTestUtils.setField(publisher, "emitterTimeoutMs", 60_000L);
+        ReflectionTestUtils.setField(publisher, "maxPendingPerSubscriber", 16);
+        ReflectionTestUtils.setField(publisher, "dispatchThreads", 1);
+        ReflectionTestUtils.setField(publisher, "writeTimeoutMs", 200L);
+        ReflectionTestUtils.setField(publisher, "maxStalledWriters", 4);
+        publisher.init();
+    }
+
+    @AfterEach
+    void shutdown() {
+        releaseStalled.countDown();
+        publisher.shutdown();
+    }
+
+    @Test
+    void stalledSubscriberDoesNotBlockOtherTrips() throws Exception {
+        CountDownLatch stalledWriteStarted = new CountDownLatch(1);
+        publisher.subscribe(1, new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                stalledWriteStarted.countDown();
+                try {
+                    releaseStalled.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        CountDownLatch delivered = new CountDownLatch(1);
+        publisher.subscribe(2, new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) {
+                delivered.countDown();
+            }
+        });
+
+        publisher.publish(seat(1));
+        assertThat(stalledWriteStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        publisher.publish(seat(2));
+
+        assertThat(delivered.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(publisher.countSubscribers(1)).isZero();
+        assertThat(publisher.countSubscribers(2)).isEqualTo(1);
+    }
+
+    private TripSeatResponse seat(Integer tripId) {
+        TripSeatResponse seat = new TripSeatResponse();
+        seat.setTripId(tripId);
+        return seat;
+    }
+}
@@ -0,0 +1,18 @@
+-- Bảng chỉ truy cập qua JDBC (không có entity) nên ddl-auto không tạo; giống migration trong dtbtuthemvao.sql
+CREATE TABLE IF NOT EXISTS invoice_sequences (
+  name VARCHAR(50) PRIMARY KEY,
+  next_value BIGINT NOT NULL
+);
+
+INSERT INTO invoice_sequences (name, next_value) VALUES ('invoice', 1);
+
+CREATE TABLE IF NOT EXISTS report_deltas (
+  event_id BIGINT PRIMARY KEY,
+  trip_id INT NOT NULL,
+  revenue DECIMAL(15,2) NOT NULL,
+  passengers INT NOT NULL,
+  created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  applied_at TIMESTAMP NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_report_deltas_applied ON report_deltas(applied_at, event_id);
@@ -224,3 +224,137 @@ ALTER TABLE tickets DROP COLUMN trip_seat_id;
 DROP TABLE IF EXISTS trip_seats;
 DROP TABLE IF EXISTS tickets_backup;
 */
+
+
+-- ========================================
+-- MIGRATION SCRIPT: Booking Outbox
+-- Sự kiện đặt vé được ghi cùng transaction với vé, OutboxRelay xử lý bất đồng bộ
+-- ========================================
+
+CREATE TABLE IF NOT EXISTS booking_outbox (
+  id BIGINT PRIMARY KEY AUTO_INCREMENT,
+  event_type VARCHAR(50) NOT NULL,
+  aggregate_id INT NOT NULL,
+  payload TEXT NOT NULL,
+  status ENUM('pending', 'processing', 'done', 'failed') NOT NULL DEFAULT 'pending',
+  attempts INT NOT NULL DEFAULT 0,
+  next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  last_error VARCHAR(500),
+  created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  processed_at TIMESTAMP NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- Relay lấy sự kiện đến hạn theo (status, next_attempt_at)
+CREATE INDEX idx_booking_outbox_due ON booking_outbox(status, next_attempt_at, id);
+
+
+-- ========================================
+-- MIGRATION SCRIPT: Payments idempotent theo transaction_id
+-- Callback trùng từ cổng thanh toán không thể tạo 2 giao dịch giống nhau
+-- ========================================
+
+ALTER TABLE payments ADD UNIQUE KEY uk_payments_transaction_id (transaction_id);
+
+
+-- ========================================
+-- MIGRATION SCRIPT: Invoice number sequence
+-- Cấp số hóa đơn theo khối, mỗi thanh toán tối đa một hóa đơn
+-- ========================================
+
+CREATE TABLE IF NOT EXISTS invoice_sequences (
+  name VARCHAR(50) PRIMARY KEY,
+  next_value BIGINT NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+INSERT IGNORE INTO invoice_sequences (name, next_value) VALUES ('invoice', 1);
+
+ALTER TABLE invoices ADD UNIQUE KEY uk_invoices_payment_id (payment_id);
+CREATE INDEX idx_payments_status ON payments(status, id);
+
+
+-- ========================================
+-- MIGRATION SCRIPT: Reports cộng dồn
+-- Mỗi chuyến có tối đa một dòng cho mỗi loại báo cáo và ngày khởi hành
+-- ========================================
+
+ALTER TABLE reports ADD UNIQUE KEY uk_reports_trip_type_date (trip_id, report_type, report_date);
+CREATE INDEX idx_reports_date_type ON reports(report_date, report_type);
+
+
+-- ========================================
+-- MIGRATION SCRIPT: Promotion routes
+-- Mỗi khuyến mãi gắn với một tuyến tối đa một lần, tra theo tuyến bằng index
+-- ========================================
+
+ALTER TABLE promotion_routes ADD UNIQUE KEY uk_promotion_routes (promotion_id, route_id);
+CREATE INDEX idx_promotion_routes_route ON promotion_routes(route_id, promotion_id);
+
+
+-- ========================================
+-- MIGRATION SCRIPT: Optimistic locking
+-- Cột version cho @Version: ghi đè lên bản đã bị sửa đồng thời sẽ bị phát hiện thay vì mất dữ liệu
+-- ========================================
+
+ALTER TABLE trips ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE trip_seats ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE promotions ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+
+-- ========================================
+-- MIGRATION SCRIPT: Mỗi ghế của chuyến chỉ có một vé còn hiệu lực
+-- MySQL không có partial index: cột sinh active_seat_id = seat_id khi vé chưa hủy, NULL khi đã hủy
+-- (NULL không trùng nhau trong unique key) nên vé đã hủy không chặn bán lại ghế
+-- ========================================
+
+-- Kiểm tra dữ liệu cũ trước khi thêm ràng buộc (phải không có dòng nào):
+-- SELECT trip_id, seat_id, COUNT(*) FROM tickets WHERE status <> 'cancelled'
+-- GROUP BY trip_id, seat_id HAVING COUNT(*) > 1;
+
+ALTER TABLE tickets
+  ADD COLUMN active_seat_id INT GENERATED ALWAYS AS (IF(status <> 'cancelled', seat_id, NULL)) STORED,
+  ADD UNIQUE KEY uk_tickets_active_seat (trip_id, active_seat_id);
+
+
+-- ========================================
+-- MIGRATION SCRIPT: Report deltas
+-- ReportAggregator ghi phần cộng/trừ của từng sự kiện vé trước khi outbox đánh dấu xong,
+-- khóa chính event_id để sự kiện giao lại không bị cộng hai lần; applied_at NULL = chưa cộng vào reports
+-- ========================================
+
+CREATE TABLE IF NOT EXISTS report_deltas (
+  event_id BIGINT PRIMARY KEY,
+  trip_id INT NOT NULL,
+  revenue DECIMAL(15,2) NOT NULL,
+  passengers INT NOT NULL,
+  created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  applied_at TIMESTAMP NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE INDEX idx_report_deltas_applied ON report_deltas(applied_at, event_id);
+
+
+-- ========================================
+-- MIGRATION SCRIPT: Notifications làm hàng đợi bền
+-- Thông báo được ghi trạng thái pending trước khi gửi, flush cập nhật sent/failed và sent_at;
+-- event_id (sự kiện booking_outbox) unique để sự kiện giao lại không tạo thông báo trùng
+-- ========================================
+
+ALTER TABLE notifications
+  MODIFY sent_at TIMESTAMP NULL DEFAULT NULL,
+  MODIFY status ENUM('pending', 'sent', 'failed') DEFAULT 'pending',
+  ADD COLUMN event_id BIGINT NULL,
+  ADD UNIQUE KEY uk_notifications_event_id (event_id);
+CREATE INDEX idx_notifications_pending ON notifications(status, type, id);
+
+
+-- ========================================
+-- MIGRATION SCRIPT: Notifications thử lại và chống trùng
+-- Gửi lỗi thì tin giữ pending, tăng attempts và chỉ gửi lại từ next_attempt_at;
+-- dedup_key unique để nhắc chuyến chạy trễ/chồng cửa sổ không tạo thông báo trùng
+-- ========================================
+
+ALTER TABLE notifications
+  ADD COLUMN attempts INT NOT NULL DEFAULT 0,
+  ADD COLUMN next_attempt_at TIMESTAMP NULL DEFAULT NULL,
+  ADD COLUMN dedup_key VARCHAR(64) NULL,
+  ADD UNIQUE KEY uk_notifications_dedup_key (dedup_key);
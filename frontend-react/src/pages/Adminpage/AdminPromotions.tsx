@@ -99,7 +99,10 @@ function AdminPromotions() {
 
     try {
       if (isEditing && currentPromotion) {
-        const response = await promotionService.updatePromotion(currentPromotion.id, formData as UpdatePromotionRequest)
+        const response = await promotionService.updatePromotion(currentPromotion.id, {
+          ...(formData as UpdatePromotionRequest),
+          version: currentPromotion.version,
+        })
         if (response.success) {
           toast.success("Cập nhật khuyến mãi thành công")
           setIsDialogOpen(false)
@@ -119,7 +122,12 @@ function AdminPromotions() {
       }
     } catch (error: any) {
       const errorMsg = error.payload?.message || error.message || ""
-      if (errorMsg.toLowerCase().includes("duplicate") && errorMsg.toLowerCase().includes("code")) {
+      if (error.status === 409) {
+        // Khuyến mãi vừa bị người khác sửa: tải lại để sửa trên dữ liệu mới
+        toast.error("Khuyến mãi vừa được cập nhật bởi người khác, vui lòng kiểm tra lại")
+        setIsDialogOpen(false)
+        fetchPromotions()
+      } else if (errorMsg.toLowerCase().includes("duplicate") && errorMsg.toLowerCase().includes("code")) {
         toast.error("Mã khuyến mãi đã tồn tại trong hệ thống")
       } else {
         toast.error(errorMsg || "Lỗi khi lưu khuyến mãi")
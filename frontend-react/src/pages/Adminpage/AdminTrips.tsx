@@ -205,6 +205,7 @@ function AdminTrips() {
       
       // Chỉ gửi status và driverId, giữ nguyên các trường khác
       const updateData: UpdateTripRequest = {
+        version: selectedTrip.version,
         routeId: selectedTrip.route.id,
         vehicleId: selectedTrip.vehicle.id,
         driverId: formData.driverId,
@@ -223,7 +224,14 @@ function AdminTrips() {
         toast.error(response.message || "Cập nhật chuyến xe thất bại");
       }
     } catch (error: any) {
-      toast.error(error.response?.data?.message || "Cập nhật chuyến xe thất bại");
+      if (error.status === 409) {
+        // Chuyến vừa bị người khác sửa: tải lại để sửa trên dữ liệu mới
+        toast.error("Chuyến xe vừa được cập nhật bởi người khác, vui lòng kiểm tra lại");
+        setShowEditDialog(false);
+        fetchTrips();
+        return;
+      }
+      toast.error(error.payload?.message || error.response?.data?.message || "Cập nhật chuyến xe thất bại");
       console.error("Error updating trip:", error);
     } finally {
       setLoading(false);
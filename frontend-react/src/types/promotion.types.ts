@@ -8,6 +8,7 @@ export interface Promotion {
   maxUses: number
   usedCount: number
   createdAt: string
+  version: number // gửi lại khi cập nhật
 }
 
 export interface CreatePromotionRequest {
@@ -20,6 +21,7 @@ export interface CreatePromotionRequest {
 }
 
 export interface UpdatePromotionRequest {
+  version: number // version đã đọc, server trả 409 nếu khuyến mãi đã bị sửa sau đó
   code: string
   discountPercentage?: number
   discountAmount?: number
@@ -24,6 +24,7 @@ export interface Trip {
   arrivalTime?: string;  // ISO datetime string
   status: 'scheduled' | 'ongoing' | 'completed' | 'cancelled';
   createdAt: string;
+  version: number; // gửi lại khi cập nhật
 }
 
 export interface CreateTripRequest {
@@ -36,6 +37,7 @@ export interface CreateTripRequest {
 }
 
 export interface UpdateTripRequest {
+  version: number; // version đã đọc, server trả 409 nếu chuyến đã bị sửa sau đó
   routeId?: number;
   vehicleId?: number;
   driverId?: number;